@@ -0,0 +1,85 @@
+package checks;
+
+import animation.AnimationRunner;
+import core.Counter;
+import game.GameEnvironment;
+import game.GameLevel;
+import game.SpriteCollection;
+import headless.HeadlessDisplay;
+import headless.ScriptedKeyboardSensor;
+import levels.DirectHit;
+import levels.Green3;
+import levels.LevelInformation;
+import levels.WideEasy;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The FastForwardCheck class checks that fast-forwarding a level ends it
+ * the same way as playing it tick by tick without a window: with the same
+ * score, blocks left and balls left. Neither run moves the paddle, so the
+ * two differ only in how the balls are moved.
+ * Every level is played on its own, from a score of 0.
+ */
+public class FastForwardCheck {
+    // The most game time a fast-forwarded level is played, in seconds
+    private static final double FAST_FORWARD_LIMIT = 3600;
+    private static final int FRAMES_PER_SECOND = 60;
+    private static final int TICKS_PER_SECOND = 240;
+
+    /**
+     * Runs the check on every level, and exits with status 1 if any level
+     * ends differently.
+     *
+     * @param args the command-line arguments (not used)
+     */
+    public static void main(String[] args) {
+        List<LevelInformation> levels = Arrays.asList(new DirectHit(), new WideEasy(),
+                new Green3());
+        int mismatches = 0;
+        for (LevelInformation levelInfo : levels) {
+            int[] ticked = play(levelInfo, false);
+            int[] fastForwarded = play(levelInfo, true);
+            String result = "score " + ticked[0] + " / " + fastForwarded[0]
+                    + ", blocks left " + ticked[1] + " / " + fastForwarded[1]
+                    + ", balls left " + ticked[2] + " / " + fastForwarded[2];
+            if (!Arrays.equals(ticked, fastForwarded)) {
+                mismatches++;
+                System.out.println(levelInfo.levelName() + ": MISMATCH (ticked / fast-forward) "
+                        + result);
+            } else {
+                System.out.println(levelInfo.levelName() + ": " + result);
+            }
+        }
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a fresh level to its end, as GameFlow does.
+     *
+     * @param levelInfo   the level information
+     * @param fastForward true to fast-forward the level, false to tick it
+     * @return the score, the blocks left and the balls left
+     */
+    private static int[] play(LevelInformation levelInfo, boolean fastForward) {
+        HeadlessDisplay display = new HeadlessDisplay(800, 600, new ScriptedKeyboardSensor());
+        AnimationRunner runner = new AnimationRunner(display, FRAMES_PER_SECOND,
+                TICKS_PER_SECOND, false);
+        Counter score = new Counter(0);
+        GameLevel level = new GameLevel(new SpriteCollection(), new GameEnvironment(), null,
+                levelInfo, runner, score);
+        level.initialize();
+        if (fastForward) {
+            level.fastForward(FAST_FORWARD_LIMIT);
+        } else {
+            while (level.getRemainingBlocks().getValue() != 0
+                    && level.getRemainingBalls().getValue() != 0) {
+                level.run();
+            }
+        }
+        return new int[] {score.getValue(), level.getRemainingBlocks().getValue(),
+                level.getRemainingBalls().getValue()};
+    }
+}
@@ -0,0 +1,230 @@
+package checks;
+
+import geometry.Line;
+import geometry.Point;
+import geometry.Rectangle;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The GeometryKernelCheck class checks the allocation-free geometry
+ * kernels. Line.closestIntersectionToStartOfLine, which is built on
+ * Rectangle.rayEntryT, is checked against the object-based intersection
+ * code on a million random segments. Rectangle.sweptCircleT is checked on
+ * balls that start just touching a face, where the ball is left after
+ * bouncing off a neighboring block, and must touch the face at once with
+ * its normal.
+ * The checks run on their own, without JMH, and GeometryBenchmark runs
+ * them before measuring.
+ */
+public class GeometryKernelCheck {
+    private static final int CHECKS = 1000000;
+    // How far apart the two results may be before they count as different
+    private static final double TOLERANCE = 0.0001;
+    /* How far inside (positive) or outside (negative) the touching distance
+    the near-contact balls start */
+    private static final double[] CONTACT_OFFSETS = {
+            0, 1e-12, 1e-9, 1e-7, 5e-6, 2e-5, -1e-12, -1e-9, -1e-7};
+    private static final double RADIUS = 5;
+
+    /**
+     * Runs the checks, and exits with status 1 if any result differs.
+     *
+     * @param args the command-line arguments (not used)
+     */
+    public static void main(String[] args) {
+        try {
+            checkKernel();
+            checkNearContact();
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("The geometry kernels match");
+    }
+
+    /**
+     * Checks Line.closestIntersectionToStartOfLine, which uses the kernel,
+     * against the closest of the points Rectangle.intersectionPoints finds,
+     * which is how it worked before it used the kernel.
+     *
+     * @throws IllegalStateException if a result differs
+     */
+    public static void checkKernel() {
+        Random random = new Random(1);
+        int mismatches = 0;
+        String first = null;
+        for (int i = 0; i < CHECKS; i++) {
+            Rectangle rect = randomBlock(random);
+            Line line = randomSegment(random, rect);
+            Point expected = reference(line, rect);
+            Point actual = line.closestIntersectionToStartOfLine(rect);
+            if (!same(expected, actual)) {
+                mismatches++;
+                if (first == null) {
+                    first = "segment (" + line.start().getX() + ", " + line.start().getY()
+                            + ") -> (" + line.end().getX() + ", " + line.end().getY()
+                            + "), rectangle (" + rect.getUpperLeft().getX() + ", "
+                            + rect.getUpperLeft().getY() + ", " + rect.getWidth() + ", "
+                            + rect.getHeight() + "): expected " + describe(expected)
+                            + ", got " + describe(actual);
+                }
+            }
+        }
+        if (mismatches > 0) {
+            throw new IllegalStateException(mismatches + " of " + CHECKS
+                    + " segments differ, the first: " + first);
+        }
+    }
+
+    /**
+     * Checks Rectangle.sweptCircleT on balls that start at the touching
+     * distance from a face, give or take a few rounding errors, and move
+     * into it. Each must touch the face at once, with the normal of that
+     * face, and not later after its center has crossed the edge.
+     *
+     * @throws IllegalStateException if a result differs
+     */
+    public static void checkNearContact() {
+        Random random = new Random(1);
+        double[] normal = new double[2];
+        int checks = 0;
+        int mismatches = 0;
+        String first = null;
+        for (int i = 0; i < CHECKS / 100; i++) {
+            Rectangle rect = randomBlock(random);
+            double minX = rect.getUpperLeft().getX();
+            double minY = rect.getUpperLeft().getY();
+            double maxX = minX + rect.getWidth();
+            double maxY = minY + rect.getHeight();
+            // Left, right, top and bottom faces, with their outward normals
+            int face = random.nextInt(4);
+            double normalX = face == 0 ? -1 : face == 1 ? 1 : 0;
+            double normalY = face == 2 ? -1 : face == 3 ? 1 : 0;
+            // Somewhere along the face, and moving into it at up to 60 degrees off its normal
+            double along = random.nextDouble();
+            double angle = (random.nextDouble() - 0.5) * Math.PI * 2 / 3;
+            double length = random.nextBoolean() ? 8 : 80;
+            double dx = -length * (normalX * Math.cos(angle) - normalY * Math.sin(angle));
+            double dy = -length * (normalY * Math.cos(angle) + normalX * Math.sin(angle));
+            for (double offset : CONTACT_OFFSETS) {
+                double gap = RADIUS - offset;
+                double x0 = face == 0 ? minX - gap : face == 1 ? maxX + gap
+                        : minX + along * (maxX - minX);
+                double y0 = face == 2 ? minY - gap : face == 3 ? maxY + gap
+                        : minY + along * (maxY - minY);
+                double t = Rectangle.sweptCircleT(minX, minY, maxX, maxY, RADIUS,
+                        x0, y0, x0 + dx, y0 + dy, normal);
+                checks++;
+                if (t * length > TOLERANCE || Math.abs(normal[0] - normalX) > TOLERANCE
+                        || Math.abs(normal[1] - normalY) > TOLERANCE) {
+                    mismatches++;
+                    if (first == null) {
+                        first = "circle (" + x0 + ", " + y0 + ") -> (" + (x0 + dx) + ", "
+                                + (y0 + dy) + "), rectangle (" + minX + ", " + minY + ", "
+                                + maxX + ", " + maxY + "): expected t=0 with normal ("
+                                + normalX + ", " + normalY + "), got t=" + t + " with normal ("
+                                + normal[0] + ", " + normal[1] + ")";
+                    }
+                }
+            }
+        }
+        if (mismatches > 0) {
+            throw new IllegalStateException(mismatches + " of " + checks
+                    + " near-contact circles differ, the first: " + first);
+        }
+    }
+
+    /**
+     * Finds the closest intersection point the way the object-based code does.
+     *
+     * @param line the segment
+     * @param rect the rectangle
+     * @return the closest intersection point, or null if there is none
+     */
+    private static Point reference(Line line, Rectangle rect) {
+        List<Point> points = rect.intersectionPoints(line);
+        Point closest = null;
+        double closestDistance = 0;
+        for (Point p : points) {
+            double distance = line.start().distance(p);
+            if (closest == null || distance < closestDistance) {
+                closest = p;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Creates a random rectangle with integer bounds, like the blocks of
+     * the game.
+     *
+     * @param random the random number generator
+     * @return the rectangle
+     */
+    private static Rectangle randomBlock(Random random) {
+        return new Rectangle(new Point(random.nextInt(100), random.nextInt(100)),
+                1 + random.nextInt(60), 1 + random.nextInt(40));
+    }
+
+    /**
+     * Creates a random segment near the given rectangle. Some segments have
+     * integer end points, are axis-aligned, or end exactly on an edge, since
+     * balls often move that way.
+     *
+     * @param random the random number generator
+     * @param rect   the rectangle
+     * @return the segment
+     */
+    private static Line randomSegment(Random random, Rectangle rect) {
+        double x0 = random.nextDouble() * 200 - 30;
+        double y0 = random.nextDouble() * 180 - 30;
+        double length = random.nextBoolean() ? 8 : 80;
+        double angle = random.nextDouble() * 2 * Math.PI;
+        double x1 = x0 + length * Math.cos(angle);
+        double y1 = y0 + length * Math.sin(angle);
+        switch (random.nextInt(5)) {
+            case 0:
+                // Integer coordinates
+                return new Line(Math.rint(x0), Math.rint(y0), Math.rint(x1), Math.rint(y1));
+            case 1:
+                // Horizontal or vertical
+                return random.nextBoolean()
+                        ? new Line(x0, Math.rint(y0), x1, Math.rint(y0))
+                        : new Line(Math.rint(x0), y0, Math.rint(x0), y1);
+            case 2:
+                // Ending exactly on the top edge
+                return new Line(x0, y0, rect.getUpperLeft().getX()
+                        + random.nextDouble() * rect.getWidth(), rect.getUpperLeft().getY());
+            default:
+                return new Line(x0, y0, x1, y1);
+        }
+    }
+
+    /**
+     * Checks whether the two results are the same point within the
+     * tolerance, or both missing.
+     *
+     * @param a the first result
+     * @param b the second result
+     * @return true if the results are the same, false otherwise
+     */
+    private static boolean same(Point a, Point b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Math.abs(a.getX() - b.getX()) < TOLERANCE
+                && Math.abs(a.getY() - b.getY()) < TOLERANCE;
+    }
+
+    /**
+     * Describes a result for the mismatch report.
+     *
+     * @param p the result
+     * @return the description
+     */
+    private static String describe(Point p) {
+        return p == null ? "none" : "(" + p.getX() + ", " + p.getY() + ")";
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import core.Velocity;
+import game.BallSystem;
+import game.GameEnvironment;
+import game.HitEventQueue;
+import gameObjects.Ball;
+import gameObjects.Block;
+import geometry.Point;
+import geometry.Rectangle;
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The BallSystemBenchmark class measures one tick of a BallSystem with many
+ * balls, moved on the calling thread or in parallel on the common pool.
+ * The balls bounce inside a closed box with rows of blocks in it. The blocks
+ * have no hit listeners, so every tick costs about the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallSystemBenchmark {
+    private static final double TICK = 1.0 / 240;
+    private static final int BLOCK_ROWS = 6;
+    private static final int BLOCKS_PER_ROW = 12;
+
+    @Param({"1000", "50000"})
+    private int balls;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private BallSystem system;
+
+    /**
+     * Creates the box, the blocks and the balls.
+     */
+    @Setup
+    public void setUp() {
+        GameEnvironment environment = new GameEnvironment();
+        environment.addCollidable(new Block(new Rectangle(new Point(770, 0), 30, 630, Color.GRAY)));
+        environment.addCollidable(new Block(new Rectangle(new Point(0, 0), 30, 630, Color.GRAY)));
+        environment.addCollidable(new Block(new Rectangle(new Point(0, 20), 800, 30, Color.GRAY)));
+        environment.addCollidable(new Block(new Rectangle(new Point(0, 600), 800, 30, Color.GRAY)));
+        for (int row = 0; row < BLOCK_ROWS; row++) {
+            for (int col = 0; col < BLOCKS_PER_ROW; col++) {
+                environment.addCollidable(new Block(new Rectangle(
+                        new Point(100 + col * 50, 100 + row * 25), 50, 25, Color.RED)));
+            }
+        }
+        this.system = new BallSystem(new HitEventQueue(),
+                this.parallel ? ForkJoinPool.commonPool() : null, 0);
+        Random random = new Random(3);
+        for (int i = 0; i < this.balls; i++) {
+            Ball ball = new Ball(new Point(50 + random.nextInt(700), 300 + random.nextInt(280)),
+                    5, Color.WHITE, environment);
+            ball.setVelocity(Velocity.fromAngleAndSpeed(random.nextInt(360), 5));
+            this.system.add(ball);
+        }
+    }
+
+    /**
+     * Measures one tick of all the balls.
+     */
+    @Benchmark
+    public void timePassed() {
+        this.system.timePassed(TICK);
+    }
+}
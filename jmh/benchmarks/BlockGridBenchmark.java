@@ -0,0 +1,102 @@
+package benchmarks;
+
+import core.CollisionInfo;
+import game.GameEnvironment;
+import gameObjects.Block;
+import gameObjects.BlockGrid;
+import geometry.Line;
+import geometry.Point;
+import geometry.Rectangle;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The BlockGridBenchmark class measures the closest collision query of a
+ * ball against a full wall of blocks, kept as separate blocks or as a block
+ * grid. The wall has the given number of columns and rows of 10x5 blocks,
+ * and the environment covers it all, so the cost of the grid should stay
+ * the same as the wall grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockGridBenchmark {
+    private static final int TRAJECTORIES = 1024;
+    private static final double BLOCK_WIDTH = 10;
+    private static final double BLOCK_HEIGHT = 5;
+
+    @Param({"16", "256"})
+    private int side;
+
+    @Param({"false", "true"})
+    private boolean grid;
+
+    private GameEnvironment environment;
+    private Line[] trajectories;
+    private int next;
+
+    /**
+     * Creates the wall and the trajectories, which start anywhere in the
+     * wall and are a few pixels long.
+     */
+    @Setup
+    public void setUp() {
+        double width = this.side * BLOCK_WIDTH;
+        double height = this.side * BLOCK_HEIGHT;
+        this.environment = new GameEnvironment(width, height, 40);
+        List<Block> blocks = new ArrayList<>();
+        for (int row = 0; row < this.side; row++) {
+            for (int col = 0; col < this.side; col++) {
+                blocks.add(new Block(new Rectangle(new Point(col * BLOCK_WIDTH,
+                        row * BLOCK_HEIGHT), BLOCK_WIDTH, BLOCK_HEIGHT, Color.RED)));
+            }
+        }
+        BlockGrid wall = this.grid ? BlockGrid.of(blocks) : null;
+        if (wall != null) {
+            this.environment.addCollidable(wall);
+        } else {
+            for (Block block : blocks) {
+                this.environment.addCollidable(block);
+            }
+        }
+        this.environment.packStaticCollidables();
+        Random random = new Random(7);
+        this.trajectories = new Line[TRAJECTORIES];
+        for (int i = 0; i < TRAJECTORIES; i++) {
+            double x = random.nextDouble() * width;
+            double y = random.nextDouble() * height;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            this.trajectories[i] = new Line(x, y, x + 5 * Math.cos(angle), y + 5 * Math.sin(angle));
+        }
+        this.next = 0;
+    }
+
+    /**
+     * Finds the closest collision of a ball along the next trajectory.
+     *
+     * @return the collision, so the work is not optimized away
+     */
+    @Benchmark
+    public CollisionInfo closestCollision() {
+        Line trajectory = this.trajectories[this.next];
+        this.next = (this.next + 1) & (TRAJECTORIES - 1);
+        return this.environment.getClosestCollision(trajectory, 2);
+    }
+}
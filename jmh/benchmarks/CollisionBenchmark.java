@@ -0,0 +1,118 @@
+package benchmarks;
+
+import core.Collidable;
+import core.CollisionInfo;
+import game.GameEnvironment;
+import gameObjects.Block;
+import geometry.Line;
+import geometry.Point;
+import geometry.Rectangle;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The CollisionBenchmark class measures GameEnvironment.getClosestCollision
+ * with a growing number of blocks, laid out in rows like a level, for the
+ * trajectory of a point and of a ball.
+ * The trajectories are short steps, like the ones a ball makes on every
+ * tick, starting at random points in the area of the blocks. Checking
+ * every block on every query, as the game environment did before it had a
+ * spatial index, is measured as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int TRAJECTORIES = 4096;
+    private static final int BLOCK_WIDTH = 20;
+    private static final int BLOCK_HEIGHT = 10;
+    private static final int SPACING = 4;
+    private static final double BALL_SPEED = 6;
+
+    @Param({"10", "100", "10000"})
+    private int blocks;
+
+    @Param({"0", "5"})
+    private double radius;
+
+    private GameEnvironment environment;
+    private List<Collidable> collidables;
+    private Line[] trajectories;
+    private double[] normal;
+    private int next;
+
+    /**
+     * Creates the environment and the random trajectories.
+     */
+    @Setup
+    public void setUp() {
+        int perRow = (int) Math.ceil(Math.sqrt(this.blocks * 2.0));
+        double width = perRow * (BLOCK_WIDTH + SPACING);
+        double height = Math.ceil((double) this.blocks / perRow) * (BLOCK_HEIGHT + SPACING);
+        this.environment = new GameEnvironment(width, height, 40);
+        for (int i = 0; i < this.blocks; i++) {
+            double x = (i % perRow) * (BLOCK_WIDTH + SPACING);
+            double y = (i / perRow) * (BLOCK_HEIGHT + SPACING);
+            this.environment.addCollidable(new Block(
+                    new Rectangle(new Point(x, y), BLOCK_WIDTH, BLOCK_HEIGHT)));
+        }
+        this.collidables = this.environment.getCollidableList();
+        this.normal = new double[2];
+        Random random = new Random(2);
+        this.trajectories = new Line[TRAJECTORIES];
+        for (int i = 0; i < TRAJECTORIES; i++) {
+            double x = random.nextDouble() * width;
+            double y = random.nextDouble() * height;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            this.trajectories[i] = new Line(x, y, x + BALL_SPEED * Math.cos(angle),
+                    y + BALL_SPEED * Math.sin(angle));
+        }
+        this.next = 0;
+    }
+
+    /**
+     * Measures one closest collision query.
+     *
+     * @return the closest collision, or null
+     */
+    @Benchmark
+    public CollisionInfo getClosestCollision() {
+        this.next = (this.next + 1) & (TRAJECTORIES - 1);
+        return this.environment.getClosestCollision(this.trajectories[this.next], this.radius);
+    }
+
+    /**
+     * Measures the same query by checking every block, without the index.
+     *
+     * @return the time of the first touch along the trajectory, or
+     * Double.POSITIVE_INFINITY if no block is touched
+     */
+    @Benchmark
+    public double scanAllBlocks() {
+        this.next = (this.next + 1) & (TRAJECTORIES - 1);
+        Line trajectory = this.trajectories[this.next];
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < this.collidables.size(); i++) {
+            double t = this.collidables.get(i).getCollisionRectangle().sweptCircleT(this.radius,
+                    trajectory.start().getX(), trajectory.start().getY(),
+                    trajectory.end().getX(), trajectory.end().getY(), this.normal);
+            best = Math.min(best, t);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import animation.ImageDrawSurface;
+import game.SpriteCollection;
+import game.SpriteLayer;
+import gameObjects.Block;
+import geometry.Point;
+import geometry.Rectangle;
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The DrawBatchingBenchmark class measures drawing a full wall of blocks
+ * with Java2D, on an off-screen image, with the drawing calls of the static
+ * layer batched by color or made one block after the other. The wall has
+ * the given number of columns and rows, colored from a small palette, so
+ * batching sets a color a handful of times instead of twice per block.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawBatchingBenchmark {
+    private static final Color[] PALETTE = {Color.RED, Color.ORANGE, Color.YELLOW,
+            Color.GREEN, Color.BLUE, Color.PINK};
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    @Param({"16", "64"})
+    private int side;
+
+    @Param({"false", "true"})
+    private boolean batching;
+
+    private SpriteCollection sprites;
+    private ImageDrawSurface surface;
+
+    /**
+     * Creates the wall and the image to draw it on.
+     */
+    @Setup
+    public void setUp() {
+        this.sprites = new SpriteCollection();
+        this.sprites.setBatching(this.batching);
+        double width = (double) WIDTH / this.side;
+        double height = (double) HEIGHT / this.side;
+        for (int row = 0; row < this.side; row++) {
+            for (int col = 0; col < this.side; col++) {
+                this.sprites.addSprite(new Block(new Rectangle(new Point(col * width,
+                        row * height), width, height, PALETTE[(row + col) % PALETTE.length])),
+                        SpriteLayer.STATIC);
+            }
+        }
+        this.surface = new ImageDrawSurface(WIDTH, HEIGHT);
+    }
+
+    /**
+     * Releases the image.
+     */
+    @TearDown
+    public void tearDown() {
+        this.surface.dispose();
+    }
+
+    /**
+     * Draws the wall once.
+     *
+     * @return the image, so the work is not optimized away
+     */
+    @Benchmark
+    public ImageDrawSurface drawWall() {
+        this.sprites.drawAllOn(this.surface);
+        return this.surface;
+    }
+}
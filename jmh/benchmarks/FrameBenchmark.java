@@ -0,0 +1,79 @@
+package benchmarks;
+
+import animation.AnimationRunner;
+import core.Counter;
+import game.GameEnvironment;
+import game.GameLevel;
+import game.SpriteCollection;
+import headless.HeadlessDisplay;
+import headless.HeadlessDrawSurface;
+import headless.ScriptedKeyboardSensor;
+import levels.Green3;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The FrameBenchmark class measures whole frames of a real level: the ticks
+ * of one frame (GameLevel.update) followed by drawing it once
+ * (GameLevel.render) on a headless draw surface.
+ * A level changes as it is played, so every invocation starts a fresh level
+ * and plays its first seconds; the result is the average time of a frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+    private static final int FRAMES = 240;
+    private static final int FRAMES_PER_SECOND = 60;
+    private static final int TICKS_PER_SECOND = 240;
+    private static final double TICK = 1.0 / TICKS_PER_SECOND;
+
+    private HeadlessDrawSurface surface;
+    private GameLevel level;
+
+    /**
+     * Starts a fresh level.
+     */
+    @Setup(Level.Invocation)
+    public void setUp() {
+        this.surface = new HeadlessDrawSurface(800, 600);
+        HeadlessDisplay display = new HeadlessDisplay(this.surface, new ScriptedKeyboardSensor());
+        AnimationRunner runner = new AnimationRunner(display, FRAMES_PER_SECOND,
+                TICKS_PER_SECOND, false);
+        this.level = new GameLevel(new SpriteCollection(), new GameEnvironment(), null,
+                new Green3(), runner, new Counter(0));
+        this.level.initialize();
+    }
+
+    /**
+     * Measures the first frames of the level.
+     *
+     * @return the number of drawing calls of the last frame
+     */
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public long frames() {
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (int tick = 0; tick < TICKS_PER_SECOND / FRAMES_PER_SECOND; tick++) {
+                this.level.update(TICK);
+            }
+            this.surface.clear();
+            this.level.render(this.surface);
+        }
+        return this.surface.getDrawCalls();
+    }
+}
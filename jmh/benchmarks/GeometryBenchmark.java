@@ -0,0 +1,154 @@
+package benchmarks;
+
+import checks.GeometryKernelCheck;
+import geometry.Line;
+import geometry.Point;
+import geometry.Rectangle;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The GeometryBenchmark class measures the geometry primitives the
+ * collision detection is built on: intersecting two lines, and finding
+ * where a line crosses the edges of a rectangle, with objects and with the
+ * allocation-free kernel Rectangle.rayEntryT.
+ * Every call takes the next of a fixed set of random inputs, so the branch
+ * predictor cannot learn a single answer.
+ * Before measuring, the kernels are checked by GeometryKernelCheck, and the
+ * run fails if any result differs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+    private static final int INPUTS = 1024;
+    private Line[] lines;
+    private Line[] others;
+    private Rectangle[] rectangles;
+    private int next;
+
+    /**
+     * Creates the random lines and rectangles.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        this.lines = new Line[INPUTS];
+        this.others = new Line[INPUTS];
+        this.rectangles = new Rectangle[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            this.lines[i] = randomLine(random);
+            this.others[i] = randomLine(random);
+            this.rectangles[i] = new Rectangle(
+                    new Point(random.nextInt(200), random.nextInt(200)),
+                    10 + random.nextInt(60), 5 + random.nextInt(30));
+        }
+        this.next = 0;
+    }
+
+    /**
+     * Checks the kernel against the object-based code before measuring.
+     *
+     * @throws IllegalStateException if a result differs
+     */
+    @Setup(Level.Trial)
+    public void checkKernel() {
+        GeometryKernelCheck.checkKernel();
+    }
+
+    /**
+     * Checks the swept-circle kernel on balls that start touching a face
+     * before measuring.
+     *
+     * @throws IllegalStateException if a result differs
+     */
+    @Setup(Level.Trial)
+    public void checkNearContact() {
+        GeometryKernelCheck.checkNearContact();
+    }
+
+    /**
+     * Creates a random line inside a 300x300 area.
+     *
+     * @param random the random number generator
+     * @return the line
+     */
+    private static Line randomLine(Random random) {
+        return new Line(random.nextDouble() * 300, random.nextDouble() * 300,
+                random.nextDouble() * 300, random.nextDouble() * 300);
+    }
+
+    /**
+     * Moves to the next input.
+     *
+     * @return the index of the input
+     */
+    private int nextIndex() {
+        this.next = (this.next + 1) & (INPUTS - 1);
+        return this.next;
+    }
+
+    /**
+     * Measures Line.intersectionWith.
+     *
+     * @return the intersection point, or null
+     */
+    @Benchmark
+    public Point lineIntersectionWith() {
+        int i = nextIndex();
+        return this.lines[i].intersectionWith(this.others[i]);
+    }
+
+    /**
+     * Measures Rectangle.intersectionPoints.
+     *
+     * @return the intersection points
+     */
+    @Benchmark
+    public List<Point> rectangleIntersectionPoints() {
+        int i = nextIndex();
+        return this.rectangles[i].intersectionPoints(this.lines[i]);
+    }
+
+    /**
+     * Measures Line.closestIntersectionToStartOfLine, the query a single
+     * collidable answers.
+     *
+     * @return the closest intersection point, or null
+     */
+    @Benchmark
+    public Point closestIntersectionToStartOfLine() {
+        int i = nextIndex();
+        return this.lines[i].closestIntersectionToStartOfLine(this.rectangles[i]);
+    }
+
+    /**
+     * Measures Rectangle.rayEntryT, the kernel closestIntersectionToStartOfLine
+     * is built on.
+     *
+     * @return the time the line enters the rectangle, or
+     * Double.POSITIVE_INFINITY if it does not
+     */
+    @Benchmark
+    public double rayEntryT() {
+        int i = nextIndex();
+        Line line = this.lines[i];
+        return this.rectangles[i].rayEntryT(line.start().getX(), line.start().getY(),
+                line.end().getX(), line.end().getY());
+    }
+}
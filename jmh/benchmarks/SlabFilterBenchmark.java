@@ -0,0 +1,98 @@
+package benchmarks;
+
+import game.SlabFilter;
+import game.SlabFilters;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SlabFilterBenchmark class compares the scalar and the vector slab
+ * filters on packed boxes the size of blocks, spread over the game area.
+ * Every invocation filters the boxes against the next of a fixed set of
+ * short ball trajectories. The forked JVM adds the Vector API module; the
+ * vector runs fail if the `vector` folder was not compiled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SlabFilterBenchmark {
+    private static final int TRAJECTORIES = 1024;
+    private static final double RADIUS = 5;
+
+    @Param({"16", "256", "4096"})
+    private int boxes;
+
+    @Param({"scalar", "vector"})
+    private String filter;
+
+    private SlabFilter slabFilter;
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+    private double[] segments;
+    private int[] out;
+    private int next;
+
+    /**
+     * Creates the boxes and the trajectories.
+     */
+    @Setup
+    public void setUp() {
+        this.slabFilter = "vector".equals(this.filter) ? SlabFilters.vector() : SlabFilters.scalar();
+        if (this.slabFilter == null) {
+            throw new IllegalStateException("The vector slab filter is not available");
+        }
+        Random random = new Random(5);
+        this.minX = new double[this.boxes];
+        this.minY = new double[this.boxes];
+        this.maxX = new double[this.boxes];
+        this.maxY = new double[this.boxes];
+        for (int i = 0; i < this.boxes; i++) {
+            this.minX[i] = random.nextInt(750);
+            this.minY[i] = random.nextInt(575);
+            this.maxX[i] = this.minX[i] + 50;
+            this.maxY[i] = this.minY[i] + 25;
+        }
+        this.segments = new double[TRAJECTORIES * 4];
+        for (int i = 0; i < TRAJECTORIES; i++) {
+            double x = random.nextDouble() * 800;
+            double y = random.nextDouble() * 600;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            this.segments[i * 4] = x;
+            this.segments[i * 4 + 1] = y;
+            this.segments[i * 4 + 2] = x + 5 * Math.cos(angle);
+            this.segments[i * 4 + 3] = y + 5 * Math.sin(angle);
+        }
+        this.out = new int[this.boxes];
+        this.next = 0;
+    }
+
+    /**
+     * Filters all the boxes against the next trajectory.
+     *
+     * @return the number of boxes that passed, so the work is not optimized away
+     */
+    @Benchmark
+    public int filter() {
+        int s = this.next * 4;
+        this.next = (this.next + 1) & (TRAJECTORIES - 1);
+        return this.slabFilter.filter(this.minX, this.minY, this.maxX, this.maxY, 0, this.boxes,
+                this.segments[s], this.segments[s + 1], this.segments[s + 2],
+                this.segments[s + 3], RADIUS, this.out);
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import core.Velocity;
+import game.GameEnvironment;
+import game.SpriteCollection;
+import gameObjects.Ball;
+import gameObjects.Block;
+import geometry.Point;
+import geometry.Rectangle;
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SpriteBenchmark class measures SpriteCollection.notifyAllTimePassed
+ * with a growing number of balls, bouncing inside a closed box with rows of
+ * blocks in it.
+ * The blocks have no hit listeners, so no ball or block is ever removed and
+ * every tick costs about the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteBenchmark {
+    private static final double TICK = 1.0 / 240;
+    private static final int BLOCK_ROWS = 6;
+    private static final int BLOCKS_PER_ROW = 12;
+
+    @Param({"10", "100", "1000"})
+    private int balls;
+
+    private SpriteCollection sprites;
+
+    /**
+     * Creates the box, the blocks and the balls.
+     */
+    @Setup
+    public void setUp() {
+        GameEnvironment environment = new GameEnvironment();
+        this.sprites = new SpriteCollection();
+        Block[] borders = {
+                new Block(new Rectangle(new Point(770, 0), 30, 630, Color.GRAY)),
+                new Block(new Rectangle(new Point(0, 0), 30, 630, Color.GRAY)),
+                new Block(new Rectangle(new Point(0, 20), 800, 30, Color.GRAY)),
+                new Block(new Rectangle(new Point(0, 600), 800, 30, Color.GRAY))
+        };
+        for (Block border : borders) {
+            environment.addCollidable(border);
+            this.sprites.addSprite(border);
+        }
+        for (int row = 0; row < BLOCK_ROWS; row++) {
+            for (int col = 0; col < BLOCKS_PER_ROW; col++) {
+                Block block = new Block(new Rectangle(
+                        new Point(100 + col * 50, 100 + row * 25), 50, 25, Color.RED));
+                environment.addCollidable(block);
+                this.sprites.addSprite(block);
+            }
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < this.balls; i++) {
+            Ball ball = new Ball(new Point(50 + random.nextInt(700), 300 + random.nextInt(280)),
+                    5, Color.WHITE, environment);
+            ball.setVelocity(Velocity.fromAngleAndSpeed(random.nextInt(360), 5));
+            this.sprites.addSprite(ball);
+        }
+    }
+
+    /**
+     * Measures one tick of all the sprites.
+     */
+    @Benchmark
+    public void notifyAllTimePassed() {
+        this.sprites.notifyAllTimePassed(TICK);
+    }
+}
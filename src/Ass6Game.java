@@ -1,6 +1,10 @@
 import core.Counter;
 import animation.AnimationRunner;
 import game.GameFlow;
+import headless.HeadlessDisplay;
+import metrics.EngineMetrics;
+import headless.ScriptedKeyboardSensor;
+import biuoop.KeyboardSensor;
 import levels.DirectHit;
 import levels.Green3;
 import levels.LevelInformation;
@@ -13,6 +17,35 @@ import java.util.List;
  * The Ass6Game class represents the main class of the Arkanoid game.
  */
 public class Ass6Game {
+    private static final String FPS_OPTION = "--fps=";
+    private static final int DEFAULT_FRAMES_PER_SECOND = 60;
+    private static final String HEADLESS_OPTION = "--headless";
+    private static final String FAST_FORWARD_OPTION = "--fast-forward";
+    private static final String DIRTY_RECTS_OPTION = "--dirty-rects";
+    // How often the space key is tapped when running headless, in frames
+    private static final int HEADLESS_TAP_PERIOD = 30;
+
+    /**
+     * Parses the frame rate given with the "--fps=" argument. A value that
+     * is not a positive number is reported, and the default frame rate is
+     * used instead.
+     *
+     * @param value the value of the argument
+     * @return the frame rate
+     */
+    private static int parseFramesPerSecond(String value) {
+        try {
+            int framesPerSecond = Integer.parseInt(value);
+            if (framesPerSecond > 0) {
+                return framesPerSecond;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below, like a rate that is not positive
+        }
+        System.err.println("Invalid frame rate \"" + value + "\", using "
+                + DEFAULT_FRAMES_PER_SECOND + " frames per second");
+        return DEFAULT_FRAMES_PER_SECOND;
+    }
 
     /**
      * The main entry point of the Arkanoid game.
@@ -24,9 +57,31 @@ public class Ass6Game {
         List<LevelInformation> levelsInfo = new ArrayList<>();
         // Determine the number of levels from the command-line arguments
         int numLevels = args.length;
+        // The frame rate may be chosen with an argument such as "--fps=144"
+        int framesPerSecond = DEFAULT_FRAMES_PER_SECOND;
+        // The game may run without a window with the argument "--headless"
+        boolean headless = false;
+        /* With the argument "--fast-forward", the levels are played headless
+        from one collision to the next, without animating them */
+        boolean fastForward = false;
+        // With the argument "--dirty-rects", only the regions that changed are drawn again
+        boolean dirtyRects = false;
 
         // Populate the list of level information based on the command-line arguments
         for (int i = 0; i < numLevels; i++) {
+            if (args[i].startsWith(FPS_OPTION)) {
+                framesPerSecond = parseFramesPerSecond(args[i].substring(FPS_OPTION.length()));
+            }
+            if (args[i].equals(HEADLESS_OPTION)) {
+                headless = true;
+            }
+            if (args[i].equals(FAST_FORWARD_OPTION)) {
+                headless = true;
+                fastForward = true;
+            }
+            if (args[i].equals(DIRTY_RECTS_OPTION)) {
+                dirtyRects = true;
+            }
             if (args[i].equals("1")) {
                 levelsInfo.add(new DirectHit());
             }
@@ -49,13 +104,40 @@ public class Ass6Game {
         // Create a counter to keep track of the total score
         Counter totalScore = new Counter(0);
         // Create an AnimationRunner
-        AnimationRunner runner = new AnimationRunner();
+        AnimationRunner runner;
+        if (headless) {
+            /* Without a window, the space key is tapped every now and then to
+            get past the end screen, and the frames are not paced */
+            ScriptedKeyboardSensor keyboard = new ScriptedKeyboardSensor()
+                    .tap(KeyboardSensor.SPACE_KEY, 0, HEADLESS_TAP_PERIOD);
+            runner = new AnimationRunner(new HeadlessDisplay(800, 600, keyboard),
+                    framesPerSecond, 240, false);
+        } else {
+            runner = new AnimationRunner(framesPerSecond);
+        }
+        runner.setDirtyRendering(dirtyRects);
+
+        // Publish the live engine metrics to JMX clients
+        EngineMetrics.getInstance().register();
+
+        // Print the frame stats when the game exits, even by closing the window
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                System.out.println(runner.getFrameStats())));
 
         // Create a GameFlow object to manage the game flow
         GameFlow gameFlow = new GameFlow(runner,
-                runner.getGui().getKeyboardSensor(), totalScore);
+                runner.getDisplay().getKeyboardSensor(), totalScore);
+        gameFlow.setFastForward(fastForward);
 
         // Run the levels using the GameFlow object
+        long start = System.nanoTime();
         gameFlow.runLevels(levelsInfo);
+        if (fastForward) {
+            System.out.println("Fast-forwarded in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        if (headless) {
+            System.out.println("Score: " + totalScore.getValue());
+        }
     }
 }
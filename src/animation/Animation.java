@@ -1,22 +1,45 @@
 package animation;
 
 import biuoop.DrawSurface;
+import geometry.DirtyRegions;
 
 /**
  * The Animation interface represents an animation that can be displayed on
  * a DrawSurface.
- * It provides methods to update the animation state and determine when the
- * animation should stop.
+ * The animation runner advances the state of the animation in fixed time
+ * steps, independently of how often the animation is drawn, so the
+ * animation provides separate methods to update its state, to draw it, and
+ * to determine when it should stop.
  */
 public interface Animation {
 
     /**
-     * Performs one frame of the animation, updating its state and drawing on
-     * the specified DrawSurface.
+     * Advances the state of the animation by one fixed time step.
+     *
+     * @param dt the length of the time step, in seconds
+     */
+    void update(double dt);
+
+    /**
+     * Draws the current state of the animation on the specified DrawSurface,
+     * without changing it.
      *
      * @param d the DrawSurface on which to draw the animation frame
      */
-    void doOneFrame(DrawSurface d);
+    void render(DrawSurface d);
+
+    /**
+     * Gathers the regions of the screen that changed since the previous
+     * frame, so only they have to be drawn again. Animations that do not
+     * know what changed return false, and are drawn whole in every frame.
+     *
+     * @param regions the regions to add to
+     * @return true if the regions cover everything that changed, false if
+     * the whole screen may have changed
+     */
+    default boolean collectDirtyRegions(DirtyRegions regions) {
+        return false;
+    }
 
     /**
      * Checks if the animation should stop.
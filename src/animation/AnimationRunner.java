@@ -4,16 +4,58 @@ package animation;
 import biuoop.DrawSurface;
 import biuoop.GUI;
 import biuoop.Sleeper;
+import geometry.DirtyRegions;
+import metrics.EngineMetrics;
+import metrics.FrameEvent;
+import metrics.FrameStats;
 
 /**
  * The AnimationRunner class is responsible for running animations and
  * controlling their frame rate.
- * It uses a GUI object to display the animations on the screen.
+ * It uses a display, usually a window, to show the animations on the screen.
+ * The state of the animation is updated in fixed time steps (ticks), at a
+ * rate that does not depend on how fast frames are drawn: every frame runs
+ * as many ticks as the time that passed calls for, and then draws once.
+ * When drawing is slow, frames are dropped, but ticks are not.
+ * The frames themselves are paced by a FramePacer, which supports high
+ * refresh rates such as 120, 144 and 240 frames per second.
+ * A runner that does not run in real time does not measure or wait for
+ * anything: every frame advances the animation by the time of one frame,
+ * as fast as possible. This is used to run the game headless.
+ * In dirty rectangle mode, the frames are drawn on an off-screen image that
+ * is kept from one frame to the next, and only the regions that the
+ * animation reports as changed are drawn on it again. The image is then
+ * shown in a single call. The fraction of the screen drawn again in every
+ * frame is recorded in the frame stats.
  */
 public class AnimationRunner {
+    private static final int DEFAULT_TICKS_PER_SECOND = 240;
+    // The longest stall that is caught up with, such as a nested pause screen
+    private static final long MAX_CATCH_UP_NANOS = 250_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int DEFAULT_FRAMES_PER_SECOND = 60;
+    // The key that shows and hides the frame stats overlay
+    private static final String OVERLAY_KEY = "f";
+    // The most regions drawn again in a frame, before close ones are merged
+    private static final int MAX_DIRTY_REGIONS = 8;
+    // The fraction of the screen above which the whole screen is drawn again
+    private static final double FULL_REPAINT_FRACTION = 0.5;
     private GUI gui;
-    private int framesPerSecond;
+    private Display display;
+    private FramePacer pacer;
+    private int ticksPerSecond;
+    private boolean realTime;
     private Sleeper sleeper;
+    private FrameStats stats;
+    private boolean overlayVisible;
+    private boolean overlayKeyDown;
+    private long runs;
+    private boolean dirtyRendering;
+    private ImageDrawSurface backBuffer;
+    private DirtyRegions dirtyRegions;
+    private RegionReplayDrawSurface replay;
+    // The animation drawn on the back buffer last, whose frame it holds
+    private Animation lastRendered;
 
     /**
      * Creates a new AnimationRunner instance with the specified GUI,
@@ -21,12 +63,58 @@ public class AnimationRunner {
      *
      * @param gui the GUI object to display animations
      * @param framesPerSecond the desired number of frames per second
-     * @param sleeper the Sleeper object to control the frame rate
+     * @param sleeper the Sleeper object, no longer used to control the frame
+     *                rate
      */
     public AnimationRunner(GUI gui, int framesPerSecond, Sleeper sleeper) {
+        this(gui, framesPerSecond, DEFAULT_TICKS_PER_SECOND, sleeper);
+    }
+
+    /**
+     * Creates a new AnimationRunner instance with the specified GUI,
+     * frames per second, ticks per second, and Sleeper.
+     *
+     * @param gui the GUI object to display animations
+     * @param framesPerSecond the desired number of frames drawn per second
+     * @param ticksPerSecond the number of fixed time steps the animations
+     *                       are updated in per second
+     * @param sleeper the Sleeper object, no longer used to control the frame
+     *                rate
+     */
+    public AnimationRunner(GUI gui, int framesPerSecond, int ticksPerSecond,
+                           Sleeper sleeper) {
         this.gui = gui;
-        this.framesPerSecond = framesPerSecond;
+        this.display = new WindowDisplay(gui);
+        this.pacer = new FramePacer(framesPerSecond);
+        this.ticksPerSecond = ticksPerSecond;
+        this.realTime = true;
         this.sleeper = sleeper;
+        this.stats = new FrameStats();
+        this.dirtyRegions = new DirtyRegions();
+        this.replay = new RegionReplayDrawSurface();
+    }
+
+    /**
+     * Creates a new AnimationRunner instance that shows the animations on
+     * the specified display.
+     *
+     * @param display the display to show the animations on
+     * @param framesPerSecond the number of frames drawn per second
+     * @param ticksPerSecond the number of fixed time steps the animations
+     *                       are updated in per second
+     * @param realTime whether to run in real time; if false, the frames are
+     *                 run one after the other as fast as possible
+     */
+    public AnimationRunner(Display display, int framesPerSecond, int ticksPerSecond,
+                           boolean realTime) {
+        this.display = display;
+        this.pacer = new FramePacer(framesPerSecond);
+        this.ticksPerSecond = ticksPerSecond;
+        this.realTime = realTime;
+        this.sleeper = new Sleeper();
+        this.stats = new FrameStats();
+        this.dirtyRegions = new DirtyRegions();
+        this.replay = new RegionReplayDrawSurface();
     }
 
     /**
@@ -35,38 +123,215 @@ public class AnimationRunner {
      * sets the frames per second to 60, and uses a new Sleeper object.
      */
     public AnimationRunner() {
-        this.gui = new GUI("Arkanoid", 800, 600);
-        this.framesPerSecond = 60;
-        this.sleeper = new Sleeper();
+        this(DEFAULT_FRAMES_PER_SECOND);
+    }
+
+    /**
+     * Creates a new AnimationRunner instance with the specified frames per
+     * second, and default values otherwise.
+     * Uses a new GUI object with a window titled "Arkanoid" and dimensions 800x600,
+     * and a new Sleeper object.
+     *
+     * @param framesPerSecond the desired number of frames drawn per second
+     */
+    public AnimationRunner(int framesPerSecond) {
+        this(new GUI("Arkanoid", 800, 600), framesPerSecond,
+                DEFAULT_TICKS_PER_SECOND, new Sleeper());
     }
 
     /**
-     /**
      * Runs the specified Animation object until it should stop.
-     * The animation's doOneFrame method is called repeatedly to update the
-     * animation state and draw on the GUI.
+     * The time that passed since the previous frame is accumulated, and the
+     * animation's update method is called once for every whole tick in it.
+     * Then the animation is drawn once on the GUI, and the runner waits
+     * until the next frame is due. The frame of the tick that stopped the
+     * animation is still drawn and shown before the runner returns. The
+     * time a nested animation, such as a pause screen, ran for is not
+     * caught up.
+     * The time of every phase of the frame is recorded in the frame stats,
+     * which are drawn over the animation while the overlay key is toggled on.
      *
      * @param animation the Animation object to run
      */
     public void run(Animation animation) {
-        int millisecondsPerFrame = 1000 / this.framesPerSecond;
+        this.runs++;
+        long nanosPerFrame = NANOS_PER_SECOND / this.pacer.getTargetRate();
+        long nanosPerTick = NANOS_PER_SECOND / this.ticksPerSecond;
+        double secondsPerTick = 1.0 / this.ticksPerSecond;
+        long previousTime = System.nanoTime();
+        long previousStart = 0;
+        long lag = 0;
+        this.pacer.start();
         while (!animation.shouldStop()) {
-            // Timing the frame
-            long startTime = System.currentTimeMillis();
-            DrawSurface d = gui.getDrawSurface();
-
-            // Perform one frame of the animation
-            animation.doOneFrame(d);
-
-            // Display the updated frame on the GUI
-            gui.show(d);
-            long usedTime = System.currentTimeMillis() - startTime;
-            long milliSecondLeftToSleep = millisecondsPerFrame - usedTime;
-            if (milliSecondLeftToSleep > 0) {
-                // Sleep to control the frame rate
-                this.sleeper.sleepFor(milliSecondLeftToSleep);
+            FrameEvent frameEvent = new FrameEvent();
+            frameEvent.begin();
+            long startTime = System.nanoTime();
+            if (this.realTime) {
+                lag = Math.min(lag + startTime - previousTime, MAX_CATCH_UP_NANOS);
+                previousTime = startTime;
+            } else {
+                lag += nanosPerFrame;
+            }
+
+            // Run every tick that is due, however long drawing took
+            long runsBefore = this.runs;
+            int ticks = 0;
+            while (lag >= nanosPerTick && !animation.shouldStop()) {
+                animation.update(secondsPerTick);
+                lag -= nanosPerTick;
+                ticks++;
+            }
+            long updateEnd = System.nanoTime();
+
+            // Draw the current state once, and show it on the display, even
+            // if a tick stopped the animation, so its final state is seen
+            this.checkOverlayKey();
+            DrawSurface d = this.display.getDrawSurface();
+            this.render(animation, d);
+            if (this.overlayVisible) {
+                this.stats.drawOn(d);
+            }
+            long drawEnd = System.nanoTime();
+            this.display.show(d);
+            long showEnd = System.nanoTime();
+            EngineMetrics.getInstance().frameRendered();
+            frameEvent.setTicks(ticks);
+            frameEvent.commit();
+
+            /* A nested animation, such as a pause screen, may have run in a
+            tick, and its time does not belong to this frame, nor is it
+            caught up: the next frame starts fresh */
+            if (this.runs == runsBefore) {
+                this.stats.recordPhases(updateEnd - startTime, ticks, drawEnd - updateEnd,
+                        showEnd - drawEnd, this.realTime && showEnd - startTime > nanosPerFrame);
+                if (previousStart != 0) {
+                    this.stats.recordFrameTime(startTime - previousStart);
+                }
+                previousStart = startTime;
+            } else {
+                previousTime = System.nanoTime();
+                previousStart = 0;
+                lag = 0;
+                this.pacer.start();
+            }
+
+            // Wait until the next frame is due, to control the frame rate
+            if (this.realTime) {
+                this.pacer.waitForNextFrame();
+            }
+        }
+    }
+
+    /**
+     * Draws the current frame of the animation on the given surface. In
+     * dirty rectangle mode, only the regions of the back buffer that
+     * changed are drawn again, and the back buffer is drawn on the surface.
+     * The animation draws the frame once, on a surface that records the
+     * calls, and every region replays only the calls that may touch it.
+     *
+     * @param animation the animation to draw
+     * @param d         the surface to draw on
+     */
+    private void render(Animation animation, DrawSurface d) {
+        if (!this.dirtyRendering) {
+            animation.render(d);
+            return;
+        }
+        int width = d.getWidth();
+        int height = d.getHeight();
+        if (this.backBuffer == null || this.backBuffer.getWidth() != width
+                || this.backBuffer.getHeight() != height) {
+            this.backBuffer = new ImageDrawSurface(width, height);
+            this.lastRendered = null;
+        }
+        double screenArea = (double) width * height;
+        this.dirtyRegions.clear();
+        // The regions are gathered in every frame, so the next frame knows what this one drew
+        boolean known = animation.collectDirtyRegions(this.dirtyRegions)
+                && animation == this.lastRendered;
+        this.dirtyRegions.clipTo(width, height);
+        this.dirtyRegions.mergeTo(MAX_DIRTY_REGIONS);
+        double fraction = Math.min(1, this.dirtyRegions.totalArea() / screenArea);
+        if (!known || fraction > FULL_REPAINT_FRACTION) {
+            this.backBuffer.clear();
+            animation.render(this.backBuffer);
+            fraction = 1;
+        } else if (this.dirtyRegions.size() > 0) {
+            // The frame is drawn once, and every region replays only the calls that touch it
+            this.replay.begin(width, height);
+            animation.render(this.replay);
+            for (int i = 0; i < this.dirtyRegions.size(); i++) {
+                int x = this.dirtyRegions.getX(i);
+                int y = this.dirtyRegions.getY(i);
+                int regionWidth = this.dirtyRegions.getWidth(i);
+                int regionHeight = this.dirtyRegions.getHeight(i);
+                this.backBuffer.clip(x, y, regionWidth, regionHeight);
+                this.replay.replay(this.backBuffer, x, y, regionWidth, regionHeight);
             }
+            this.backBuffer.unclip();
         }
+        this.lastRendered = animation;
+        this.stats.recordRepaintedFraction(fraction);
+        d.drawImage(0, 0, this.backBuffer.getImage());
+    }
+
+    /**
+     * Sets whether the frames are drawn in dirty rectangle mode, where only
+     * the regions that changed are drawn again, or whole.
+     *
+     * @param dirtyRendering true to draw only the regions that changed
+     */
+    public void setDirtyRendering(boolean dirtyRendering) {
+        this.dirtyRendering = dirtyRendering;
+        this.lastRendered = null;
+    }
+
+    /**
+     * Toggles the frame stats overlay when the overlay key is pressed.
+     */
+    private void checkOverlayKey() {
+        boolean pressed = this.display.getKeyboardSensor().isPressed(OVERLAY_KEY);
+        if (pressed && !this.overlayKeyDown) {
+            this.overlayVisible = !this.overlayVisible;
+        }
+        this.overlayKeyDown = pressed;
+    }
+
+    /**
+     * Returns the statistics of the frames run so far.
+     *
+     * @return the frame stats
+     */
+    public FrameStats getFrameStats() {
+        return this.stats;
+    }
+
+    /**
+     * Sets the number of frames drawn per second.
+     *
+     * @param framesPerSecond the desired number of frames per second
+     */
+    public void setFramesPerSecond(int framesPerSecond) {
+        this.pacer.setTargetRate(framesPerSecond);
+    }
+
+    /**
+     * Returns the number of frames the runner tries to draw per second.
+     *
+     * @return the target frame rate
+     */
+    public int getTargetFramesPerSecond() {
+        return this.pacer.getTargetRate();
+    }
+
+    /**
+     * Returns the number of frames that were actually drawn per second
+     * lately.
+     *
+     * @return the achieved frame rate, or 0 if it was not measured yet
+     */
+    public double getAchievedFramesPerSecond() {
+        return this.pacer.getAchievedRate();
     }
 
     /**
@@ -78,10 +343,19 @@ public class AnimationRunner {
         return this.sleeper;
     }
 
+    /**
+     * Returns the display used by the AnimationRunner.
+     *
+     * @return the display
+     */
+    public Display getDisplay() {
+        return this.display;
+    }
+
     /**
      * Returns the GUI object used by the AnimationRunner.
      *
-     * @return the GUI object
+     * @return the GUI object, or null if the runner does not use a window
      */
     public GUI getGui() {
         return gui;
@@ -0,0 +1,430 @@
+package animation;
+
+import biuoop.AlphaChannelNotSupportedException;
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The BatchingDrawSurface class collects the drawing calls made on it, and
+ * passes them on to another surface sorted by their state, so every color
+ * is set once per batch instead of once per shape.
+ * When a batch is flushed, all the filled shapes are drawn first, a color
+ * at a time, and then all the outlines, a color at a time. Within a color,
+ * the shapes keep the order they were drawn in. This changes the order of
+ * shapes of different colors, so a batch should only hold shapes that do
+ * not cover each other, such as the blocks of a wall: the black outlines of
+ * all the blocks are then drawn in one sweep after all the blocks are
+ * filled.
+ * Calls that cannot be batched, such as texts, images and polygons, flush
+ * the batch and are passed on in place.
+ */
+public class BatchingDrawSurface implements DrawSurface {
+    private static final int INITIAL_CAPACITY = 256;
+    // The kinds of the calls that are batched
+    private static final int FILL_RECTANGLE = 0;
+    private static final int FILL_OVAL = 1;
+    private static final int DRAW_RECTANGLE = 2;
+    private static final int DRAW_OVAL = 3;
+    private static final int DRAW_LINE = 4;
+    private DrawSurface target;
+    // The colors used in the batch, and the color of the next calls
+    private Map<Color, Integer> colorIndices;
+    private Color[] colors;
+    private int colorCount;
+    private int color;
+    // The color last set on the target, or null if it is not known
+    private Color targetColor;
+    // The calls of the batch: their kind, color, and arguments
+    private int[] kinds;
+    private int[] callColors;
+    private int[] args;
+    private int count;
+    // Scratch arrays for sorting the calls by color
+    private int[] order;
+    private int[] colorStarts;
+    private long stateChanges;
+
+    /**
+     * Instantiates a new Batching draw surface.
+     */
+    public BatchingDrawSurface() {
+        this.colorIndices = new HashMap<>();
+        this.colors = new Color[INITIAL_CAPACITY];
+        this.colorCount = 0;
+        this.color = -1;
+        this.kinds = new int[INITIAL_CAPACITY];
+        this.callColors = new int[INITIAL_CAPACITY];
+        this.args = new int[4 * INITIAL_CAPACITY];
+        this.count = 0;
+        this.order = new int[INITIAL_CAPACITY];
+        this.colorStarts = new int[INITIAL_CAPACITY + 1];
+        this.stateChanges = 0;
+    }
+
+    /**
+     * Starts a new batch of calls, to be passed on to the given surface.
+     *
+     * @param d the surface the calls are drawn on when the batch is flushed
+     */
+    public void begin(DrawSurface d) {
+        this.target = d;
+        this.colorIndices.clear();
+        Arrays.fill(this.colors, 0, this.colorCount, null);
+        this.colorCount = 0;
+        this.color = -1;
+        this.targetColor = null;
+        this.count = 0;
+    }
+
+    /**
+     * Draws the calls of the batch on the target surface: the filled shapes
+     * first and then the outlines, each sorted by color.
+     */
+    public void flush() {
+        if (this.count == 0) {
+            return;
+        }
+        this.drawSorted(FILL_RECTANGLE, FILL_OVAL);
+        this.drawSorted(DRAW_RECTANGLE, DRAW_LINE);
+        this.count = 0;
+    }
+
+    /**
+     * Draws the calls of the batch whose kind is in the given range, sorted
+     * by color with a counting sort that keeps the order within a color.
+     *
+     * @param fromKind the first kind to draw
+     * @param toKind   the last kind to draw
+     */
+    private void drawSorted(int fromKind, int toKind) {
+        Arrays.fill(this.colorStarts, 0, this.colorCount + 1, 0);
+        int selected = 0;
+        for (int i = 0; i < this.count; i++) {
+            if (this.kinds[i] >= fromKind && this.kinds[i] <= toKind) {
+                this.colorStarts[this.callColors[i] + 1]++;
+                selected++;
+            }
+        }
+        for (int c = 0; c < this.colorCount; c++) {
+            this.colorStarts[c + 1] += this.colorStarts[c];
+        }
+        for (int i = 0; i < this.count; i++) {
+            if (this.kinds[i] >= fromKind && this.kinds[i] <= toKind) {
+                this.order[this.colorStarts[this.callColors[i]]++] = i;
+            }
+        }
+        // The starts moved to the ends of their colors, so the order is read from the front
+        for (int n = 0; n < selected; n++) {
+            int i = this.order[n];
+            this.useColor(this.colors[this.callColors[i]]);
+            int at = 4 * i;
+            int x = this.args[at];
+            int y = this.args[at + 1];
+            int w = this.args[at + 2];
+            int h = this.args[at + 3];
+            switch (this.kinds[i]) {
+                case FILL_RECTANGLE:
+                    this.target.fillRectangle(x, y, w, h);
+                    break;
+                case FILL_OVAL:
+                    this.target.fillOval(x, y, w, h);
+                    break;
+                case DRAW_RECTANGLE:
+                    this.target.drawRectangle(x, y, w, h);
+                    break;
+                case DRAW_OVAL:
+                    this.target.drawOval(x, y, w, h);
+                    break;
+                default:
+                    this.target.drawLine(x, y, w, h);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Sets the given color on the target surface, unless it is already set.
+     *
+     * @param c the color
+     */
+    private void useColor(Color c) {
+        if (c != this.targetColor) {
+            this.target.setColor(c);
+            this.targetColor = c;
+            this.stateChanges++;
+        }
+    }
+
+    /**
+     * Adds a call to the batch. A call made before any color was set uses
+     * the color of the target surface, so it is passed on in place instead.
+     *
+     * @param kind the kind of the call
+     * @param a    the first argument
+     * @param b    the second argument
+     * @param c    the third argument
+     * @param d    the fourth argument
+     */
+    private void add(int kind, int a, int b, int c, int d) {
+        if (this.color == -1) {
+            this.flush();
+            this.targetColor = null;
+            this.pass(kind, a, b, c, d);
+            return;
+        }
+        if (this.count == this.kinds.length) {
+            int capacity = 2 * this.count;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.callColors = Arrays.copyOf(this.callColors, capacity);
+            this.args = Arrays.copyOf(this.args, 4 * capacity);
+            this.order = Arrays.copyOf(this.order, capacity);
+        }
+        this.kinds[this.count] = kind;
+        this.callColors[this.count] = this.color;
+        int at = 4 * this.count;
+        this.args[at] = a;
+        this.args[at + 1] = b;
+        this.args[at + 2] = c;
+        this.args[at + 3] = d;
+        this.count++;
+    }
+
+    /**
+     * Passes a call on to the target surface in place.
+     *
+     * @param kind the kind of the call
+     * @param a    the first argument
+     * @param b    the second argument
+     * @param c    the third argument
+     * @param d    the fourth argument
+     */
+    private void pass(int kind, int a, int b, int c, int d) {
+        switch (kind) {
+            case FILL_RECTANGLE:
+                this.target.fillRectangle(a, b, c, d);
+                break;
+            case FILL_OVAL:
+                this.target.fillOval(a, b, c, d);
+                break;
+            case DRAW_RECTANGLE:
+                this.target.drawRectangle(a, b, c, d);
+                break;
+            case DRAW_OVAL:
+                this.target.drawOval(a, b, c, d);
+                break;
+            default:
+                this.target.drawLine(a, b, c, d);
+                break;
+        }
+    }
+
+    /**
+     * Flushes the batch before a call that cannot be batched, and sets the
+     * color of the next calls on the target surface.
+     */
+    private void flushForUnbatched() {
+        this.flush();
+        if (this.color != -1) {
+            this.useColor(this.colors[this.color]);
+        }
+    }
+
+    /**
+     * Gets the number of colors set on the target surfaces so far.
+     *
+     * @return the number of state changes
+     */
+    public long getStateChanges() {
+        return this.stateChanges;
+    }
+
+    /**
+     * Gets the width of the target surface.
+     *
+     * @return the width
+     */
+    @Override
+    public int getWidth() {
+        return this.target.getWidth();
+    }
+
+    /**
+     * Gets the height of the target surface.
+     *
+     * @return the height
+     */
+    @Override
+    public int getHeight() {
+        return this.target.getHeight();
+    }
+
+    /**
+     * Sets the color of the next drawing calls.
+     *
+     * @param c the color
+     */
+    @Override
+    public void setColor(Color c) throws AlphaChannelNotSupportedException {
+        // The target would only refuse a transparent color when the batch is flushed
+        if (c.getAlpha() != 255) {
+            throw new AlphaChannelNotSupportedException(
+                    "Alpha may not be used, the color provided had an alpha value of "
+                            + c.getAlpha());
+        }
+        Integer index = this.colorIndices.get(c);
+        if (index == null) {
+            index = this.colorCount++;
+            if (this.colorCount == this.colors.length) {
+                int capacity = 2 * this.colors.length;
+                this.colors = Arrays.copyOf(this.colors, capacity);
+                this.colorStarts = Arrays.copyOf(this.colorStarts, capacity + 1);
+            }
+            this.colors[index] = c;
+            this.colorIndices.put(c, index);
+        }
+        this.color = index;
+    }
+
+    /**
+     * Draws a line.
+     *
+     * @param x1 the x coordinate of the start of the line
+     * @param y1 the y coordinate of the start of the line
+     * @param x2 the x coordinate of the end of the line
+     * @param y2 the y coordinate of the end of the line
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.add(DRAW_LINE, x1, y1, x2, y2);
+    }
+
+    /**
+     * Draws the outline of an oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.add(DRAW_OVAL, x, y, width, height);
+    }
+
+    /**
+     * Fills an oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.add(FILL_OVAL, x, y, width, height);
+    }
+
+    /**
+     * Draws the outline of a rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        this.add(DRAW_RECTANGLE, x, y, width, height);
+    }
+
+    /**
+     * Fills a rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        this.add(FILL_RECTANGLE, x, y, width, height);
+    }
+
+    /**
+     * Draws an image, in place.
+     *
+     * @param x     the x coordinate of the upper left corner
+     * @param y     the y coordinate of the upper left corner
+     * @param image the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        this.flushForUnbatched();
+        this.target.drawImage(x, y, image);
+    }
+
+    /**
+     * Draws the outline of a circle, as the outline of the oval around it.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        this.add(DRAW_OVAL, x - radius, y - radius, 2 * radius, 2 * radius);
+    }
+
+    /**
+     * Fills a circle, as the oval around it.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        this.add(FILL_OVAL, x - radius, y - radius, 2 * radius, 2 * radius);
+    }
+
+    /**
+     * Draws a text, in place.
+     *
+     * @param x        the x coordinate of the start of the text
+     * @param y        the y coordinate of the baseline of the text
+     * @param text     the text
+     * @param fontSize the font size
+     */
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        this.flushForUnbatched();
+        this.target.drawText(x, y, text, fontSize);
+    }
+
+    /**
+     * Draws the outline of a polygon, in place.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        this.flushForUnbatched();
+        this.target.drawPolygon(polygon);
+    }
+
+    /**
+     * Fills a polygon, in place.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        this.flushForUnbatched();
+        this.target.fillPolygon(polygon);
+    }
+}
@@ -16,7 +16,7 @@ public class CountdownAnimation implements Animation {
     private int countFrom;
     private SpriteCollection gameScreen;
     private boolean running;
-    private long initiationTime;
+    private double elapsedTime;
 
     /**
      * Creates a new CountdownAnimation instance with the specified parameters.
@@ -31,23 +31,40 @@ public class CountdownAnimation implements Animation {
         this.countFrom = countFrom;
         this.gameScreen = gameScreen;
         this.running = true;
-        this.initiationTime = System.currentTimeMillis();
+        this.elapsedTime = 0;
     }
 
     /**
-     * Performs one frame of the countdown animation.
-     * Updates the game screen by drawing all sprites and the current count
-     * number on the specified DrawSurface.
+     * Updates the countdown animation.
      * Updates the count and checks if the animation should stop based on the
      * elapsed time.
      *
-     * @param d the DrawSurface to draw the animation frame on
+     * @param dt the length of the time step, in seconds
      */
     @Override
-    public void doOneFrame(DrawSurface d) {
-        double numOfSec = this.numOfSeconds * 1000;
+    public void update(double dt) {
         int initialCount = this.countFrom + 1;
 
+        this.elapsedTime += dt;
+        if (this.elapsedTime > this.numOfSeconds / initialCount) {
+            this.elapsedTime = 0;
+            this.countFrom--;
+        }
+
+        if (this.countFrom == 0) {
+            this.running = false;
+        }
+    }
+
+    /**
+     * Draws one frame of the countdown animation.
+     * Draws the game screen (all sprites) and the current count number on
+     * the specified DrawSurface.
+     *
+     * @param d the DrawSurface to draw the animation frame on
+     */
+    @Override
+    public void render(DrawSurface d) {
         Color numColor = new Color(181, 215, 78);
         d.setColor(numColor);
         //d.fillRectangle(0, 0, d.getWidth(), d.getHeight());
@@ -56,16 +73,6 @@ public class CountdownAnimation implements Animation {
 
         d.setColor(numColor);
         d.drawText(335, 400, Integer.toString(this.countFrom), 150);
-
-        if (System.currentTimeMillis() -  this.initiationTime
-                > numOfSec / initialCount) {
-            this.initiationTime = System.currentTimeMillis();
-            this.countFrom--;
-        }
-
-        if (this.countFrom == 0) {
-            this.running = false;
-        }
     }
 
     /**
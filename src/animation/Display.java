@@ -0,0 +1,39 @@
+package animation;
+
+import biuoop.DrawSurface;
+import biuoop.KeyboardSensor;
+
+/**
+ * The Display interface is where the animation runner draws its frames and
+ * reads the keyboard from.
+ * It is usually a window, but it may also be headless, so the game can run
+ * without a screen.
+ */
+public interface Display {
+
+    /**
+     * Returns a new surface to draw the next frame on.
+     *
+     * @return the draw surface
+     */
+    DrawSurface getDrawSurface();
+
+    /**
+     * Shows the frame drawn on the given surface.
+     *
+     * @param d the draw surface to show
+     */
+    void show(DrawSurface d);
+
+    /**
+     * Returns the keyboard sensor of the display.
+     *
+     * @return the keyboard sensor
+     */
+    KeyboardSensor getKeyboardSensor();
+
+    /**
+     * Closes the display.
+     */
+    void close();
+}
@@ -24,15 +24,28 @@ public class EndScreen implements Animation {
         this.isWin = isWin;
         this.score = score;
     }
+
+    /**
+     * Updates the end screen animation.
+     * Since the end screen does not change over time, this method does
+     * nothing.
+     *
+     * @param dt the length of the time step, in seconds
+     */
+    @Override
+    public void update(double dt) {
+        return;
+    }
+
     /**
-     * Performs one frame of the end screen animation.
+     * Draws one frame of the end screen animation.
      * Draws a message indicating whether the player won or lost and their
      * final score on the specified DrawSurface.
      *
      * @param d the DrawSurface to draw the animation frame on
      */
     @Override
-    public void doOneFrame(DrawSurface d) {
+    public void render(DrawSurface d) {
         if (this.isWin) {
             d.drawText(10, d.getHeight() / 2, "You Win! Your score is "
                     + this.score.getValue(), 32);
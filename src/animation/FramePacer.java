@@ -0,0 +1,150 @@
+package animation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The FramePacer class paces a loop to a target number of frames per
+ * second, using System.nanoTime.
+ * Every frame has an absolute deadline, computed from the start of the run
+ * and the frame number, so rounding errors and frames that end a little
+ * late do not add up: the next frames simply wait a little less. The pacer
+ * sleeps until shortly before the deadline, and yields in a loop for the
+ * rest, since sleeping is not precise enough for 144 or 240 frames per
+ * second. If the loop falls more than a few frames behind, the pacer starts
+ * over from the current time instead of rushing through the missed frames.
+ * The pacer also measures the frame rate that is actually achieved.
+ */
+public class FramePacer {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // How long before the deadline to stop sleeping and start yielding
+    private static final long SPIN_NANOS = 1_000_000L;
+    // How many frames the loop may fall behind before the pacer starts over
+    private static final int MAX_FRAMES_BEHIND = 3;
+    // How often the achieved frame rate is measured
+    private static final long MEASURE_NANOS = NANOS_PER_SECOND / 2;
+    private int targetRate;
+    private long origin;
+    private long frame;
+    private long measureStart;
+    private int measureFrames;
+    private double achievedRate;
+
+    /**
+     * Instantiates a new Frame pacer.
+     *
+     * @param framesPerSecond the target number of frames per second
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    public FramePacer(int framesPerSecond) {
+        this.targetRate = checkRate(framesPerSecond);
+        this.achievedRate = 0;
+        this.start();
+    }
+
+    /**
+     * Checks that a frame rate is positive, since the time of a frame is
+     * divided by it.
+     *
+     * @param framesPerSecond the frame rate
+     * @return the frame rate
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    private static int checkRate(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("The frame rate must be positive, but was "
+                    + framesPerSecond);
+        }
+        return framesPerSecond;
+    }
+
+    /**
+     * Starts pacing from the current time: the first deadline is one frame
+     * from now.
+     */
+    public void start() {
+        this.origin = System.nanoTime();
+        this.frame = 0;
+        this.measureStart = this.origin;
+        this.measureFrames = 0;
+    }
+
+    /**
+     * Waits until the deadline of the current frame, and moves on to the
+     * next frame.
+     */
+    public void waitForNextFrame() {
+        this.frame++;
+        long deadline = deadlineOf(this.frame);
+        long now = System.nanoTime();
+        if (now - deadline > MAX_FRAMES_BEHIND * (NANOS_PER_SECOND / this.targetRate)) {
+            // Too far behind to catch up with, so start over from now
+            this.origin = now;
+            this.frame = 0;
+        } else {
+            long sleepTime = deadline - now - SPIN_NANOS;
+            if (sleepTime > 0) {
+                LockSupport.parkNanos(sleepTime);
+            }
+            while (System.nanoTime() - deadline < 0) {
+                Thread.yield();
+            }
+            now = System.nanoTime();
+        }
+        this.measure(now);
+    }
+
+    /**
+     * Counts a frame that ended at the given time, and updates the achieved
+     * frame rate once enough time has passed.
+     *
+     * @param now the time the frame ended, in nanoseconds
+     */
+    private void measure(long now) {
+        this.measureFrames++;
+        long elapsed = now - this.measureStart;
+        if (elapsed >= MEASURE_NANOS) {
+            this.achievedRate = (double) this.measureFrames * NANOS_PER_SECOND / elapsed;
+            this.measureStart = now;
+            this.measureFrames = 0;
+        }
+    }
+
+    /**
+     * Returns the absolute deadline of the given frame.
+     *
+     * @param n the frame number since the start
+     * @return the deadline, in nanoseconds
+     */
+    private long deadlineOf(long n) {
+        return this.origin + n * NANOS_PER_SECOND / this.targetRate;
+    }
+
+    /**
+     * Sets the target number of frames per second, and starts over.
+     *
+     * @param framesPerSecond the target number of frames per second
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    public void setTargetRate(int framesPerSecond) {
+        this.targetRate = checkRate(framesPerSecond);
+        this.start();
+    }
+
+    /**
+     * Gets the target number of frames per second.
+     *
+     * @return the target frame rate
+     */
+    public int getTargetRate() {
+        return this.targetRate;
+    }
+
+    /**
+     * Gets the number of frames per second that was achieved lately.
+     *
+     * @return the achieved frame rate, or 0 if it was not measured yet
+     */
+    public double getAchievedRate() {
+        return this.achievedRate;
+    }
+}
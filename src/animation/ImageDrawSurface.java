@@ -0,0 +1,254 @@
+package animation;
+
+import biuoop.AlphaChannelNotSupportedException;
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+
+/**
+ * The ImageDrawSurface class is a draw surface that draws onto an
+ * off-screen image, the same way the window of the game draws its frames.
+ * The image can then be drawn on another surface in a single call.
+ * The drawing can be limited to a region of the image, so a part of the
+ * image can be drawn again without touching the rest.
+ */
+public class ImageDrawSurface implements DrawSurface {
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * Instantiates a new Image draw surface, with a black image of the given
+     * size.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     */
+    public ImageDrawSurface(int width, int height) {
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.graphics = this.image.createGraphics();
+    }
+
+    /**
+     * Gets the image drawn on.
+     *
+     * @return the image
+     */
+    public BufferedImage getImage() {
+        return this.image;
+    }
+
+    /**
+     * Limits the drawing to the given region of the image, and clears the
+     * region to black.
+     *
+     * @param x      the x coordinate of the upper left corner of the region
+     * @param y      the y coordinate of the upper left corner of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     */
+    public void clip(int x, int y, int width, int height) {
+        this.graphics.setClip(x, y, width, height);
+        this.graphics.setColor(Color.BLACK);
+        this.graphics.fillRect(x, y, width, height);
+    }
+
+    /**
+     * Lets the drawing reach the whole image again.
+     */
+    public void unclip() {
+        this.graphics.setClip(null);
+    }
+
+    /**
+     * Lets the drawing reach the whole image again, and clears the image to
+     * black.
+     */
+    public void clear() {
+        this.clip(0, 0, this.image.getWidth(), this.image.getHeight());
+        this.unclip();
+    }
+
+    /**
+     * Releases the graphics of the image. The surface cannot be drawn on
+     * afterwards.
+     */
+    public void dispose() {
+        this.graphics.dispose();
+    }
+
+    /**
+     * Gets the width of the surface.
+     *
+     * @return the width
+     */
+    @Override
+    public int getWidth() {
+        return this.image.getWidth();
+    }
+
+    /**
+     * Gets the height of the surface.
+     *
+     * @return the height
+     */
+    @Override
+    public int getHeight() {
+        return this.image.getHeight();
+    }
+
+    /**
+     * Sets the color of the next drawing calls.
+     *
+     * @param color the color
+     */
+    @Override
+    public void setColor(Color color) throws AlphaChannelNotSupportedException {
+        // The window of the game does not support transparent colors either
+        if (color.getAlpha() != 255) {
+            throw new AlphaChannelNotSupportedException(
+                    "Alpha may not be used, the color provided had an alpha value of "
+                            + color.getAlpha());
+        }
+        this.graphics.setColor(color);
+    }
+
+    /**
+     * Draws a line.
+     *
+     * @param x1 the x coordinate of the start of the line
+     * @param y1 the y coordinate of the start of the line
+     * @param x2 the x coordinate of the end of the line
+     * @param y2 the y coordinate of the end of the line
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.graphics.drawLine(x1, y1, x2, y2);
+    }
+
+    /**
+     * Draws the outline of an oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.graphics.drawOval(x, y, width, height);
+    }
+
+    /**
+     * Fills an oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.graphics.fillOval(x, y, width, height);
+    }
+
+    /**
+     * Draws the outline of a rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        this.graphics.drawRect(x, y, width, height);
+    }
+
+    /**
+     * Fills a rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        this.graphics.fillRect(x, y, width, height);
+    }
+
+    /**
+     * Draws an image.
+     *
+     * @param x     the x coordinate of the upper left corner
+     * @param y     the y coordinate of the upper left corner
+     * @param image the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        this.graphics.drawImage(image, x, y, null);
+    }
+
+    /**
+     * Draws the outline of a circle.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        this.graphics.drawOval(x - radius, y - radius, 2 * radius, 2 * radius);
+    }
+
+    /**
+     * Fills a circle.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        this.graphics.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
+    }
+
+    /**
+     * Draws a text.
+     *
+     * @param x        the x coordinate of the start of the text
+     * @param y        the y coordinate of the baseline of the text
+     * @param text     the text
+     * @param fontSize the font size
+     */
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        Font font = this.graphics.getFont();
+        this.graphics.setFont(new Font(font.getFontName(), font.getStyle(), fontSize));
+        this.graphics.drawString(text, x, y);
+    }
+
+    /**
+     * Draws the outline of a polygon.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        this.graphics.drawPolygon(polygon);
+    }
+
+    /**
+     * Fills a polygon.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        this.graphics.fillPolygon(polygon);
+    }
+}
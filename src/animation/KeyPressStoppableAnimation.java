@@ -32,15 +32,15 @@ public class KeyPressStoppableAnimation implements Animation {
     }
 
     /**
-     * Performs one frame of the key press stoppable animation.
-     * Delegates the frame rendering to the wrapped animation.
+     * Updates the key press stoppable animation.
+     * Delegates the update to the wrapped animation.
      * Checks if the specified key is pressed and sets the stop flag accordingly.
      *
-     * @param d the DrawSurface to draw the animation frame on
+     * @param dt the length of the time step, in seconds
      */
     @Override
-    public void doOneFrame(DrawSurface d) {
-        this.animation.doOneFrame(d);
+    public void update(double dt) {
+        this.animation.update(dt);
         if (sensor.isPressed(key)) {
             if (isAlreadyPressed) {
                 return;
@@ -51,6 +51,17 @@ public class KeyPressStoppableAnimation implements Animation {
         }
     }
 
+    /**
+     * Draws one frame of the key press stoppable animation.
+     * Delegates the frame rendering to the wrapped animation.
+     *
+     * @param d the DrawSurface to draw the animation frame on
+     */
+    @Override
+    public void render(DrawSurface d) {
+        this.animation.render(d);
+    }
+
     /**
      * Determines whether the key press stoppable animation should stop.
      *
@@ -10,13 +10,25 @@ import biuoop.DrawSurface;
 public class PauseScreen implements Animation {
 
     /**
-     * Performs one frame of the pause screen animation.
+     * Updates the pause screen animation.
+     * Since the pause screen does not change over time, this method does
+     * nothing.
+     *
+     * @param dt the length of the time step, in seconds
+     */
+    @Override
+    public void update(double dt) {
+        return;
+    }
+
+    /**
+     * Draws one frame of the pause screen animation.
      * Displays a message on the specified DrawSurface indicating the game is paused.
      *
      * @param d the DrawSurface to draw the animation frame on
      */
     @Override
-    public void doOneFrame(DrawSurface d) {
+    public void render(DrawSurface d) {
         d.drawText(10, d.getHeight() / 2, "paused -- press space to continue", 32);
     }
 
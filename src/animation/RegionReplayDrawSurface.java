@@ -0,0 +1,411 @@
+package animation;
+
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The RegionReplayDrawSurface class records the drawing calls of a frame in
+ * order, with the box of pixels every call may touch, so the frame can be
+ * drawn in several regions of another surface while it is drawn only once.
+ * Replaying the frame in a region passes on only the calls that may touch
+ * the region, in the order they were made, and with the colors that were
+ * set for them. A call whose box cannot be known, such as a text, is
+ * passed on in every region.
+ * The calls are kept in parallel arrays that are reused from one frame to
+ * the next, and only grow when a frame has more calls than they hold.
+ */
+public class RegionReplayDrawSurface implements DrawSurface {
+    private static final int INITIAL_CAPACITY = 256;
+    // Outlines are drawn one pixel past the width and height of a shape
+    private static final int MARGIN = 1;
+    // The kinds of the calls
+    private static final int SET_COLOR = 0;
+    private static final int DRAW_LINE = 1;
+    private static final int DRAW_OVAL = 2;
+    private static final int FILL_OVAL = 3;
+    private static final int DRAW_RECTANGLE = 4;
+    private static final int FILL_RECTANGLE = 5;
+    private static final int DRAW_IMAGE = 6;
+    private static final int DRAW_CIRCLE = 7;
+    private static final int FILL_CIRCLE = 8;
+    private static final int DRAW_TEXT = 9;
+    private static final int DRAW_POLYGON = 10;
+    private static final int FILL_POLYGON = 11;
+    private int width;
+    private int height;
+    // The calls: their kind, arguments, object argument, and the box they may touch
+    private int[] kinds;
+    private int[] args;
+    private Object[] objects;
+    private int[] boxes;
+    private int count;
+
+    /**
+     * Instantiates a new, empty Region replay draw surface.
+     */
+    public RegionReplayDrawSurface() {
+        this.width = 0;
+        this.height = 0;
+        this.kinds = new int[INITIAL_CAPACITY];
+        this.args = new int[4 * INITIAL_CAPACITY];
+        this.objects = new Object[INITIAL_CAPACITY];
+        this.boxes = new int[4 * INITIAL_CAPACITY];
+        this.count = 0;
+    }
+
+    /**
+     * Forgets the calls recorded so far, and starts recording the calls of
+     * a frame of the given size.
+     *
+     * @param frameWidth  the width of the frame
+     * @param frameHeight the height of the frame
+     */
+    public void begin(int frameWidth, int frameHeight) {
+        this.width = frameWidth;
+        this.height = frameHeight;
+        Arrays.fill(this.objects, 0, this.count, null);
+        this.count = 0;
+    }
+
+    /**
+     * Gets the number of calls recorded.
+     *
+     * @return the number of calls
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Draws the recorded calls that may touch the given region on the given
+     * surface, in the order they were made. The surface is expected to limit
+     * the drawing to the region. A color is set on the surface only before a
+     * call that is passed on, and only if it changed.
+     *
+     * @param d      the surface to draw on
+     * @param x      the x coordinate of the upper left pixel of the region
+     * @param y      the y coordinate of the upper left pixel of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     */
+    public void replay(DrawSurface d, int x, int y, int width, int height) {
+        int x1 = x + width;
+        int y1 = y + height;
+        // The color of the next calls, and the color last set on the surface
+        Color color = null;
+        Color setColor = null;
+        for (int i = 0; i < this.count; i++) {
+            if (this.kinds[i] == SET_COLOR) {
+                color = (Color) this.objects[i];
+                continue;
+            }
+            int at = 4 * i;
+            if (this.boxes[at] >= x1 || this.boxes[at + 2] <= x
+                    || this.boxes[at + 1] >= y1 || this.boxes[at + 3] <= y) {
+                continue;
+            }
+            if (color != setColor) {
+                d.setColor(color);
+                setColor = color;
+            }
+            this.pass(d, i);
+        }
+    }
+
+    /**
+     * Passes a recorded call on to the given surface.
+     *
+     * @param d the surface
+     * @param i the index of the call
+     */
+    private void pass(DrawSurface d, int i) {
+        int at = 4 * i;
+        int a = this.args[at];
+        int b = this.args[at + 1];
+        int c = this.args[at + 2];
+        int e = this.args[at + 3];
+        switch (this.kinds[i]) {
+            case DRAW_LINE:
+                d.drawLine(a, b, c, e);
+                break;
+            case DRAW_OVAL:
+                d.drawOval(a, b, c, e);
+                break;
+            case FILL_OVAL:
+                d.fillOval(a, b, c, e);
+                break;
+            case DRAW_RECTANGLE:
+                d.drawRectangle(a, b, c, e);
+                break;
+            case FILL_RECTANGLE:
+                d.fillRectangle(a, b, c, e);
+                break;
+            case DRAW_IMAGE:
+                d.drawImage(a, b, (Image) this.objects[i]);
+                break;
+            case DRAW_CIRCLE:
+                d.drawCircle(a, b, c);
+                break;
+            case FILL_CIRCLE:
+                d.fillCircle(a, b, c);
+                break;
+            case DRAW_TEXT:
+                d.drawText(a, b, (String) this.objects[i], c);
+                break;
+            case DRAW_POLYGON:
+                d.drawPolygon((Polygon) this.objects[i]);
+                break;
+            default:
+                d.fillPolygon((Polygon) this.objects[i]);
+                break;
+        }
+    }
+
+    /**
+     * Records a call.
+     *
+     * @param kind   the kind of the call
+     * @param a      the first argument
+     * @param b      the second argument
+     * @param c      the third argument
+     * @param d      the fourth argument
+     * @param object the object argument, or null
+     * @param minX   the first x the call may touch
+     * @param minY   the first y the call may touch
+     * @param maxX   the first x past the pixels the call may touch
+     * @param maxY   the first y past the pixels the call may touch
+     */
+    private void add(int kind, int a, int b, int c, int d, Object object,
+                     int minX, int minY, int maxX, int maxY) {
+        if (this.count == this.kinds.length) {
+            int capacity = 2 * this.count;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.args = Arrays.copyOf(this.args, 4 * capacity);
+            this.objects = Arrays.copyOf(this.objects, capacity);
+            this.boxes = Arrays.copyOf(this.boxes, 4 * capacity);
+        }
+        this.kinds[this.count] = kind;
+        this.objects[this.count] = object;
+        int at = 4 * this.count;
+        this.args[at] = a;
+        this.args[at + 1] = b;
+        this.args[at + 2] = c;
+        this.args[at + 3] = d;
+        this.boxes[at] = minX - MARGIN;
+        this.boxes[at + 1] = minY - MARGIN;
+        this.boxes[at + 2] = maxX + MARGIN;
+        this.boxes[at + 3] = maxY + MARGIN;
+        this.count++;
+    }
+
+    /**
+     * Records a call that draws a shape with the given box.
+     *
+     * @param kind   the kind of the call
+     * @param x      the x coordinate of the upper left corner of the shape
+     * @param y      the y coordinate of the upper left corner of the shape
+     * @param width  the width of the shape
+     * @param height the height of the shape
+     */
+    private void addShape(int kind, int x, int y, int width, int height) {
+        this.add(kind, x, y, width, height, null, x, y, x + width + 1, y + height + 1);
+    }
+
+    /**
+     * Records a call whose box cannot be known, so it is passed on in every
+     * region.
+     *
+     * @param kind   the kind of the call
+     * @param a      the first argument
+     * @param b      the second argument
+     * @param c      the third argument
+     * @param object the object argument
+     */
+    private void addEverywhere(int kind, int a, int b, int c, Object object) {
+        this.add(kind, a, b, c, 0, object, Integer.MIN_VALUE + MARGIN,
+                Integer.MIN_VALUE + MARGIN, Integer.MAX_VALUE - MARGIN,
+                Integer.MAX_VALUE - MARGIN);
+    }
+
+    /**
+     * Gets the width of the frame.
+     *
+     * @return the width
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Gets the height of the frame.
+     *
+     * @return the height
+     */
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Records the color of the next drawing calls.
+     *
+     * @param c the color
+     */
+    @Override
+    public void setColor(Color c) {
+        this.add(SET_COLOR, 0, 0, 0, 0, c, 0, 0, 0, 0);
+    }
+
+    /**
+     * Records a line.
+     *
+     * @param x1 the x coordinate of the start of the line
+     * @param y1 the y coordinate of the start of the line
+     * @param x2 the x coordinate of the end of the line
+     * @param y2 the y coordinate of the end of the line
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.add(DRAW_LINE, x1, y1, x2, y2, null, Math.min(x1, x2), Math.min(y1, y2),
+                Math.max(x1, x2) + 1, Math.max(y1, y2) + 1);
+    }
+
+    /**
+     * Records the outline of an oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.addShape(DRAW_OVAL, x, y, width, height);
+    }
+
+    /**
+     * Records a filled oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.addShape(FILL_OVAL, x, y, width, height);
+    }
+
+    /**
+     * Records the outline of a rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        this.addShape(DRAW_RECTANGLE, x, y, width, height);
+    }
+
+    /**
+     * Records a filled rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        this.addShape(FILL_RECTANGLE, x, y, width, height);
+    }
+
+    /**
+     * Records an image. An image whose size is not known yet is passed on
+     * in every region.
+     *
+     * @param x     the x coordinate of the upper left corner
+     * @param y     the y coordinate of the upper left corner
+     * @param image the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        int imageWidth = image.getWidth(null);
+        int imageHeight = image.getHeight(null);
+        if (imageWidth < 0 || imageHeight < 0) {
+            this.addEverywhere(DRAW_IMAGE, x, y, 0, image);
+            return;
+        }
+        this.add(DRAW_IMAGE, x, y, 0, 0, image, x, y, x + imageWidth, y + imageHeight);
+    }
+
+    /**
+     * Records the outline of a circle.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        this.add(DRAW_CIRCLE, x, y, radius, 0, null, x - radius, y - radius,
+                x + radius + 1, y + radius + 1);
+    }
+
+    /**
+     * Records a filled circle.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        this.add(FILL_CIRCLE, x, y, radius, 0, null, x - radius, y - radius,
+                x + radius + 1, y + radius + 1);
+    }
+
+    /**
+     * Records a text, which is passed on in every region.
+     *
+     * @param x        the x coordinate of the start of the text
+     * @param y        the y coordinate of the baseline of the text
+     * @param text     the text
+     * @param fontSize the font size
+     */
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        this.addEverywhere(DRAW_TEXT, x, y, fontSize, text);
+    }
+
+    /**
+     * Records the outline of a polygon.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        Rectangle box = polygon.getBounds();
+        this.add(DRAW_POLYGON, 0, 0, 0, 0, polygon, box.x, box.y,
+                box.x + box.width + 1, box.y + box.height + 1);
+    }
+
+    /**
+     * Records a filled polygon.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        Rectangle box = polygon.getBounds();
+        this.add(FILL_POLYGON, 0, 0, 0, 0, polygon, box.x, box.y,
+                box.x + box.width + 1, box.y + box.height + 1);
+    }
+}
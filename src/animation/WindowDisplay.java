@@ -0,0 +1,69 @@
+package animation;
+
+import biuoop.DrawSurface;
+import biuoop.GUI;
+import biuoop.KeyboardSensor;
+
+/**
+ * The WindowDisplay class is a display that shows the frames in a window,
+ * using a GUI object.
+ */
+public class WindowDisplay implements Display {
+    private GUI gui;
+
+    /**
+     * Instantiates a new Window display.
+     *
+     * @param gui the GUI object to show the frames in
+     */
+    public WindowDisplay(GUI gui) {
+        this.gui = gui;
+    }
+
+    /**
+     * Returns a new surface to draw the next frame on.
+     *
+     * @return the draw surface
+     */
+    @Override
+    public DrawSurface getDrawSurface() {
+        return this.gui.getDrawSurface();
+    }
+
+    /**
+     * Shows the frame drawn on the given surface in the window.
+     *
+     * @param d the draw surface to show
+     */
+    @Override
+    public void show(DrawSurface d) {
+        this.gui.show(d);
+    }
+
+    /**
+     * Returns the keyboard sensor of the window.
+     *
+     * @return the keyboard sensor
+     */
+    @Override
+    public KeyboardSensor getKeyboardSensor() {
+        return this.gui.getKeyboardSensor();
+    }
+
+    /**
+     * Closes the window.
+     */
+    @Override
+    public void close() {
+        this.gui.close();
+    }
+
+    /**
+     * Returns the GUI object of the window.
+     *
+     * @return the GUI object
+     */
+    public GUI getGui() {
+        return this.gui;
+    }
+}
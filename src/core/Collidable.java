@@ -33,4 +33,14 @@ public interface Collidable {
      * @return the new velocity of the colliding object after the collision.
      */
     Velocity hit(Ball hitter, Point collisionPoint, Velocity currentVelocity);
+
+    /**
+     * Checks whether this object moves during the game.
+     * Moving objects may change their collision rectangle on every frame,
+     * so the game environment does not keep them in its spatial index.
+     *
+     * @return true if the collision rectangle of this object may change,
+     * false otherwise
+     */
+    boolean isMoving();
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package core;
+
+/**
+ * The CollidableGroup interface represents a collidable made of many member
+ * collidables, that finds the member a trajectory hits by itself.
+ * The game environment keeps only the group, under its collision rectangle,
+ * which holds all the members. The collision found for a trajectory is with
+ * the member, so it is the member that is hit.
+ */
+public interface CollidableGroup extends Collidable {
+
+    /**
+     * Finds the member that a circle of the given radius, whose center moves
+     * from (x0, y0) to (x1, y1), touches first.
+     *
+     * @param radius the radius of the circle, or 0 for a point
+     * @param x0     the x coordinate of the start of the center's path
+     * @param y0     the y coordinate of the start of the center's path
+     * @param x1     the x coordinate of the end of the center's path
+     * @param y1     the y coordinate of the end of the center's path
+     * @param hit    an array of length 3 that receives the time of the first
+     *               touch and the contact normal, as in
+     *               Rectangle.sweptCircleT
+     * @param normal an array of length 2 the group may use for the normals
+     *               of the members it tests, so a query allocates nothing
+     * @return the member touched first, or null if the circle touches no member
+     */
+    Collidable firstHit(double radius, double x0, double y0, double x1, double y1,
+                        double[] hit, double[] normal);
+}
@@ -9,6 +9,9 @@ import geometry.Point;
 public class CollisionInfo {
     private Point collisionPoint;
     private Collidable collisionObject;
+    private double collisionTime;
+    private double normalX;
+    private double normalY;
 
     /**
      * Instantiates a new Collision info.
@@ -21,6 +24,25 @@ public class CollisionInfo {
         this.collisionObject = collisionObject;
     }
 
+    /**
+     * Instantiates a new Collision info, with the time of impact and the
+     * contact normal found by continuous collision detection.
+     *
+     * @param collisionPoint  the point at which the collision occurs.
+     * @param collisionObject the collidable object involved in the collision.
+     * @param collisionTime   the parametric time of impact along the trajectory.
+     * @param normalX         the x component of the contact normal.
+     * @param normalY         the y component of the contact normal.
+     */
+    public CollisionInfo(Point collisionPoint, Collidable collisionObject,
+                         double collisionTime, double normalX, double normalY) {
+        this.collisionPoint = collisionPoint;
+        this.collisionObject = collisionObject;
+        this.collisionTime = collisionTime;
+        this.normalX = normalX;
+        this.normalY = normalY;
+    }
+
     /**
      * Collision point.
      * Gets the point at which the collision occurs.
@@ -39,4 +61,34 @@ public class CollisionInfo {
     public Collidable collisionObject() {
         return this.collisionObject;
     }
+
+    /**
+     * Gets the parametric time of impact along the trajectory, where 0 is
+     * the start of the trajectory and 1 is its end.
+     *
+     * @return the collision time
+     */
+    public double collisionTime() {
+        return this.collisionTime;
+    }
+
+    /**
+     * Gets the x component of the contact normal, the unit vector pointing
+     * from the collidable object towards the colliding ball.
+     *
+     * @return the x component of the normal
+     */
+    public double normalX() {
+        return this.normalX;
+    }
+
+    /**
+     * Gets the y component of the contact normal, the unit vector pointing
+     * from the collidable object towards the colliding ball.
+     *
+     * @return the y component of the normal
+     */
+    public double normalY() {
+        return this.normalY;
+    }
 }
@@ -1,6 +1,7 @@
 
 package core;
 import biuoop.DrawSurface;
+import geometry.DirtyRegions;
 
 /**
  * The interface Sprite represents a game object that can be drawn on the
@@ -17,9 +18,27 @@ public interface Sprite {
 
     /**
      * Time passed.
-     * Notifies the sprite that a unit of time has passed.
+     * Notifies the sprite that the given amount of time has passed.
      * This allows the sprite to perform any necessary changes in its
      * state or behavior.
+     *
+     * @param dt the time that passed, in seconds
+     */
+    void timePassed(double dt);
+
+    /**
+     * Reports the regions of the screen that the sprite draws on, if they
+     * may look different than in the previous frame. A sprite that moves
+     * reports where it is drawn now, and where it was drawn in the previous
+     * frame is drawn again as well. A sprite that looks the same as in the
+     * previous frame reports nothing.
+     * Reporting is optional: a sprite that does not know its regions
+     * returns false, and the whole screen is drawn again.
+     *
+     * @param regions the regions to add to
+     * @return true if the sprite reported its regions, false otherwise
      */
-    void timePassed();
-}
\ No newline at end of file
+    default boolean reportDirtyBounds(DirtyRegions regions) {
+        return false;
+    }
+}
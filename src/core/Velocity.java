@@ -7,6 +7,12 @@ import geometry.Point;
  * Velocity specifies the change in position on the `x` and the `y` axes.
  */
 public class Velocity {
+    /**
+     * The number of steps per second. A velocity is the change in position
+     * during a single step, as the game was designed to move 60 times per
+     * second.
+     */
+    public static final int STEPS_PER_SECOND = 60;
     private double dx;
     private double dy;
 
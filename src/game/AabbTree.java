@@ -0,0 +1,386 @@
+package game;
+
+import geometry.Line;
+import geometry.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The AabbTree class is a dynamic bounding volume tree, used by the game
+ * environment to index collidables that move.
+ * Every leaf stores a "fat" box: the collision rectangle grown by a margin
+ * on every side. As long as a collidable stays inside its fat box the tree
+ * does not change, so a collidable that moves a little on every frame is
+ * only reinserted once every few frames.
+ * The nodes are kept in parallel arrays and reused through a free list, so
+ * moving a collidable does not allocate.
+ */
+public class AabbTree {
+    private static final int NULL_NODE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    // How far a trajectory may miss a box and still be considered touching it
+    private static final double EPSILON = 0.001;
+    private double margin;
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+    private int[] parent;
+    private int[] left;
+    private int[] right;
+    private IndexedCollidable[] items;
+    private int root;
+    private int freeList;
+    private int nodeCount;
+
+    /**
+     * Instantiates a new, empty Aabb tree.
+     *
+     * @param margin how far the fat box of every leaf extends beyond its
+     *               collision rectangle on each side
+     */
+    public AabbTree(double margin) {
+        this.margin = margin;
+        this.root = NULL_NODE;
+        this.freeList = NULL_NODE;
+        this.nodeCount = 0;
+        this.minX = new double[INITIAL_CAPACITY];
+        this.minY = new double[INITIAL_CAPACITY];
+        this.maxX = new double[INITIAL_CAPACITY];
+        this.maxY = new double[INITIAL_CAPACITY];
+        this.parent = new int[INITIAL_CAPACITY];
+        this.left = new int[INITIAL_CAPACITY];
+        this.right = new int[INITIAL_CAPACITY];
+        this.items = new IndexedCollidable[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Inserts the given collidable into the tree, and records its leaf in it.
+     *
+     * @param item the collidable to insert
+     */
+    public void insert(IndexedCollidable item) {
+        int leaf = allocateNode();
+        setFatBox(leaf, item.getCollidable().getCollisionRectangle());
+        this.items[leaf] = item;
+        item.setProxy(leaf);
+        insertLeaf(leaf);
+    }
+
+    /**
+     * Removes the given collidable from the tree.
+     *
+     * @param item the collidable to remove
+     */
+    public void remove(IndexedCollidable item) {
+        int leaf = item.getProxy();
+        removeLeaf(leaf);
+        freeNode(leaf);
+        item.setProxy(NULL_NODE);
+    }
+
+    /**
+     * Updates the tree after the given collidable may have moved.
+     * The collidable is reinserted only if its collision rectangle has left
+     * its fat box.
+     *
+     * @param item the collidable to update
+     * @return true if the collidable was reinserted, false otherwise
+     */
+    public boolean update(IndexedCollidable item) {
+        int leaf = item.getProxy();
+        Rectangle rect = item.getCollidable().getCollisionRectangle();
+        if (rect.getUpperLeft().getX() >= this.minX[leaf]
+                && rect.getUpperLeft().getY() >= this.minY[leaf]
+                && rect.getMaxX() <= this.maxX[leaf]
+                && rect.getMaxY() <= this.maxY[leaf]) {
+            return false;
+        }
+        removeLeaf(leaf);
+        setFatBox(leaf, rect);
+        insertLeaf(leaf);
+        return true;
+    }
+
+    /**
+     * Offers every collidable whose fat box the trajectory touches to the
+     * given closest collision. For a circle, the boxes are grown by its
+     * radius.
+     *
+     * @param trajectory the trajectory
+     * @param closest    the closest collision to offer the candidates to
+     */
+    public void query(Line trajectory, ClosestCollision closest) {
+        if (this.root == NULL_NODE) {
+            return;
+        }
+        double x0 = trajectory.start().getX();
+        double y0 = trajectory.start().getY();
+        double dx = trajectory.end().getX() - x0;
+        double dy = trajectory.end().getY() - y0;
+        double grow = closest.getRadius() + EPSILON;
+
+        // The stack is the closest collision's, so a query does not allocate
+        int[] stack = closest.getStack();
+        int size = 0;
+        stack[size++] = this.root;
+        while (size > 0) {
+            int node = stack[--size];
+            if (!touches(node, grow, x0, y0, dx, dy)) {
+                continue;
+            }
+            if (this.left[node] == NULL_NODE) {
+                closest.offer(this.items[node]);
+                continue;
+            }
+            if (size + 2 > stack.length) {
+                int[] bigger = new int[stack.length * 2];
+                System.arraycopy(stack, 0, bigger, 0, size);
+                stack = bigger;
+                closest.setStack(stack);
+            }
+            stack[size++] = this.left[node];
+            stack[size++] = this.right[node];
+        }
+    }
+
+    /**
+     * Checks whether the segment from (x0, y0) to (x0 + dx, y0 + dy) touches
+     * the box of the given node grown by the given amount, using the slab
+     * method.
+     *
+     * @param node the node
+     * @param grow how much to grow the box on every side
+     * @param x0   the x coordinate of the start of the segment
+     * @param y0   the y coordinate of the start of the segment
+     * @param dx   the change in x along the segment
+     * @param dy   the change in y along the segment
+     * @return true if the segment touches the box, false otherwise
+     */
+    private boolean touches(int node, double grow, double x0, double y0,
+                            double dx, double dy) {
+        double enter = 0;
+        double exit = 1;
+        double low = this.minX[node] - grow;
+        double high = this.maxX[node] + grow;
+        if (dx == 0) {
+            if (x0 < low || x0 > high) {
+                return false;
+            }
+        } else {
+            double t1 = (low - x0) / dx;
+            double t2 = (high - x0) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        low = this.minY[node] - grow;
+        high = this.maxY[node] + grow;
+        if (dy == 0) {
+            if (y0 < low || y0 > high) {
+                return false;
+            }
+        } else {
+            double t1 = (low - y0) / dy;
+            double t2 = (high - y0) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return enter <= exit;
+    }
+
+    /**
+     * Sets the box of the given leaf to the rectangle grown by the margin.
+     *
+     * @param leaf the leaf node
+     * @param rect the collision rectangle
+     */
+    private void setFatBox(int leaf, Rectangle rect) {
+        this.minX[leaf] = rect.getUpperLeft().getX() - this.margin;
+        this.minY[leaf] = rect.getUpperLeft().getY() - this.margin;
+        this.maxX[leaf] = rect.getMaxX() + this.margin;
+        this.maxY[leaf] = rect.getMaxY() + this.margin;
+    }
+
+    /**
+     * Links the given leaf into the tree, next to the sibling that grows
+     * the total perimeter of the tree the least.
+     *
+     * @param leaf the leaf node
+     */
+    private void insertLeaf(int leaf) {
+        if (this.root == NULL_NODE) {
+            this.root = leaf;
+            this.parent[leaf] = NULL_NODE;
+            return;
+        }
+
+        // Walk down the tree, choosing the cheaper child at every level
+        int index = this.root;
+        while (this.left[index] != NULL_NODE) {
+            double area = perimeter(index);
+            double combined = unionPerimeter(index, leaf);
+            // The cost of creating a new parent for this node and the leaf
+            double cost = 2 * combined;
+            // The minimum cost of pushing the leaf further down the tree
+            double inheritance = 2 * (combined - area);
+            double leftCost = descendCost(this.left[index], leaf) + inheritance;
+            double rightCost = descendCost(this.right[index], leaf) + inheritance;
+            if (cost < leftCost && cost < rightCost) {
+                break;
+            }
+            index = leftCost < rightCost ? this.left[index] : this.right[index];
+        }
+
+        // Create a new parent for the chosen sibling and the leaf
+        int sibling = index;
+        int oldParent = this.parent[sibling];
+        int newParent = allocateNode();
+        this.parent[newParent] = oldParent;
+        this.items[newParent] = null;
+        this.left[newParent] = sibling;
+        this.right[newParent] = leaf;
+        this.parent[sibling] = newParent;
+        this.parent[leaf] = newParent;
+        if (oldParent == NULL_NODE) {
+            this.root = newParent;
+        } else if (this.left[oldParent] == sibling) {
+            this.left[oldParent] = newParent;
+        } else {
+            this.right[oldParent] = newParent;
+        }
+        refit(newParent);
+    }
+
+    /**
+     * Unlinks the given leaf from the tree, replacing its parent with its
+     * sibling. The leaf node itself is not freed.
+     *
+     * @param leaf the leaf node
+     */
+    private void removeLeaf(int leaf) {
+        if (leaf == this.root) {
+            this.root = NULL_NODE;
+            return;
+        }
+        int oldParent = this.parent[leaf];
+        int grandParent = this.parent[oldParent];
+        int sibling = this.left[oldParent] == leaf
+                ? this.right[oldParent] : this.left[oldParent];
+        if (grandParent == NULL_NODE) {
+            this.root = sibling;
+            this.parent[sibling] = NULL_NODE;
+        } else {
+            if (this.left[grandParent] == oldParent) {
+                this.left[grandParent] = sibling;
+            } else {
+                this.right[grandParent] = sibling;
+            }
+            this.parent[sibling] = grandParent;
+            refit(grandParent);
+        }
+        freeNode(oldParent);
+    }
+
+    /**
+     * Recomputes the boxes of the given node and all its ancestors.
+     *
+     * @param node the first node to recompute
+     */
+    private void refit(int node) {
+        int index = node;
+        while (index != NULL_NODE) {
+            int a = this.left[index];
+            int b = this.right[index];
+            this.minX[index] = Math.min(this.minX[a], this.minX[b]);
+            this.minY[index] = Math.min(this.minY[a], this.minY[b]);
+            this.maxX[index] = Math.max(this.maxX[a], this.maxX[b]);
+            this.maxY[index] = Math.max(this.maxY[a], this.maxY[b]);
+            index = this.parent[index];
+        }
+    }
+
+    /**
+     * Returns the cost of placing the leaf somewhere below the given child.
+     *
+     * @param child the child node
+     * @param leaf  the leaf node being inserted
+     * @return the cost
+     */
+    private double descendCost(int child, int leaf) {
+        if (this.left[child] == NULL_NODE) {
+            return unionPerimeter(child, leaf);
+        }
+        return unionPerimeter(child, leaf) - perimeter(child);
+    }
+
+    /**
+     * Returns the perimeter of the box of the given node.
+     *
+     * @param node the node
+     * @return the perimeter
+     */
+    private double perimeter(int node) {
+        return 2 * ((this.maxX[node] - this.minX[node]) + (this.maxY[node] - this.minY[node]));
+    }
+
+    /**
+     * Returns the perimeter of the smallest box containing the boxes of the
+     * two given nodes.
+     *
+     * @param a the first node
+     * @param b the second node
+     * @return the perimeter
+     */
+    private double unionPerimeter(int a, int b) {
+        double width = Math.max(this.maxX[a], this.maxX[b]) - Math.min(this.minX[a], this.minX[b]);
+        double height = Math.max(this.maxY[a], this.maxY[b]) - Math.min(this.minY[a], this.minY[b]);
+        return 2 * (width + height);
+    }
+
+    /**
+     * Takes a node from the free list, growing the node arrays if needed.
+     *
+     * @return the new node
+     */
+    private int allocateNode() {
+        if (this.freeList == NULL_NODE) {
+            if (this.nodeCount == this.parent.length) {
+                grow();
+            }
+            this.freeList = this.nodeCount;
+            this.parent[this.nodeCount] = NULL_NODE;
+            this.nodeCount++;
+        }
+        int node = this.freeList;
+        this.freeList = this.parent[node];
+        this.parent[node] = NULL_NODE;
+        this.left[node] = NULL_NODE;
+        this.right[node] = NULL_NODE;
+        return node;
+    }
+
+    /**
+     * Returns the given node to the free list.
+     *
+     * @param node the node
+     */
+    private void freeNode(int node) {
+        this.items[node] = null;
+        this.parent[node] = this.freeList;
+        this.freeList = node;
+    }
+
+    /**
+     * Doubles the capacity of the node arrays.
+     */
+    private void grow() {
+        int capacity = this.parent.length * 2;
+        this.minX = Arrays.copyOf(this.minX, capacity);
+        this.minY = Arrays.copyOf(this.minY, capacity);
+        this.maxX = Arrays.copyOf(this.maxX, capacity);
+        this.maxY = Arrays.copyOf(this.maxY, capacity);
+        this.parent = Arrays.copyOf(this.parent, capacity);
+        this.left = Arrays.copyOf(this.left, capacity);
+        this.right = Arrays.copyOf(this.right, capacity);
+        this.items = Arrays.copyOf(this.items, capacity);
+    }
+}
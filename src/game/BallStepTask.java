@@ -0,0 +1,48 @@
+package game;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The BallStepTask class moves a range of the balls of a ball system by a
+ * number of steps.
+ * A range larger than a chunk is split in two halves that run in parallel
+ * on the pool the task was invoked on.
+ */
+public class BallStepTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    // The number of balls a single task moves without splitting
+    private static final int CHUNK_SIZE = 128;
+    private BallSystem system;
+    private int from;
+    private int to;
+    private double steps;
+
+    /**
+     * Instantiates a new Ball step task.
+     *
+     * @param system the system the balls are in
+     * @param from   the first ball of the range, inclusive
+     * @param to     the last ball of the range, exclusive
+     * @param steps  the number of steps to move the balls
+     */
+    public BallStepTask(BallSystem system, int from, int to, double steps) {
+        this.system = system;
+        this.from = from;
+        this.to = to;
+        this.steps = steps;
+    }
+
+    /**
+     * Moves the balls of the range, or splits it if it is too large.
+     */
+    @Override
+    protected void compute() {
+        if (this.to - this.from <= CHUNK_SIZE) {
+            this.system.move(this.from, this.to, this.steps);
+            return;
+        }
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new BallStepTask(this.system, this.from, middle, this.steps),
+                new BallStepTask(this.system, middle, this.to, this.steps));
+    }
+}
@@ -0,0 +1,380 @@
+package game;
+
+import biuoop.DrawSurface;
+import core.CollisionInfo;
+import core.Sprite;
+import core.Velocity;
+import gameObjects.Ball;
+import geometry.DirtyRegions;
+import geometry.Line;
+import geometry.Point;
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The BallSystem class holds the balls of a game level, and moves them all
+ * as a single sprite.
+ * The state of the balls is kept as a struct of arrays: the positions,
+ * velocities and radii of all the balls are stored in parallel arrays of
+ * doubles, indexed by the place of the ball in the system. A Ball object
+ * added to the system becomes a view of its place in these arrays, so code
+ * that needs a single ball can still use the Ball API.
+ * A tick has two passes over a range of balls. The first pass resolves the
+ * collisions: every ball that would hit something is moved to the time of
+ * impact and bounces, as a single Ball does, and is left with the part of
+ * the way it still travels freely. The second pass is a tight loop that
+ * moves every ball by that part of the way, which the JIT can vectorize.
+ * When there are many balls, the ranges run in parallel on a ForkJoinPool.
+ * Moving a ball only reads the game environment, and the hits of every ball
+ * are staged in the hit event queue under the id of the ball. When all the
+ * balls moved, the staged hits are appended to the queue in the order of
+ * the balls, which is the order a single thread records them in. So
+ * parallel and single threaded play deliver the same hits in the same
+ * order, and give the same result.
+ */
+public class BallSystem implements Sprite {
+    /**
+     * The default number of balls from which the balls are moved in parallel.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 512;
+    private static final int INITIAL_CAPACITY = 16;
+    // How many times a ball may bounce within a single move, as for a single Ball
+    private static final int MAX_BOUNCES_PER_STEP = Ball.MAX_HITS_PER_MOVE - 1;
+    private double[] xs;
+    private double[] ys;
+    private double[] dxs;
+    private double[] dys;
+    private double[] radii;
+    // The part of the current move every ball still travels without hitting anything
+    private double[] freeSteps;
+    private Color[] colors;
+    private Ball[] balls;
+    private int count;
+    private HitEventQueue hitEvents;
+    private ForkJoinPool pool;
+    private int parallelThreshold;
+
+    /**
+     * Instantiates a new, empty Ball system that moves many balls in
+     * parallel on the common pool.
+     *
+     * @param hitEvents the queue the hits of the balls are recorded in
+     */
+    public BallSystem(HitEventQueue hitEvents) {
+        this(hitEvents, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Instantiates a new, empty Ball system.
+     *
+     * @param hitEvents         the queue the hits of the balls are recorded in
+     * @param pool              the pool the balls are moved on in parallel
+     * @param parallelThreshold the number of balls from which they are moved
+     *                          in parallel
+     */
+    public BallSystem(HitEventQueue hitEvents, ForkJoinPool pool, int parallelThreshold) {
+        this.xs = new double[INITIAL_CAPACITY];
+        this.ys = new double[INITIAL_CAPACITY];
+        this.dxs = new double[INITIAL_CAPACITY];
+        this.dys = new double[INITIAL_CAPACITY];
+        this.radii = new double[INITIAL_CAPACITY];
+        this.freeSteps = new double[INITIAL_CAPACITY];
+        this.colors = new Color[INITIAL_CAPACITY];
+        this.balls = new Ball[INITIAL_CAPACITY];
+        this.count = 0;
+        this.hitEvents = hitEvents;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Sets how the balls are moved.
+     *
+     * @param forkJoinPool the pool the balls are moved on in parallel, or
+     *                     null to always move them on the calling thread
+     * @param threshold    the number of balls from which they are moved in
+     *                     parallel
+     */
+    public void setParallelism(ForkJoinPool forkJoinPool, int threshold) {
+        this.pool = forkJoinPool;
+        this.parallelThreshold = threshold;
+    }
+
+    /**
+     * Adds a ball to the system. The state of the ball is copied into the
+     * arrays of the system, and the ball becomes a view of it. The ball is
+     * moved after the balls that are already in the system.
+     *
+     * @param ball the ball to add
+     */
+    public void add(Ball ball) {
+        if (ball.getSystem() != null) {
+            return;
+        }
+        if (this.count == this.balls.length) {
+            int capacity = this.balls.length * 2;
+            this.xs = Arrays.copyOf(this.xs, capacity);
+            this.ys = Arrays.copyOf(this.ys, capacity);
+            this.dxs = Arrays.copyOf(this.dxs, capacity);
+            this.dys = Arrays.copyOf(this.dys, capacity);
+            this.radii = Arrays.copyOf(this.radii, capacity);
+            this.freeSteps = Arrays.copyOf(this.freeSteps, capacity);
+            this.colors = Arrays.copyOf(this.colors, capacity);
+            this.balls = Arrays.copyOf(this.balls, capacity);
+        }
+        int i = this.count++;
+        Point center = ball.getCenter();
+        Velocity velocity = ball.getVelocity();
+        this.xs[i] = center.getX();
+        this.ys[i] = center.getY();
+        this.dxs[i] = velocity.getDx();
+        this.dys[i] = velocity.getDy();
+        this.radii[i] = ball.getSize();
+        this.colors[i] = ball.getColor();
+        this.balls[i] = ball;
+        ball.attach(this, i);
+    }
+
+    /**
+     * Removes a ball from the system, by moving the last ball into its
+     * place. The state of the ball is copied back into it, so it keeps
+     * working on its own. Must not be called while the balls are moving.
+     *
+     * @param ball the ball to remove
+     */
+    public void remove(Ball ball) {
+        if (ball.getSystem() != this) {
+            return;
+        }
+        int i = ball.getIndex();
+        ball.detach(new Point(this.xs[i], this.ys[i]), new Velocity(this.dxs[i], this.dys[i]));
+        int last = this.count - 1;
+        if (i != last) {
+            this.xs[i] = this.xs[last];
+            this.ys[i] = this.ys[last];
+            this.dxs[i] = this.dxs[last];
+            this.dys[i] = this.dys[last];
+            this.radii[i] = this.radii[last];
+            this.colors[i] = this.colors[last];
+            this.balls[i] = this.balls[last];
+            this.balls[i].attach(this, i);
+        }
+        this.colors[last] = null;
+        this.balls[last] = null;
+        this.count--;
+    }
+
+    /**
+     * Gets the number of balls in the system.
+     *
+     * @return the number of balls
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Gets the view of the ball at the given place.
+     *
+     * @param i the place, from 0 to size() - 1
+     * @return the ball
+     */
+    public Ball get(int i) {
+        return this.balls[i];
+    }
+
+    /**
+     * Gets the x coordinate of the center of the ball at the given place.
+     *
+     * @param i the place of the ball
+     * @return the x coordinate
+     */
+    public double getX(int i) {
+        return this.xs[i];
+    }
+
+    /**
+     * Gets the y coordinate of the center of the ball at the given place.
+     *
+     * @param i the place of the ball
+     * @return the y coordinate
+     */
+    public double getY(int i) {
+        return this.ys[i];
+    }
+
+    /**
+     * Gets the change in x per step of the ball at the given place.
+     *
+     * @param i the place of the ball
+     * @return the dx of the velocity
+     */
+    public double getDx(int i) {
+        return this.dxs[i];
+    }
+
+    /**
+     * Gets the change in y per step of the ball at the given place.
+     *
+     * @param i the place of the ball
+     * @return the dy of the velocity
+     */
+    public double getDy(int i) {
+        return this.dys[i];
+    }
+
+    /**
+     * Moves the center of the ball at the given place.
+     *
+     * @param i the place of the ball
+     * @param x the new x coordinate
+     * @param y the new y coordinate
+     */
+    public void setPosition(int i, double x, double y) {
+        this.xs[i] = x;
+        this.ys[i] = y;
+    }
+
+    /**
+     * Sets the velocity of the ball at the given place.
+     *
+     * @param i  the place of the ball
+     * @param dx the change in x per step
+     * @param dy the change in y per step
+     */
+    public void setVelocity(int i, double dx, double dy) {
+        this.dxs[i] = dx;
+        this.dys[i] = dy;
+    }
+
+    /**
+     * Moves all the balls by the time that passed. Many balls are moved in
+     * parallel, and their hits are then recorded in the order of the balls.
+     *
+     * @param dt the time that passed, in seconds
+     */
+    @Override
+    public void timePassed(double dt) {
+        double steps = dt * Velocity.STEPS_PER_SECOND;
+        if (this.pool == null || this.count < this.parallelThreshold
+                || this.pool.getParallelism() < 2) {
+            this.move(0, this.count, steps);
+            return;
+        }
+        this.hitEvents.beginStaging();
+        try {
+            this.pool.invoke(new BallStepTask(this, 0, this.count, steps));
+        } finally {
+            this.hitEvents.endStaging(this.balls, this.count);
+        }
+    }
+
+    /**
+     * Moves a range of balls by the given number of steps: first the
+     * collisions of every ball are resolved, and then all the balls travel
+     * the rest of their way.
+     *
+     * @param from  the first ball of the range, inclusive
+     * @param to    the last ball of the range, exclusive
+     * @param steps the number of steps to move, may be a fraction of a step
+     */
+    public void move(int from, int to, double steps) {
+        for (int i = from; i < to; i++) {
+            this.resolveCollisions(i, steps);
+        }
+        double[] x = this.xs;
+        double[] y = this.ys;
+        double[] dx = this.dxs;
+        double[] dy = this.dys;
+        double[] free = this.freeSteps;
+        for (int i = from; i < to; i++) {
+            x[i] += dx[i] * free[i];
+            y[i] += dy[i] * free[i];
+        }
+    }
+
+    /**
+     * Resolves the collisions of a single ball within a move, as a single
+     * Ball does: the ball moves to the time of impact of the closest
+     * collidable on its way, bounces, and goes on with its new velocity, up
+     * to a few bounces. The part of the way left after the last collision
+     * is kept, for the ball to travel freely.
+     *
+     * @param i     the place of the ball
+     * @param steps the number of steps to move
+     */
+    private void resolveCollisions(int i, double steps) {
+        Ball ball = this.balls[i];
+        GameEnvironment environment = ball.getGameEnvironment();
+        double remaining = steps;
+        for (int bounce = 0; bounce <= MAX_BOUNCES_PER_STEP; bounce++) {
+            double dx = this.dxs[i];
+            double dy = this.dys[i];
+            // If velocity is zero do not move
+            if (dx == 0 && dy == 0) {
+                break;
+            }
+            double x = this.xs[i];
+            double y = this.ys[i];
+            CollisionInfo info = environment.getClosestCollision(
+                    new Line(x, y, x + dx * remaining, y + dy * remaining), this.radii[i],
+                    ball.getCandidateCache());
+            // If there is no collision the rest of the way is free
+            if (info == null) {
+                this.freeSteps[i] = remaining;
+                return;
+            }
+
+            // Move to the time of impact, and bounce off the collision point
+            double time = Math.max(0, info.collisionTime());
+            this.xs[i] = x + dx * remaining * time;
+            this.ys[i] = y + dy * remaining * time;
+            remaining *= 1 - time;
+            Velocity velocity = info.collisionObject().hit(ball, info.collisionPoint(),
+                    new Velocity(dx, dy));
+            this.dxs[i] = velocity.getDx();
+            this.dys[i] = velocity.getDy();
+
+            /* Stop for now if the hit removed the ball, or if the ball
+            is not moving away from the collidable it touches */
+            if (ball.isRemoved() || velocity.getDx() * info.normalX()
+                    + velocity.getDy() * info.normalY() <= 0) {
+                break;
+            }
+        }
+        this.freeSteps[i] = 0;
+    }
+
+    /**
+     * Draws all the balls, in order.
+     *
+     * @param d the surface to draw on
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (int i = 0; i < this.count; i++) {
+            int x = (int) this.xs[i];
+            int y = (int) this.ys[i];
+            int r = (int) this.radii[i];
+            d.setColor(this.colors[i]);
+            d.fillCircle(x, y, r);
+            d.setColor(Color.BLACK);
+            d.drawCircle(x, y, r);
+        }
+    }
+
+    /**
+     * Reports where every ball is drawn, since the balls may have moved.
+     *
+     * @param regions the regions to add to
+     * @return true, since the balls know their regions
+     */
+    @Override
+    public boolean reportDirtyBounds(DirtyRegions regions) {
+        for (int i = 0; i < this.count; i++) {
+            regions.addCircle((int) this.xs[i], (int) this.ys[i], (int) this.radii[i]);
+        }
+        return true;
+    }
+}
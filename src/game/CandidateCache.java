@@ -0,0 +1,101 @@
+package game;
+
+/**
+ * The CandidateCache class remembers, for one ball, the static collidables
+ * near it, so the ball does not look them up in the spatial grid on every
+ * move.
+ * When it is filled, the cache covers the swept bounds of the trajectory of
+ * the ball grown by a margin, and holds every collidable of the grid that
+ * overlaps this region. As long as the ball moves within the region and no
+ * collidable is added to or removed from the environment, the cached
+ * candidates are exactly the grid collidables the ball may hit, and the
+ * cache is used as is. Otherwise it is filled again.
+ * A cache belongs to a single ball, so it is only used by one thread at a
+ * time, even when balls move in parallel. It also keeps the closest
+ * collision the queries of the ball collect their result in, so they do
+ * not allocate its scratch arrays again.
+ */
+public class CandidateCache {
+    private PackedBounds candidates;
+    // The version of the environment the candidates were collected in, or -1
+    private long version;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private ClosestCollision closest;
+
+    /**
+     * Instantiates a new, empty Candidate cache.
+     */
+    public CandidateCache() {
+        this.candidates = new PackedBounds();
+        this.version = -1;
+        this.closest = new ClosestCollision();
+    }
+
+    /**
+     * Checks whether the cache still holds all the candidates of a
+     * trajectory: the environment did not change since the cache was
+     * filled, and the swept bounds of the trajectory are within the region
+     * of the cache.
+     *
+     * @param environmentVersion the current version of the environment
+     * @param x0                 the x coordinate of the start of the trajectory
+     * @param y0                 the y coordinate of the start of the trajectory
+     * @param x1                 the x coordinate of the end of the trajectory
+     * @param y1                 the y coordinate of the end of the trajectory
+     * @param radius             the radius of the ball
+     * @return true if the cached candidates can be used
+     */
+    public boolean covers(long environmentVersion, double x0, double y0, double x1, double y1,
+                          double radius) {
+        return this.version == environmentVersion
+                && Math.min(x0, x1) - radius >= this.minX
+                && Math.max(x0, x1) + radius <= this.maxX
+                && Math.min(y0, y1) - radius >= this.minY
+                && Math.max(y0, y1) + radius <= this.maxY;
+    }
+
+    /**
+     * Fills the cache with the grid collidables around a trajectory.
+     *
+     * @param environmentVersion the current version of the environment
+     * @param grid               the grid to collect the collidables from
+     * @param x0                 the x coordinate of the start of the trajectory
+     * @param y0                 the y coordinate of the start of the trajectory
+     * @param x1                 the x coordinate of the end of the trajectory
+     * @param y1                 the y coordinate of the end of the trajectory
+     * @param radius             the radius of the ball
+     * @param margin             how far beyond the swept bounds of the
+     *                           trajectory the cache reaches
+     */
+    public void fill(long environmentVersion, SpatialGrid grid, double x0, double y0,
+                     double x1, double y1, double radius, double margin) {
+        this.version = environmentVersion;
+        this.minX = Math.min(x0, x1) - radius - margin;
+        this.minY = Math.min(y0, y1) - radius - margin;
+        this.maxX = Math.max(x0, x1) + radius + margin;
+        this.maxY = Math.max(y0, y1) + radius + margin;
+        this.candidates.clear();
+        grid.collect(this.minX, this.minY, this.maxX, this.maxY, this.candidates);
+    }
+
+    /**
+     * Gets the cached candidates.
+     *
+     * @return the packed candidates
+     */
+    public PackedBounds getCandidates() {
+        return this.candidates;
+    }
+
+    /**
+     * Gets the closest collision the queries of the ball reuse.
+     *
+     * @return the closest collision
+     */
+    public ClosestCollision getClosestCollision() {
+        return this.closest;
+    }
+}
@@ -0,0 +1,231 @@
+package game;
+
+import core.Collidable;
+import core.CollidableGroup;
+import core.CollisionInfo;
+import geometry.Line;
+import geometry.Point;
+
+/**
+ * The ClosestCollision class collects the closest collision along one
+ * trajectory while the game environment offers it candidate collidables.
+ * The trajectory is either of a point, or of the center of a circle with a
+ * given radius (continuous collision detection of a ball).
+ * Ties between collisions at the same distance go to the collidable that
+ * was added to the environment first, so the result does not depend on the
+ * order in which candidates are offered.
+ * A closest collision can be reset for another trajectory, so a ball that
+ * keeps one for all its queries reuses its scratch arrays instead of
+ * allocating them on every query.
+ */
+public class ClosestCollision {
+    // How far packed boxes are grown by the slab filter, so touching edges pass it
+    private static final double EPSILON = 0.001;
+    private static final int STACK_CAPACITY = 16;
+    private Line trajectory;
+    private double radius;
+    private double x0;
+    private double y0;
+    private double x1;
+    private double y1;
+    private double[] normal;
+    private IndexedCollidable closest;
+    // The collidable that is hit, a member of the closest one if it is a group
+    private Collidable closestObject;
+    private double[] groupHit;
+    private double closestTime;
+    private double closestNormalX;
+    private double closestNormalY;
+    // The places of the packed boxes that passed the slab filter
+    private int[] passed;
+    // The stack of nodes a tree query walks
+    private int[] stack;
+
+    /**
+     * Instantiates a new Closest collision for the given trajectory of a point.
+     *
+     * @param trajectory the trajectory to check candidates against
+     */
+    public ClosestCollision(Line trajectory) {
+        this(trajectory, 0);
+    }
+
+    /**
+     * Instantiates a new Closest collision for the given trajectory of the
+     * center of a circle.
+     *
+     * @param trajectory the trajectory to check candidates against
+     * @param radius     the radius of the circle, or 0 for a point
+     */
+    public ClosestCollision(Line trajectory, double radius) {
+        this();
+        this.reset(trajectory, radius);
+    }
+
+    /**
+     * Instantiates a new Closest collision without a trajectory, to be
+     * reset for one before it is offered candidates.
+     */
+    public ClosestCollision() {
+        this.normal = new double[2];
+        this.passed = new int[0];
+        this.stack = new int[STACK_CAPACITY];
+        this.groupHit = new double[3];
+    }
+
+    /**
+     * Forgets the closest collision found so far, and starts over for the
+     * given trajectory of the center of a circle. The scratch arrays are
+     * kept as they are.
+     *
+     * @param trajectory the trajectory to check candidates against
+     * @param radius     the radius of the circle, or 0 for a point
+     */
+    public void reset(Line trajectory, double radius) {
+        this.trajectory = trajectory;
+        this.radius = radius;
+        this.x0 = trajectory.start().getX();
+        this.y0 = trajectory.start().getY();
+        this.x1 = trajectory.end().getX();
+        this.y1 = trajectory.end().getY();
+        this.closest = null;
+        this.closestObject = null;
+        this.closestTime = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the radius of the circle moving along the trajectory.
+     *
+     * @return the radius, or 0 for a point
+     */
+    public double getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * Gets the stack a bounding volume tree walks its nodes with while it
+     * offers candidates, kept from query to query.
+     *
+     * @return the stack, of at least one place
+     */
+    int[] getStack() {
+        return this.stack;
+    }
+
+    /**
+     * Sets the stack after a tree query grew it.
+     *
+     * @param stack the larger stack
+     */
+    void setStack(int[] stack) {
+        this.stack = stack;
+    }
+
+    /**
+     * Checks the given candidate against the trajectory, and keeps it if it
+     * is closer to the start of the trajectory than the current closest one.
+     *
+     * @param candidate the candidate collidable
+     */
+    public void offer(IndexedCollidable candidate) {
+        double t;
+        Collidable hitObject = candidate.getCollidable();
+        if (hitObject instanceof CollidableGroup) {
+            // A group finds the member that is hit by itself
+            hitObject = ((CollidableGroup) hitObject).firstHit(this.radius,
+                    this.x0, this.y0, this.x1, this.y1, this.groupHit, this.normal);
+            if (hitObject == null) {
+                return;
+            }
+            t = this.groupHit[0];
+            this.normal[0] = this.groupHit[1];
+            this.normal[1] = this.groupHit[2];
+        } else if (this.radius > 0) {
+            t = hitObject.getCollisionRectangle().sweptCircleT(
+                    this.radius, this.x0, this.y0, this.x1, this.y1, this.normal);
+        } else {
+            t = hitObject.getCollisionRectangle().rayEntryT(this.x0, this.y0, this.x1, this.y1);
+        }
+        if (t == Double.POSITIVE_INFINITY) {
+            return;
+        }
+        /* The distance from the start is proportional to the parametric
+        time, which may be slightly negative within the threshold */
+        double time = Math.abs(t);
+        double closestAbs = Math.abs(this.closestTime);
+        if (time < closestAbs
+                || (time == closestAbs && candidate.getOrder() < this.closest.getOrder())) {
+            this.closest = candidate;
+            this.closestObject = hitObject;
+            this.closestTime = t;
+            this.closestNormalX = this.normal[0];
+            this.closestNormalY = this.normal[1];
+        }
+    }
+
+    /**
+     * Offers the collidables of the given packed bounds whose boxes the
+     * trajectory passes near.
+     *
+     * @param bounds the packed collidables
+     * @param filter the slab filter to drop the far boxes with
+     */
+    public void offerAll(PackedBounds bounds, SlabFilter filter) {
+        this.offerRange(bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY(),
+                bounds.getItems(), 0, bounds.size(), filter);
+    }
+
+    /**
+     * Offers the collidables of a range of packed boxes whose boxes the
+     * trajectory passes near. The slab filter first drops every box the
+     * trajectory does not touch once grown by the radius, in one batch, and
+     * only the rest are checked exactly.
+     *
+     * @param minX   the minimum x of every box
+     * @param minY   the minimum y of every box
+     * @param maxX   the maximum x of every box
+     * @param maxY   the maximum y of every box
+     * @param items  the collidable of every box
+     * @param from   the first box of the range, inclusive
+     * @param to     the last box of the range, exclusive
+     * @param filter the slab filter to drop the far boxes with
+     */
+    public void offerRange(double[] minX, double[] minY, double[] maxX, double[] maxY,
+                           IndexedCollidable[] items, int from, int to, SlabFilter filter) {
+        int n = to - from;
+        if (n <= 0) {
+            return;
+        }
+        if (this.passed.length < n) {
+            this.passed = new int[Math.max(n, this.passed.length * 2)];
+        }
+        int found = filter.filter(minX, minY, maxX, maxY, from, to, this.x0, this.y0,
+                this.x1, this.y1, this.radius + EPSILON, this.passed);
+        for (int i = 0; i < found; i++) {
+            this.offer(items[this.passed[i]]);
+        }
+    }
+
+    /**
+     * Returns the collision information of the closest candidate.
+     * For a circle, the collision point is the point where the circle
+     * touches the collidable, not the center of the circle.
+     *
+     * @return the closest collision information, or null if no candidate
+     * collides with the trajectory
+     */
+    public CollisionInfo toCollisionInfo() {
+        if (this.closest == null) {
+            return null;
+        }
+        Point center = this.trajectory.pointAt(this.closestTime);
+        if (this.radius == 0) {
+            return new CollisionInfo(center, this.closestObject,
+                    this.closestTime, 0, 0);
+        }
+        Point contact = new Point(center.getX() - this.radius * this.closestNormalX,
+                center.getY() - this.radius * this.closestNormalY);
+        return new CollisionInfo(contact, this.closestObject,
+                this.closestTime, this.closestNormalX, this.closestNormalY);
+    }
+}
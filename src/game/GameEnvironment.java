@@ -4,23 +4,80 @@ package game;
 import core.Collidable;
 import core.CollisionInfo;
 import geometry.Line;
-import geometry.Point;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import metrics.CollisionQueryEvent;
+import metrics.EngineMetrics;
 
 /**
  * The GameEnvironment class represents a collection of Collidable objects and
  * provides methods for checking collisions with a given trajectory.
+ * Collidables that do not move are kept in a uniform spatial grid, so a
+ * trajectory is only checked against the collidables near it. Moving
+ * collidables are kept in a dynamic bounding volume tree, which is updated
+ * once per frame by updateMovingCollidables(). Collidables too large to be
+ * worth binning are checked against every trajectory. Once a level is set
+ * up, the static collidables of the grid are packed into one compact block
+ * of memory, from which removed collidables are dropped one at a time.
+ * A ball may keep a candidate cache of the grid collidables around it, so
+ * it does not walk the grid on every move. The environment has a version
+ * that changes whenever a collidable is added or removed, and a cache
+ * filled in an older version is filled again.
  */
 public class GameEnvironment {
+    private static final double DEFAULT_WIDTH = 800;
+    private static final double DEFAULT_HEIGHT = 600;
+    private static final double DEFAULT_CELL_SIZE = 40;
+    // Collidables covering more cells than this are not stored in the grid
+    private static final int MAX_CELLS_PER_COLLIDABLE = 64;
+    /* How far a moving collidable may move before it is reinserted into the
+    tree. Larger than the paddle speed, so the paddle is reinserted at most
+    every other frame */
+    private static final double MOVING_MARGIN = 16;
+    /**
+     * The default of how far beyond the swept bounds of a trajectory a
+     * candidate cache reaches.
+     */
+    public static final double DEFAULT_CANDIDATE_MARGIN = 32;
     private List<Collidable> collidables;
+    private Map<Collidable, IndexedCollidable> indexed;
+    private List<IndexedCollidable> unbinned;
+    private List<IndexedCollidable> moving;
+    private SpatialGrid grid;
+    private AabbTree movingTree;
+    private long nextOrder;
+    private long version;
+    private double candidateMargin;
 
     /**
-     * Instantiates a new Game environment with an empty list of collidables.
+     * Instantiates a new Game environment with an empty list of collidables,
+     * indexed over the default 800x600 game area.
      */
     public GameEnvironment() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Instantiates a new Game environment with an empty list of collidables,
+     * indexed over the area from (0, 0) to (width, height).
+     *
+     * @param width    the width of the indexed area
+     * @param height   the height of the indexed area
+     * @param cellSize the size of a single cell of the spatial grid
+     */
+    public GameEnvironment(double width, double height, double cellSize) {
         // Create a new ArrayList to store the collidables
-        collidables = new ArrayList<>();
+        this.collidables = new ArrayList<>();
+        this.indexed = new HashMap<>();
+        this.unbinned = new ArrayList<>();
+        this.moving = new ArrayList<>();
+        this.grid = new SpatialGrid(width, height, cellSize);
+        this.movingTree = new AabbTree(MOVING_MARGIN);
+        this.nextOrder = 0;
+        this.version = 0;
+        this.candidateMargin = DEFAULT_CANDIDATE_MARGIN;
     }
 
     /**
@@ -30,17 +87,80 @@ public class GameEnvironment {
      */
     public void addCollidable(Collidable c) {
         // Add the given collidable to the list of collidables
+        IndexedCollidable entry = new IndexedCollidable(c, this.nextOrder++);
+        this.version++;
+        entry.setPosition(this.collidables.size());
         this.collidables.add(c);
+        this.indexed.put(c, entry);
+        if (c.isMoving()) {
+            this.moving.add(entry);
+            this.movingTree.insert(entry);
+        } else if (this.grid.cellCount(c.getCollisionRectangle()) > MAX_CELLS_PER_COLLIDABLE) {
+            this.unbinned.add(entry);
+        } else {
+            this.grid.insert(entry);
+        }
     }
 
     /**
      * Removes the specified collidable from the game.
+     * The last collidable of the list is moved into its place, so removing
+     * takes constant time, but the list does not keep the order in which
+     * the collidables were added. Ties between collisions still go to the
+     * collidable added first.
      *
      * @param c The collidable to remove.
      */
     public void removeCollidable(Collidable c) {
-        // Remove the given collidable to the list of collidables
-        this.collidables.remove(c);
+        IndexedCollidable entry = this.indexed.remove(c);
+        if (entry == null) {
+            return;
+        }
+        this.version++;
+        // Remove the given collidable from the list of collidables
+        int last = this.collidables.size() - 1;
+        Collidable moved = this.collidables.remove(last);
+        if (moved != c) {
+            this.collidables.set(entry.getPosition(), moved);
+            this.indexed.get(moved).setPosition(entry.getPosition());
+        }
+        // There are only a few moving and unbinned collidables
+        if (this.moving.remove(entry)) {
+            this.movingTree.remove(entry);
+        } else if (!this.unbinned.remove(entry)) {
+            this.grid.remove(entry);
+        }
+    }
+
+    /**
+     * Packs the static collidables of the spatial grid into one compact
+     * block of memory. Should be called once the static collidables of a
+     * level are all in place; collidables can still be added and removed
+     * afterwards.
+     */
+    public void packStaticCollidables() {
+        this.grid.pack();
+    }
+
+    /**
+     * Checks whether the given collidable is in the environment.
+     *
+     * @param c the collidable
+     * @return true if the collidable was added and not removed since
+     */
+    public boolean contains(Collidable c) {
+        return this.indexed.containsKey(c);
+    }
+
+    /**
+     * Updates the index of the moving collidables after they moved.
+     * Should be called once per frame, after the sprites were notified that
+     * time passed. Only collidables that left their fat box are reinserted.
+     */
+    public void updateMovingCollidables() {
+        for (int i = 0; i < this.moving.size(); i++) {
+            this.movingTree.update(this.moving.get(i));
+        }
     }
 
     /**
@@ -51,45 +171,111 @@ public class GameEnvironment {
      * @return the closest collision information, or null if there is no collision
      */
     public CollisionInfo getClosestCollision(Line trajectory) {
-        // Create a new ArrayList to store the collision information
-        List<CollisionInfo> collisionList = new ArrayList<>();
-
-        /* Check each collidable in the list for collisions with the
-        given trajectory */
-        for (Collidable c : this.collidables) {
-            /* Calculate the closest intersection point between the
-            collidable and the trajectory */
-            Point p = trajectory.closestIntersectionToStartOfLine(c.getCollisionRectangle());
-
-            // If there is a collision, add the collision information to the list
-            if (p != null) {
-                collisionList.add(new CollisionInfo(p, c));
-            }
+        return getClosestCollision(trajectory, 0);
+    }
+
+    /**
+     * Gets the closest collision information between a circle of the given
+     * radius, whose center moves along the given trajectory, and any
+     * collidable in the environment.
+     * The collision information holds the point where the circle touches
+     * the collidable, the time of impact along the trajectory, and the
+     * contact normal.
+     *
+     * @param trajectory the trajectory of the center of the circle
+     * @param radius     the radius of the circle
+     * @return the closest collision information, or null if there is no collision
+     */
+    public CollisionInfo getClosestCollision(Line trajectory, double radius) {
+        return getClosestCollision(trajectory, radius, null);
+    }
+
+    /**
+     * Gets the closest collision information between a circle of the given
+     * radius, whose center moves along the given trajectory, and any
+     * collidable in the environment, taking the grid collidables from the
+     * given candidate cache. The cache is filled again if it does not cover
+     * the trajectory. The query collects its result in the closest
+     * collision the cache keeps, so it allocates no scratch arrays.
+     *
+     * @param trajectory the trajectory of the center of the circle
+     * @param radius     the radius of the circle
+     * @param cache      the candidate cache of the circle, or null to walk
+     *                   the grid instead
+     * @return the closest collision information, or null if there is no collision
+     */
+    public CollisionInfo getClosestCollision(Line trajectory, double radius,
+                                             CandidateCache cache) {
+        EngineMetrics metrics = EngineMetrics.getInstance();
+        metrics.collisionQuery();
+        CollisionQueryEvent queryEvent = new CollisionQueryEvent();
+        queryEvent.begin();
+        ClosestCollision closest;
+        if (cache == null) {
+            closest = new ClosestCollision(trajectory, radius);
+        } else {
+            // Reuse the scratch arrays of the ball's earlier queries
+            closest = cache.getClosestCollision();
+            closest.reset(trajectory, radius);
         }
 
-        // If there are no collisions, return null
-        if (collisionList.isEmpty()) {
-            return null;
+        // Check the collidables that are not in the grid
+        for (int i = 0; i < this.unbinned.size(); i++) {
+            closest.offer(this.unbinned.get(i));
         }
 
-        /* Find the closest collision by comparing the distance from the start
-        of the trajectory to each collision point */
-        CollisionInfo closest = collisionList.get(0);
-        for (int i = 1; i < collisionList.size(); i++) {
-            CollisionInfo current = collisionList.get(i);
-            double currentDistance
-                    = trajectory.start().distance(current.collisionPoint());
-            double smallestDistance
-                    = trajectory.start().distance(closest.collisionPoint());
-            /* If the current distance is shorter, change the closestPoint to
-            current point */
-            if (currentDistance < smallestDistance) {
-                closest = current;
+        // Check only the moving collidables whose fat box the trajectory touches
+        this.movingTree.query(trajectory, closest);
+
+        if (cache == null) {
+            // Check only the grid cells the trajectory passes through
+            this.grid.query(trajectory, closest);
+        } else {
+            double x0 = trajectory.start().getX();
+            double y0 = trajectory.start().getY();
+            double x1 = trajectory.end().getX();
+            double y1 = trajectory.end().getY();
+            if (cache.covers(this.version, x0, y0, x1, y1, radius)) {
+                metrics.candidateCacheHit();
+            } else {
+                metrics.candidateCacheMiss();
+                cache.fill(this.version, this.grid, x0, y0, x1, y1, radius,
+                        this.candidateMargin);
             }
+            closest.offerAll(cache.getCandidates(), this.grid.getFilter());
         }
 
         // Return the collision information for the closest collision
-        return closest;
+        CollisionInfo info = closest.toCollisionInfo();
+        queryEvent.end();
+        // Only queries slower than the threshold of the event are recorded
+        if (queryEvent.shouldCommit()) {
+            queryEvent.setRadius(radius);
+            queryEvent.setHit(info != null);
+            queryEvent.commit();
+        }
+        return info;
+    }
+
+    /**
+     * Gets the version of the environment, which changes whenever a
+     * collidable is added or removed.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Sets how far beyond the swept bounds of a trajectory a candidate cache
+     * reaches when it is filled. A larger margin lets a cache last for more
+     * moves, but holds more candidates.
+     *
+     * @param margin the margin, in pixels
+     */
+    public void setCandidateMargin(double margin) {
+        this.candidateMargin = margin;
     }
 
     /**
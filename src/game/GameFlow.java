@@ -14,9 +14,12 @@ import java.util.List;
  * levels and displaying end screens.
  */
 public class GameFlow {
+    // The most game time a fast-forwarded level is played, in seconds
+    private static final double FAST_FORWARD_LIMIT = 3600;
     private AnimationRunner ar;
     private KeyboardSensor ks;
     private Counter totalScore;
+    private boolean fastForward;
 
     /**
      * Constructs a new GameFlow instance.
@@ -40,6 +43,17 @@ public class GameFlow {
         this.totalScore = score;
     }
 
+    /**
+     * Sets whether the levels are fast-forwarded: played by jumping from
+     * one collision to the next, without animating them. The end screens
+     * are still shown.
+     *
+     * @param fastForward true to fast-forward the levels
+     */
+    public void setFastForward(boolean fastForward) {
+        this.fastForward = fastForward;
+    }
+
     /**
      * Runs the given list of levels.
      *
@@ -61,6 +75,16 @@ public class GameFlow {
             // Initialize the level
             level.initialize();
 
+            if (this.fastForward) {
+                level.fastForward(FAST_FORWARD_LIMIT);
+                // A level that did not end in time would never end without a player
+                if (level.getRemainingBlocks().getValue() != 0
+                        && level.getRemainingBalls().getValue() != 0) {
+                    this.ar.getDisplay().close();
+                    return;
+                }
+            }
+
             // Run the level as long as there are remaining blocks and balls
             while (level.getRemainingBlocks().getValue() != 0
                     && level.getRemainingBalls().getValue() != 0) {
@@ -73,8 +97,9 @@ public class GameFlow {
                 // Display the end screen with the loss message and total score
                 this.ar.run(new KeyPressStoppableAnimation(this.ks,
                         KeyboardSensor.SPACE_KEY, new EndScreen(loss, this.totalScore)));
-                // Close the GUI window
-                this.ar.getGui().close();
+                // Close the display
+                this.ar.getDisplay().close();
+                return;
             }
 
             int numLevels = levels.size();
@@ -84,8 +109,8 @@ public class GameFlow {
                 // Display the end screen with the victory message and total score
                 this.ar.run(new KeyPressStoppableAnimation(this.ks,
                         KeyboardSensor.SPACE_KEY, new EndScreen(victory, this.totalScore)));
-                // Close the GUI window
-                this.ar.getGui().close();
+                // Close the display
+                this.ar.getDisplay().close();
             }
 
         }
@@ -12,7 +12,9 @@ import core.Sprite;
 import core.Velocity;
 import gameObjects.Ball;
 import gameObjects.Block;
+import gameObjects.BlockGrid;
 import gameObjects.Paddle;
+import geometry.DirtyRegions;
 import geometry.Point;
 import geometry.Rectangle;
 import java.awt.Color;
@@ -25,7 +27,9 @@ import levels.LevelIndicator;
 import levels.LevelInformation;
 import listeners.BallRemover;
 import listeners.BlockRemover;
-import listeners.HitListener;
+import listeners.HitListenerChain;
+import metrics.EngineMetrics;
+import metrics.GamePhaseEvent;
 import score.ScoreTrackingListener;
 import score.ScoreIndicator;
 
@@ -48,6 +52,11 @@ public class GameLevel implements Animation {
     private boolean running;
     private KeyboardSensor keyboard;
     private LevelInformation levelInformation;
+    private HitEventQueue hitEvents;
+    private BallSystem balls;
+    // The background and the static sprites, drawn once on an image
+    private LayerCache staticLayers;
+    private boolean cacheStaticLayers;
     private static final int BALL_SIZE = 5;
     private static final int DEATH_BLOCK = 3;
 
@@ -66,9 +75,12 @@ public class GameLevel implements Animation {
         this.remainingBlocks = new Counter(0);
         this.remainingBalls = new Counter(0);
         this.score = new Counter(0);
+        this.hitEvents = new HitEventQueue();
+        this.balls = new BallSystem(this.hitEvents);
+        this.cacheStaticLayers = true;
         this.runner = new AnimationRunner(this.gui, 60, new Sleeper());
         this.running = true;
-        this.keyboard = this.runner.getGui().getKeyboardSensor();
+        this.keyboard = this.runner.getDisplay().getKeyboardSensor();
     }
 
     /**
@@ -87,9 +99,12 @@ public class GameLevel implements Animation {
         this.remainingBlocks = new Counter(0);
         this.remainingBalls = new Counter(0);
         this.score = new Counter(0);
+        this.hitEvents = new HitEventQueue();
+        this.balls = new BallSystem(this.hitEvents);
+        this.cacheStaticLayers = true;
         this.runner = new AnimationRunner(this.gui, 60, new Sleeper());
         this.running = true;
-        this.keyboard = this.runner.getGui().getKeyboardSensor();
+        this.keyboard = this.runner.getDisplay().getKeyboardSensor();
         this.levelInformation = levelInformation;
     }
 
@@ -112,9 +127,12 @@ public class GameLevel implements Animation {
         this.remainingBlocks = new Counter(0);
         this.remainingBalls = new Counter(0);
         this.score = score;
+        this.hitEvents = new HitEventQueue();
+        this.balls = new BallSystem(this.hitEvents);
+        this.cacheStaticLayers = true;
         this.runner = runner;
         this.running = true;
-        this.keyboard = runner.getGui().getKeyboardSensor();
+        this.keyboard = runner.getDisplay().getKeyboardSensor();
         this.levelInformation = levelInformation;
     }
 
@@ -136,6 +154,15 @@ public class GameLevel implements Animation {
         return remainingBalls;
     }
 
+    /**
+     * Gets the queue the hits of this level are recorded in.
+     *
+     * @return the hit event queue
+     */
+    public HitEventQueue getHitEvents() {
+        return this.hitEvents;
+    }
+
     /**
      * Adds a collidable object to the game environment.
      *
@@ -154,6 +181,46 @@ public class GameLevel implements Animation {
         this.sprites.addSprite(s);
     }
 
+    /**
+     * Adds a sprite object to the given layer of the game. A sprite added
+     * this way is only drawn, and is not added to the game environment.
+     *
+     * @param s     the sprite object to add
+     * @param layer the layer to draw the sprite in
+     */
+    public void addSprite(Sprite s, SpriteLayer layer) {
+        this.sprites.addSprite(s, layer);
+    }
+
+    /**
+     * Adds a ball to the balls of the game. The balls are moved and drawn
+     * together, as a single sprite that is added with the first ball.
+     *
+     * @param ball the ball to add
+     */
+    public void addBall(Ball ball) {
+        this.sprites.addSprite(this.balls);
+        this.balls.add(ball);
+    }
+
+    /**
+     * Removes a ball from the balls of the game.
+     *
+     * @param ball the ball to remove
+     */
+    public void removeBall(Ball ball) {
+        this.balls.remove(ball);
+    }
+
+    /**
+     * Gets the balls of the game.
+     *
+     * @return the ball system of the game
+     */
+    public BallSystem getBalls() {
+        return this.balls;
+    }
+
     /**
      * Remove collidable object from the game environment.
      *
@@ -163,6 +230,35 @@ public class GameLevel implements Animation {
         this.environment.removeCollidable(c);
     }
 
+    /**
+     * Reports that the given region of the background and static layers
+     * changed, such as where a block was removed, so only that region of
+     * their cached image is drawn again.
+     *
+     * @param region the region that changed
+     */
+    public void invalidateStaticRegion(Rectangle region) {
+        if (this.staticLayers != null) {
+            this.staticLayers.invalidate(region);
+        }
+        this.sprites.invalidate(region);
+    }
+
+    /**
+     * Sets whether the background and static layers are drawn from a cached
+     * image, or sprite by sprite in every frame. The cache is used unless
+     * turned off.
+     *
+     * @param cacheStaticLayers true to draw the static layers from a cached image
+     */
+    public void setStaticLayerCache(boolean cacheStaticLayers) {
+        this.cacheStaticLayers = cacheStaticLayers;
+        // The cache missed the changes made while it was not used
+        if (this.staticLayers != null) {
+            this.staticLayers.invalidateAll();
+        }
+    }
+
     /**
      * Remove sprite object from the games' SpriteCollection.
      *
@@ -177,9 +273,8 @@ public class GameLevel implements Animation {
      * and Paddle and adding them to the game.
      */
     public void initialize() {
-        // Create the screen block and add it to the game
-        Block block1 = (Block) this.levelInformation.getBackground();
-        block1.addToGame(this);
+        // The background is decoration, so it is drawn but never collides
+        this.addSprite(this.levelInformation.getBackground(), SpriteLayer.BACKGROUND);
 
         // Create the blocks and add them to the game
         createBlocks();
@@ -194,19 +289,38 @@ public class GameLevel implements Animation {
         LevelIndicator levelName = new LevelIndicator(this.levelInformation.levelName());
         indicator.addToGame(this);
         levelName.addToGame(this);
+
+        // The static collidables are all in place, so pack them
+        this.environment.packStaticCollidables();
+        this.staticLayers = new LayerCache(this.sprites, SpriteLayer.STATIC);
+
+        // Let the engine metrics watch this level
+        EngineMetrics.getInstance().watchLevel(
+                () -> this.environment.getCollidableList().size(),
+                // The balls are counted one by one, and not as a single sprite
+                () -> this.sprites.size() - 1 + this.balls.size(),
+                this.remainingBlocks, this.remainingBalls);
     }
 
     private void createBlocks() {
         BlockRemover blockRemover = new BlockRemover(this, this.remainingBlocks);
         ScoreTrackingListener scoreTrackingListener = new ScoreTrackingListener(this.score);
+        scoreTrackingListener.setBatched(true);
+        this.hitEvents.addBatchListener(scoreTrackingListener);
         this.remainingBlocks.increase(this.levelInformation.numberOfBlocksToRemove());
 
 
-        for (Block block : this.levelInformation.blocks()) {
-            List<HitListener> blockRemoverList = new java.util.ArrayList<>();
-            blockRemoverList.add(blockRemover);
-            blockRemoverList.add(scoreTrackingListener);
-            block.setHitListeners(blockRemoverList);
+        // All the blocks share one chain, until a listener removes itself from one
+        HitListenerChain blockListeners = HitListenerChain.of(blockRemover,
+                scoreTrackingListener);
+        List<Block> blocks = this.levelInformation.blocks();
+        // Blocks placed on a regular grid collide and are drawn as one wall
+        BlockGrid wall = BlockGrid.of(blocks);
+        if (wall != null) {
+            wall.addToGame(this);
+        }
+        for (Block block : blocks) {
+            block.setHitListeners(blockListeners);
             block.addToGame(this);
         }
     }
@@ -249,9 +363,9 @@ public class GameLevel implements Animation {
         };
 
         borders[DEATH_BLOCK].addHitListener(ballRemover);
-        // Add the blocks to the game
+        // Add the blocks to the game, in the layer of the borders
         for (Block b : borders) {
-            b.addToGame(this);
+            b.addToGame(this, SpriteLayer.BORDERS);
         }
     }
 
@@ -290,17 +404,37 @@ public class GameLevel implements Animation {
     }
 
     /**
-     * Performs one frame of the game animation.
-     * Draws all the sprites on the given surface, notifies all sprites
-     * of time passed,
+     * Performs one tick of the game animation.
+     * Notifies all sprites of time passed, delivers the hits that happened
+     * meanwhile to their listeners,
      * and checks if the game should stop based on the remaining blocks and balls.
      *
-     * @param d the draw surface on which to draw the game animation
+     * @param dt the length of the tick, in seconds
      */
     @Override
-    public void doOneFrame(DrawSurface d) {
-        this.sprites.drawAllOn(d);
-        this.sprites.notifyAllTimePassed();
+    public void update(double dt) {
+        GamePhaseEvent phaseEvent = new GamePhaseEvent(GamePhaseEvent.TIME_PASSED);
+        phaseEvent.begin();
+        this.sprites.notifyAllTimePassed(dt);
+        phaseEvent.commit();
+        /* The environment did not change while the balls moved; now deliver
+        the hits of the tick, which may remove blocks and balls */
+        this.hitEvents.drain();
+        this.environment.updateMovingCollidables();
+        this.checkEnded();
+
+        // If the user enter pause - 'p'
+        if (this.keyboard.isPressed("p")) {
+            this.runner.run(new KeyPressStoppableAnimation(this.keyboard,
+                    KeyboardSensor.SPACE_KEY, new PauseScreen()));
+        }
+    }
+
+    /**
+     * Checks if there are no balls or blocks left, and if so stops the
+     * level, with a bonus if all the blocks were removed.
+     */
+    private void checkEnded() {
         // If there are no balls or blocks left in the game, the game should close
         if (this.remainingBlocks.getValue() == 0
                 || this.remainingBalls.getValue() == 0) {
@@ -311,12 +445,54 @@ public class GameLevel implements Animation {
             }
             this.running = false;
         }
+    }
 
-        // If the user enter pause - 'p'
-        if (this.keyboard.isPressed("p")) {
-            this.runner.run(new KeyPressStoppableAnimation(this.keyboard,
-                    KeyboardSensor.SPACE_KEY, new PauseScreen()));
+    /**
+     * Plays the level without animating it, by jumping from one collision
+     * to the next, until there are no balls or blocks left or the given
+     * game time passed. The paddle stays in the middle, since no keys are
+     * read.
+     *
+     * @param maxSeconds the most game time to play, in seconds
+     * @return the game time that was played, in seconds
+     */
+    public double fastForward(double maxSeconds) {
+        if (this.gamePaddle == null) {
+            this.createPaddle();
         }
+        TimeOfImpactEngine engine = new TimeOfImpactEngine(this.environment, this.balls,
+                this.hitEvents);
+        double seconds = engine.run(maxSeconds, () -> this.remainingBlocks.getValue() == 0
+                || this.remainingBalls.getValue() == 0);
+        this.checkEnded();
+        return seconds;
+    }
+
+    /**
+     * Draws one frame of the game animation.
+     * Draws all the sprites on the given surface.
+     *
+     * @param d the draw surface on which to draw the game animation
+     */
+    @Override
+    public void render(DrawSurface d) {
+        GamePhaseEvent phaseEvent = new GamePhaseEvent(GamePhaseEvent.DRAW);
+        phaseEvent.begin();
+        this.sprites.drawAllOn(d, this.cacheStaticLayers ? this.staticLayers : null);
+        phaseEvent.commit();
+    }
+
+    /**
+     * Gathers the regions of the screen that changed since the previous
+     * frame, from the sprites of the game.
+     *
+     * @param regions the regions to add to
+     * @return true if the regions cover everything that changed, false if
+     * the whole screen may have changed
+     */
+    @Override
+    public boolean collectDirtyRegions(DirtyRegions regions) {
+        return this.sprites.collectDirtyRegions(regions);
     }
 
     /**
@@ -0,0 +1,245 @@
+package game;
+
+import gameObjects.Ball;
+import gameObjects.Block;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import listeners.HitBatchListener;
+
+/**
+ * The HitEventQueue class collects the hits of a tick, so their listeners
+ * run after all the balls moved, and not in the middle of a ball's move.
+ * While the balls move, the game environment is not changed, so every ball
+ * of a tick sees the same world.
+ * A hit is written as a record of primitives: the id of the block and the
+ * id of the ball. The records are kept in a ring buffer of parallel arrays
+ * that is allocated once and only grows if a tick has more hits than it
+ * holds.
+ * The game level drains the queue once at the end of every tick: every
+ * hit is delivered to the listeners of its block, in the order the hits
+ * happened, and then the batch listeners are told the batch ended.
+ * While balls move in parallel, the queue stages the hits instead: every
+ * ball has its own few staging entries, so the threads never write to the
+ * same place. When the balls are done, the staged hits are appended to the
+ * ring buffer in the order of the balls.
+ */
+public class HitEventQueue {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int INITIAL_REGISTRY_SIZE = 64;
+    // The records of the hits, one entry of every array per hit
+    private int[] blockIds;
+    private int[] ballIds;
+    private int mask;
+    private int head;
+    private int count;
+    // The objects the ids in the records stand for
+    private Block[] blocks;
+    private int blockCount;
+    private Ball[] balls;
+    private int ballCount;
+    private List<HitBatchListener> batchListeners;
+    // The hits staged while balls move in parallel, Ball.MAX_HITS_PER_MOVE per ball id
+    private boolean staging;
+    private int[] stagedCounts;
+    private int[] stagedBlockIds;
+
+    /**
+     * Instantiates a new, empty Hit event queue with the default capacity.
+     */
+    public HitEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new, empty Hit event queue.
+     *
+     * @param capacity the number of hits the queue holds before it grows,
+     *                 rounded up to a power of two
+     */
+    public HitEventQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.allocate(size);
+        this.head = 0;
+        this.count = 0;
+        this.blocks = new Block[INITIAL_REGISTRY_SIZE];
+        this.blockCount = 0;
+        this.balls = new Ball[INITIAL_REGISTRY_SIZE];
+        this.ballCount = 0;
+        this.batchListeners = new ArrayList<>();
+        this.staging = false;
+        this.stagedCounts = new int[0];
+        this.stagedBlockIds = new int[0];
+    }
+
+    /**
+     * Allocates the record arrays with the given size.
+     *
+     * @param size the size, a power of two
+     */
+    private void allocate(int size) {
+        this.blockIds = new int[size];
+        this.ballIds = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gives the block an id, with which its hits are recorded.
+     *
+     * @param block the block
+     * @return the id of the block
+     */
+    public int registerBlock(Block block) {
+        if (this.blockCount == this.blocks.length) {
+            this.blocks = Arrays.copyOf(this.blocks, this.blocks.length * 2);
+        }
+        this.blocks[this.blockCount] = block;
+        return this.blockCount++;
+    }
+
+    /**
+     * Gives the ball an id, with which its hits are recorded.
+     *
+     * @param ball the ball
+     * @return the id of the ball
+     */
+    public int registerBall(Ball ball) {
+        if (this.ballCount == this.balls.length) {
+            this.balls = Arrays.copyOf(this.balls, this.balls.length * 2);
+        }
+        this.balls[this.ballCount] = ball;
+        return this.ballCount++;
+    }
+
+    /**
+     * Adds a listener that is told whenever a batch of hits was delivered.
+     *
+     * @param listener the listener
+     */
+    public void addBatchListener(HitBatchListener listener) {
+        this.batchListeners.add(listener);
+    }
+
+    /**
+     * Records a hit.
+     *
+     * @param blockId the id of the block that was hit
+     * @param ballId  the id of the ball that hit it
+     */
+    public void add(int blockId, int ballId) {
+        if (this.staging) {
+            this.stage(blockId, ballId);
+            return;
+        }
+        if (this.count > this.mask) {
+            this.grow();
+        }
+        int index = (this.head + this.count) & this.mask;
+        this.blockIds[index] = blockId;
+        this.ballIds[index] = ballId;
+        this.count++;
+    }
+
+    /**
+     * Starts staging the hits, before balls move in parallel. Until
+     * endStaging is called, every ball may only be moved by one thread,
+     * once, and nothing else may be recorded.
+     */
+    public void beginStaging() {
+        int needed = this.ballCount * Ball.MAX_HITS_PER_MOVE;
+        if (this.stagedBlockIds.length < needed) {
+            this.stagedCounts = Arrays.copyOf(this.stagedCounts, this.balls.length);
+            this.stagedBlockIds = new int[this.balls.length * Ball.MAX_HITS_PER_MOVE];
+        }
+        this.staging = true;
+    }
+
+    /**
+     * Stages a hit under the id of its ball.
+     *
+     * @param blockId the id of the block that was hit
+     * @param ballId  the id of the ball that hit it
+     */
+    private void stage(int blockId, int ballId) {
+        int staged = this.stagedCounts[ballId];
+        if (staged == Ball.MAX_HITS_PER_MOVE) {
+            throw new IllegalStateException("Ball " + ballId + " hit more than "
+                    + Ball.MAX_HITS_PER_MOVE + " times in one move");
+        }
+        int index = ballId * Ball.MAX_HITS_PER_MOVE + staged;
+        this.stagedBlockIds[index] = blockId;
+        this.stagedCounts[ballId] = staged + 1;
+    }
+
+    /**
+     * Stops staging the hits, and records the staged hits in the order of
+     * the given balls, the hits of every ball in the order they happened.
+     *
+     * @param order the balls, in the order they would have moved on a
+     *              single thread
+     * @param n     the number of balls
+     */
+    public void endStaging(Ball[] order, int n) {
+        this.staging = false;
+        for (int i = 0; i < n; i++) {
+            int ballId = order[i].getHitId();
+            if (ballId < 0) {
+                continue;
+            }
+            int first = ballId * Ball.MAX_HITS_PER_MOVE;
+            for (int k = 0; k < this.stagedCounts[ballId]; k++) {
+                this.add(this.stagedBlockIds[first + k], ballId);
+            }
+            this.stagedCounts[ballId] = 0;
+        }
+    }
+
+    /**
+     * Doubles the size of the record arrays, keeping the recorded hits in
+     * order.
+     */
+    private void grow() {
+        int[] oldBlockIds = this.blockIds;
+        int[] oldBallIds = this.ballIds;
+        int oldMask = this.mask;
+        this.allocate(oldBlockIds.length * 2);
+        for (int i = 0; i < this.count; i++) {
+            int from = (this.head + i) & oldMask;
+            this.blockIds[i] = oldBlockIds[from];
+            this.ballIds[i] = oldBallIds[from];
+        }
+        this.head = 0;
+    }
+
+    /**
+     * Delivers all the recorded hits to the listeners of their blocks, in
+     * the order they happened, and then ends the batch.
+     * A hit on a block that already left the game, or by a ball that
+     * already left it, is dropped: before hits were batched, such a hit
+     * could not happen, since the block or ball was removed at once.
+     */
+    public void drain() {
+        while (this.count > 0) {
+            int index = this.head;
+            Block block = this.blocks[this.blockIds[index]];
+            Ball ball = this.balls[this.ballIds[index]];
+            this.head = (this.head + 1) & this.mask;
+            this.count--;
+            if (block.isInGame() && !ball.isRemoved()) {
+                block.notifyHit(ball);
+            }
+        }
+        for (int i = 0; i < this.batchListeners.size(); i++) {
+            this.batchListeners.get(i).hitBatchEnded();
+        }
+    }
+
+    /**
+     * Gets the number of hits recorded and not delivered yet.
+     *
+     * @return the number of pending hits
+     */
+    public int size() {
+        return this.count;
+    }
+}
@@ -0,0 +1,90 @@
+package game;
+
+import core.CollisionInfo;
+import gameObjects.Ball;
+
+/**
+ * The ImpactEvent class is a moment the time of impact engine has to stop
+ * at for one ball: the ball either hits a collidable then, or reaches the
+ * end of the way the engine looked ahead for it.
+ * Events are ordered by their time, and events at the same time by the hit
+ * id of their ball, so the engine handles them in the same order every run.
+ * Every event holds the version of its ball it was predicted for. When the
+ * ball is predicted again, its version changes and the old event is stale.
+ */
+public class ImpactEvent implements Comparable<ImpactEvent> {
+    private double time;
+    private Ball ball;
+    private int version;
+    private CollisionInfo collision;
+
+    /**
+     * Instantiates a new Impact event.
+     *
+     * @param time      the time of the event, in steps since the engine started
+     * @param ball      the ball of the event
+     * @param version   the version of the ball the event was predicted for
+     * @param collision the collision that happens at the time of the event,
+     *                  or null if the ball only reaches the end of the way
+     *                  the engine looked ahead
+     */
+    public ImpactEvent(double time, Ball ball, int version, CollisionInfo collision) {
+        this.time = time;
+        this.ball = ball;
+        this.version = version;
+        this.collision = collision;
+    }
+
+    /**
+     * Gets the time of the event.
+     *
+     * @return the time, in steps since the engine started
+     */
+    public double getTime() {
+        return this.time;
+    }
+
+    /**
+     * Gets the ball of the event.
+     *
+     * @return the ball
+     */
+    public Ball getBall() {
+        return this.ball;
+    }
+
+    /**
+     * Gets the version of the ball the event was predicted for.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the collision that happens at the time of the event.
+     *
+     * @return the collision, or null if the ball does not hit anything
+     */
+    public CollisionInfo getCollision() {
+        return this.collision;
+    }
+
+    /**
+     * Compares this event to another by time, and then by the hit id of the
+     * ball.
+     *
+     * @param other the other event
+     * @return a negative number, zero, or a positive number as this event
+     * comes before, with, or after the other event
+     */
+    @Override
+    public int compareTo(ImpactEvent other) {
+        int byTime = Double.compare(this.time, other.time);
+        if (byTime != 0) {
+            return byTime;
+        }
+        return Integer.compare(this.ball.getHitId(), other.ball.getHitId());
+    }
+}
@@ -0,0 +1,141 @@
+package game;
+
+import core.Collidable;
+
+/**
+ * The IndexedCollidable class wraps a collidable that was added to the game
+ * environment, together with the bookkeeping the environment needs in order
+ * to find it again: the order in which it was added, the range of grid
+ * cells it was placed in, the tree node it is stored in if it moves, and
+ * its position in the list of collidables of the environment.
+ */
+public class IndexedCollidable {
+    private Collidable collidable;
+    private long order;
+    private int minCol;
+    private int maxCol;
+    private int minRow;
+    private int maxRow;
+    private int proxy;
+    private int position;
+
+    /**
+     * Instantiates a new Indexed collidable.
+     *
+     * @param collidable the wrapped collidable
+     * @param order      the order in which the collidable was added
+     */
+    public IndexedCollidable(Collidable collidable, long order) {
+        this.collidable = collidable;
+        this.order = order;
+        this.proxy = -1;
+    }
+
+    /**
+     * Gets the wrapped collidable.
+     *
+     * @return the collidable
+     */
+    public Collidable getCollidable() {
+        return this.collidable;
+    }
+
+    /**
+     * Gets the order in which the collidable was added to the environment.
+     * Earlier collidables win ties between collisions at the same distance.
+     *
+     * @return the insertion order
+     */
+    public long getOrder() {
+        return this.order;
+    }
+
+    /**
+     * Sets the range of grid cells this collidable is stored in.
+     *
+     * @param firstCol the first column
+     * @param lastCol  the last column
+     * @param firstRow the first row
+     * @param lastRow  the last row
+     */
+    public void setCells(int firstCol, int lastCol, int firstRow, int lastRow) {
+        this.minCol = firstCol;
+        this.maxCol = lastCol;
+        this.minRow = firstRow;
+        this.maxRow = lastRow;
+    }
+
+    /**
+     * Gets the first grid column of this collidable.
+     *
+     * @return the first column
+     */
+    public int getMinCol() {
+        return this.minCol;
+    }
+
+    /**
+     * Gets the last grid column of this collidable.
+     *
+     * @return the last column
+     */
+    public int getMaxCol() {
+        return this.maxCol;
+    }
+
+    /**
+     * Gets the first grid row of this collidable.
+     *
+     * @return the first row
+     */
+    public int getMinRow() {
+        return this.minRow;
+    }
+
+    /**
+     * Gets the last grid row of this collidable.
+     *
+     * @return the last row
+     */
+    public int getMaxRow() {
+        return this.maxRow;
+    }
+
+    /**
+     * Sets the id of the tree node this collidable is stored in.
+     *
+     * @param proxy the tree node id, or -1 if it is not in a tree
+     */
+    public void setProxy(int proxy) {
+        this.proxy = proxy;
+    }
+
+    /**
+     * Gets the id of the tree node this collidable is stored in.
+     *
+     * @return the tree node id, or -1 if it is not in a tree
+     */
+    public int getProxy() {
+        return this.proxy;
+    }
+
+    /**
+     * Sets the position of this collidable in the list of collidables of
+     * the environment.
+     *
+     * @param position the position in the list
+     */
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    /**
+     * Gets the position of this collidable in the list of collidables of
+     * the environment.
+     *
+     * @return the position in the list
+     */
+    public int getPosition() {
+        return this.position;
+    }
+}
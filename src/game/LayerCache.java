@@ -0,0 +1,200 @@
+package game;
+
+import animation.ImageDrawSurface;
+import biuoop.DrawSurface;
+import geometry.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The LayerCache class keeps the lowest layers of a sprite collection drawn
+ * on an off-screen image, so a frame draws them with a single call instead
+ * of drawing every sprite in them again.
+ * The layers are drawn on the image once, and after that only the regions
+ * that were reported as changed are drawn again, with the drawing limited
+ * to the region. The owner of the layers reports a sprite that is removed
+ * from them or that changes the way it looks, with the region it covered.
+ * A change of the layers that was not reported, such as a sprite that was
+ * added, is found by the versions of the layers and draws the whole image
+ * again.
+ * The image is opaque, so the cache has to hold all the layers below the
+ * highest layer it holds.
+ */
+public class LayerCache {
+    // Outlines are drawn one pixel past the width and height of a rectangle
+    private static final int MARGIN = 1;
+    private static final int INITIAL_REGIONS = 16;
+    private SpriteCollection sprites;
+    private SpriteLayer top;
+    // The layers held, in z-order, and their versions when they were last drawn
+    private SpriteLayer[] layers;
+    private long[] versions;
+    private ImageDrawSurface surface;
+    private boolean valid;
+    // The regions to draw again, as x, y, width and height
+    private int[] regions;
+    private int regionCount;
+    private long fullRepaints;
+    private long regionRepaints;
+
+    /**
+     * Instantiates a new Layer cache that holds the given layer and all the
+     * layers below it.
+     *
+     * @param sprites the sprite collection whose layers are cached
+     * @param top     the highest layer to hold
+     */
+    public LayerCache(SpriteCollection sprites, SpriteLayer top) {
+        this.sprites = sprites;
+        this.top = top;
+        this.layers = Arrays.stream(SpriteLayer.inZOrder())
+                .filter(this::holds).toArray(SpriteLayer[]::new);
+        this.versions = new long[this.layers.length];
+        this.surface = null;
+        this.valid = false;
+        this.regions = new int[4 * INITIAL_REGIONS];
+        this.regionCount = 0;
+        this.fullRepaints = 0;
+        this.regionRepaints = 0;
+    }
+
+    /**
+     * Checks whether the cache holds the given layer.
+     *
+     * @param layer the layer
+     * @return true if the layer is drawn from the cache, false otherwise
+     */
+    public boolean holds(SpriteLayer layer) {
+        return layer.getZOrder() <= this.top.getZOrder();
+    }
+
+    /**
+     * Reports that the given region of the cached layers changed, and has to
+     * be drawn again. The changes of the versions of the layers made so far
+     * are taken to be inside the region.
+     *
+     * @param region the region that changed
+     */
+    public void invalidate(Rectangle region) {
+        int x = (int) Math.floor(region.getUpperLeft().getX()) - MARGIN;
+        int y = (int) Math.floor(region.getUpperLeft().getY()) - MARGIN;
+        int width = (int) Math.ceil(region.getWidth()) + 3 * MARGIN;
+        int height = (int) Math.ceil(region.getHeight()) + 3 * MARGIN;
+        if (4 * (this.regionCount + 1) > this.regions.length) {
+            this.regions = Arrays.copyOf(this.regions, 2 * this.regions.length);
+        }
+        int at = 4 * this.regionCount++;
+        this.regions[at] = x;
+        this.regions[at + 1] = y;
+        this.regions[at + 2] = width;
+        this.regions[at + 3] = height;
+        this.saveVersions();
+    }
+
+    /**
+     * Reports that the cached layers may have changed anywhere, so the whole
+     * image is drawn again.
+     */
+    public void invalidateAll() {
+        this.valid = false;
+    }
+
+    /**
+     * Draws the cached layers on the given surface, after bringing the image
+     * up to date.
+     *
+     * @param d the surface to draw on
+     */
+    public void drawOn(DrawSurface d) {
+        this.refresh(d.getWidth(), d.getHeight());
+        d.drawImage(0, 0, this.surface.getImage());
+    }
+
+    /**
+     * Brings the image up to date: draws all of it again if it is new or
+     * the layers changed without a report, and otherwise only the regions
+     * that were reported.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     */
+    private void refresh(int width, int height) {
+        if (this.surface == null || this.surface.getWidth() != width
+                || this.surface.getHeight() != height) {
+            if (this.surface != null) {
+                this.surface.dispose();
+            }
+            this.surface = new ImageDrawSurface(width, height);
+            this.valid = false;
+        }
+        if (!this.valid || this.versionsChanged()) {
+            this.surface.clear();
+            this.drawLayers();
+            this.saveVersions();
+            this.valid = true;
+            this.regionCount = 0;
+            this.fullRepaints++;
+            return;
+        }
+        for (int i = 0; i < this.regionCount; i++) {
+            int at = 4 * i;
+            this.surface.clip(this.regions[at], this.regions[at + 1],
+                    this.regions[at + 2], this.regions[at + 3]);
+            this.drawLayers();
+            this.regionRepaints++;
+        }
+        if (this.regionCount > 0) {
+            this.surface.unclip();
+        }
+        this.regionCount = 0;
+    }
+
+    /**
+     * Draws the cached layers on the image, in z-order.
+     */
+    private void drawLayers() {
+        for (SpriteLayer layer : this.layers) {
+            this.sprites.drawLayerOn(layer, this.surface);
+        }
+    }
+
+    /**
+     * Checks whether any cached layer changed since its version was saved.
+     *
+     * @return true if a layer changed, false otherwise
+     */
+    private boolean versionsChanged() {
+        for (int i = 0; i < this.layers.length; i++) {
+            if (this.sprites.getVersion(this.layers[i]) != this.versions[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Saves the current versions of the cached layers.
+     */
+    private void saveVersions() {
+        for (int i = 0; i < this.layers.length; i++) {
+            this.versions[i] = this.sprites.getVersion(this.layers[i]);
+        }
+    }
+
+    /**
+     * Gets the number of times the whole image was drawn.
+     *
+     * @return the number of full repaints
+     */
+    public long getFullRepaints() {
+        return this.fullRepaints;
+    }
+
+    /**
+     * Gets the number of regions of the image that were drawn again.
+     *
+     * @return the number of region repaints
+     */
+    public long getRegionRepaints() {
+        return this.regionRepaints;
+    }
+}
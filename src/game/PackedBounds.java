@@ -0,0 +1,157 @@
+package game;
+
+import geometry.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The PackedBounds class is a list of collidables whose collision
+ * rectangles are packed into four parallel arrays of doubles: the minimum
+ * and maximum x and y of every rectangle. A cell of the spatial grid is a
+ * PackedBounds, so a trajectory can be tested against all the rectangles of
+ * the cell in one tight loop over the arrays, before the exact test runs on
+ * the few that pass.
+ * The order of the collidables is not kept: removing one moves the last one
+ * into its place.
+ */
+public class PackedBounds {
+    private static final int INITIAL_CAPACITY = 4;
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+    private IndexedCollidable[] items;
+    private int size;
+
+    /**
+     * Instantiates a new, empty Packed bounds.
+     */
+    public PackedBounds() {
+        this.minX = new double[INITIAL_CAPACITY];
+        this.minY = new double[INITIAL_CAPACITY];
+        this.maxX = new double[INITIAL_CAPACITY];
+        this.maxY = new double[INITIAL_CAPACITY];
+        this.items = new IndexedCollidable[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds a collidable, packing the bounds of its collision rectangle.
+     *
+     * @param entry the collidable to add
+     */
+    public void add(IndexedCollidable entry) {
+        if (this.size == this.items.length) {
+            int capacity = this.items.length * 2;
+            this.minX = Arrays.copyOf(this.minX, capacity);
+            this.minY = Arrays.copyOf(this.minY, capacity);
+            this.maxX = Arrays.copyOf(this.maxX, capacity);
+            this.maxY = Arrays.copyOf(this.maxY, capacity);
+            this.items = Arrays.copyOf(this.items, capacity);
+        }
+        Rectangle rect = entry.getCollidable().getCollisionRectangle();
+        this.minX[this.size] = rect.getUpperLeft().getX();
+        this.minY[this.size] = rect.getUpperLeft().getY();
+        this.maxX[this.size] = rect.getMaxX();
+        this.maxY[this.size] = rect.getMaxY();
+        this.items[this.size] = entry;
+        this.size++;
+    }
+
+    /**
+     * Removes a collidable, by moving the last one into its place.
+     *
+     * @param entry the collidable to remove
+     * @return true if the collidable was found, false otherwise
+     */
+    public boolean remove(IndexedCollidable entry) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.items[i] == entry) {
+                int last = --this.size;
+                this.minX[i] = this.minX[last];
+                this.minY[i] = this.minY[last];
+                this.maxX[i] = this.maxX[last];
+                this.maxY[i] = this.maxY[last];
+                this.items[i] = this.items[last];
+                this.items[last] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the collidables, keeping the arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(this.items, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Gets the number of collidables.
+     *
+     * @return the number of collidables
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the collidable at the given place.
+     *
+     * @param i the place, from 0 to size() - 1
+     * @return the collidable
+     */
+    public IndexedCollidable get(int i) {
+        return this.items[i];
+    }
+
+    /**
+     * Gets the collidables. Only the first size() entries are in use.
+     *
+     * @return the array of collidables
+     */
+    public IndexedCollidable[] getItems() {
+        return this.items;
+    }
+
+    /**
+     * Gets the minimum x of the rectangles. Only the first size() entries
+     * are in use.
+     *
+     * @return the array of minimum x coordinates
+     */
+    public double[] getMinX() {
+        return this.minX;
+    }
+
+    /**
+     * Gets the minimum y of the rectangles. Only the first size() entries
+     * are in use.
+     *
+     * @return the array of minimum y coordinates
+     */
+    public double[] getMinY() {
+        return this.minY;
+    }
+
+    /**
+     * Gets the maximum x of the rectangles. Only the first size() entries
+     * are in use.
+     *
+     * @return the array of maximum x coordinates
+     */
+    public double[] getMaxX() {
+        return this.maxX;
+    }
+
+    /**
+     * Gets the maximum y of the rectangles. Only the first size() entries
+     * are in use.
+     *
+     * @return the array of maximum y coordinates
+     */
+    public double[] getMaxY() {
+        return this.maxY;
+    }
+}
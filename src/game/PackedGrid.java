@@ -0,0 +1,232 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The PackedGrid class holds the static collidables of the cells of a
+ * spatial grid in one compact block of memory, instead of a list per cell.
+ * The bounds and the collidables of all the cells are packed one cell after
+ * the other into a single set of parallel arrays, and every cell is a range
+ * of these arrays, found by the start of the cell and of the next cell.
+ * The grid is packed once, when the static collidables of a level are all
+ * in place, and never grows afterwards. Removing a collidable only marks
+ * its places in the cells it is stored in as removed, by giving them
+ * bounds no trajectory touches, so a removal costs as much as the number of
+ * cells of the collidable. Once more places are removed than are left, the
+ * removed places are dropped in one pass.
+ */
+public class PackedGrid {
+    // The bounds of a removed place, far away from any trajectory
+    private static final double REMOVED = Double.NEGATIVE_INFINITY;
+    private int cols;
+    // The start of every cell in the arrays, and the end of the last cell
+    private int[] cellStarts;
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+    private IndexedCollidable[] items;
+    private int removed;
+
+    /**
+     * Instantiates a new Packed grid from the collidables of a packed grid
+     * and of the cells of a grid. Every cell of the new grid holds the
+     * places left in the cell of the packed grid, and then the collidables
+     * of the cell of the grid.
+     *
+     * @param previous the packed grid to take the collidables from, or null
+     * @param cells    the cells of the grid, row by row
+     * @param cols     the number of columns of the grid
+     */
+    public PackedGrid(PackedGrid previous, List<PackedBounds> cells, int cols) {
+        this.cols = cols;
+        this.cellStarts = new int[cells.size() + 1];
+        int total = 0;
+        for (int cell = 0; cell < cells.size(); cell++) {
+            this.cellStarts[cell] = total;
+            total += cells.get(cell).size();
+            if (previous != null) {
+                total += previous.liveCount(cell);
+            }
+        }
+        this.cellStarts[cells.size()] = total;
+        this.minX = new double[total];
+        this.minY = new double[total];
+        this.maxX = new double[total];
+        this.maxY = new double[total];
+        this.items = new IndexedCollidable[total];
+        this.removed = 0;
+        for (int cell = 0; cell < cells.size(); cell++) {
+            int at = this.cellStarts[cell];
+            if (previous != null) {
+                for (int i = previous.start(cell); i < previous.end(cell); i++) {
+                    if (previous.items[i] != null) {
+                        this.put(at++, previous.minX[i], previous.minY[i],
+                                previous.maxX[i], previous.maxY[i], previous.items[i]);
+                    }
+                }
+            }
+            PackedBounds bounds = cells.get(cell);
+            for (int i = 0; i < bounds.size(); i++) {
+                this.put(at++, bounds.getMinX()[i], bounds.getMinY()[i],
+                        bounds.getMaxX()[i], bounds.getMaxY()[i], bounds.get(i));
+            }
+        }
+    }
+
+    /**
+     * Writes a place of the arrays.
+     *
+     * @param at    the place
+     * @param x0    the minimum x of the box
+     * @param y0    the minimum y of the box
+     * @param x1    the maximum x of the box
+     * @param y1    the maximum y of the box
+     * @param entry the collidable
+     */
+    private void put(int at, double x0, double y0, double x1, double y1,
+                     IndexedCollidable entry) {
+        this.minX[at] = x0;
+        this.minY[at] = y0;
+        this.maxX[at] = x1;
+        this.maxY[at] = y1;
+        this.items[at] = entry;
+    }
+
+    /**
+     * Counts the places of a cell that were not removed.
+     *
+     * @param cell the cell
+     * @return the number of collidables left in the cell
+     */
+    private int liveCount(int cell) {
+        int count = 0;
+        for (int i = this.start(cell); i < this.end(cell); i++) {
+            if (this.items[i] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes a collidable from all the cells it is stored in, by marking
+     * its places as removed.
+     *
+     * @param entry the collidable to remove
+     * @return true if the collidable was in the packed grid, false otherwise
+     */
+    public boolean remove(IndexedCollidable entry) {
+        boolean found = false;
+        for (int row = entry.getMinRow(); row <= entry.getMaxRow(); row++) {
+            for (int col = entry.getMinCol(); col <= entry.getMaxCol(); col++) {
+                int cell = row * this.cols + col;
+                for (int i = this.start(cell); i < this.end(cell); i++) {
+                    if (this.items[i] == entry) {
+                        this.put(i, REMOVED, REMOVED, REMOVED, REMOVED, null);
+                        this.removed++;
+                        found = true;
+                        break;
+                    }
+                }
+            }
+        }
+        if (this.removed > this.items.length - this.removed) {
+            this.compact();
+        }
+        return found;
+    }
+
+    /**
+     * Drops the removed places, moving the places left in every cell to the
+     * front of the cell.
+     */
+    private void compact() {
+        int at = 0;
+        int from = 0;
+        for (int cell = 0; cell < this.cellStarts.length - 1; cell++) {
+            int to = this.cellStarts[cell + 1];
+            this.cellStarts[cell] = at;
+            for (int i = from; i < to; i++) {
+                if (this.items[i] != null) {
+                    this.put(at++, this.minX[i], this.minY[i], this.maxX[i], this.maxY[i],
+                            this.items[i]);
+                }
+            }
+            from = to;
+        }
+        this.cellStarts[this.cellStarts.length - 1] = at;
+        this.minX = Arrays.copyOf(this.minX, at);
+        this.minY = Arrays.copyOf(this.minY, at);
+        this.maxX = Arrays.copyOf(this.maxX, at);
+        this.maxY = Arrays.copyOf(this.maxY, at);
+        this.items = Arrays.copyOf(this.items, at);
+        this.removed = 0;
+    }
+
+    /**
+     * Gets the start of a cell in the arrays.
+     *
+     * @param cell the cell
+     * @return the first place of the cell
+     */
+    public int start(int cell) {
+        return this.cellStarts[cell];
+    }
+
+    /**
+     * Gets the end of a cell in the arrays.
+     *
+     * @param cell the cell
+     * @return the place after the last place of the cell
+     */
+    public int end(int cell) {
+        return this.cellStarts[cell + 1];
+    }
+
+    /**
+     * Gets the minimum x of the boxes of all the cells.
+     *
+     * @return the array of minimum x coordinates
+     */
+    public double[] getMinX() {
+        return this.minX;
+    }
+
+    /**
+     * Gets the minimum y of the boxes of all the cells.
+     *
+     * @return the array of minimum y coordinates
+     */
+    public double[] getMinY() {
+        return this.minY;
+    }
+
+    /**
+     * Gets the maximum x of the boxes of all the cells.
+     *
+     * @return the array of maximum x coordinates
+     */
+    public double[] getMaxX() {
+        return this.maxX;
+    }
+
+    /**
+     * Gets the maximum y of the boxes of all the cells.
+     *
+     * @return the array of maximum y coordinates
+     */
+    public double[] getMaxY() {
+        return this.maxY;
+    }
+
+    /**
+     * Gets the collidables of all the cells. A removed place holds null.
+     *
+     * @return the array of collidables
+     */
+    public IndexedCollidable[] getItems() {
+        return this.items;
+    }
+}
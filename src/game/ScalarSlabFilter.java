@@ -0,0 +1,98 @@
+package game;
+
+/**
+ * The ScalarSlabFilter class tests the segment against one box at a time.
+ * It works on every JVM, and is the fallback when the Vector API is not
+ * available.
+ */
+public class ScalarSlabFilter implements SlabFilter {
+
+    /**
+     * Writes the places of the boxes in the given range the segment
+     * touches into the given array, testing the boxes one by one.
+     *
+     * @param minX the minimum x of every box
+     * @param minY the minimum y of every box
+     * @param maxX the maximum x of every box
+     * @param maxY the maximum y of every box
+     * @param from the first box of the range, inclusive
+     * @param to   the last box of the range, exclusive
+     * @param x0   the x coordinate of the start of the segment
+     * @param y0   the y coordinate of the start of the segment
+     * @param x1   the x coordinate of the end of the segment
+     * @param y1   the y coordinate of the end of the segment
+     * @param grow how much to grow every box on every side
+     * @param out  the array the places are written to, at least as long
+     *             as the range
+     * @return the number of places written
+     */
+    @Override
+    public int filter(double[] minX, double[] minY, double[] maxX, double[] maxY, int from,
+                      int to, double x0, double y0, double x1, double y1, double grow,
+                      int[] out) {
+        return this.filterRange(minX, minY, maxX, maxY, from, to, x0, y0, x1, y1, grow, out, 0);
+    }
+
+    /**
+     * Appends the places of the boxes in the given range the segment
+     * touches to the given array, testing the boxes one by one.
+     *
+     * @param minX  the minimum x of every box
+     * @param minY  the minimum y of every box
+     * @param maxX  the maximum x of every box
+     * @param maxY  the maximum y of every box
+     * @param from  the first box of the range, inclusive
+     * @param to    the last box of the range, exclusive
+     * @param x0    the x coordinate of the start of the segment
+     * @param y0    the y coordinate of the start of the segment
+     * @param x1    the x coordinate of the end of the segment
+     * @param y1    the y coordinate of the end of the segment
+     * @param grow  how much to grow every box on every side
+     * @param out   the array the places are written to
+     * @param found the number of places already written to the array
+     * @return the number of places in the array after the range was tested
+     */
+    public int filterRange(double[] minX, double[] minY, double[] maxX, double[] maxY,
+                           int from, int to, double x0, double y0, double x1, double y1,
+                           double grow, int[] out, int found) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        /* Dividing by the direction once, instead of for every box. An axis
+        the segment does not move along is tested as a range instead */
+        double invDx = dx != 0 ? 1 / dx : 0;
+        double invDy = dy != 0 ? 1 / dy : 0;
+        int written = found;
+        for (int i = from; i < to; i++) {
+            double enter = 0;
+            double exit = 1;
+            double low = minX[i] - grow;
+            double high = maxX[i] + grow;
+            if (dx == 0) {
+                if (x0 < low || x0 > high) {
+                    continue;
+                }
+            } else {
+                double t1 = (low - x0) * invDx;
+                double t2 = (high - x0) * invDx;
+                enter = Math.max(enter, Math.min(t1, t2));
+                exit = Math.min(exit, Math.max(t1, t2));
+            }
+            low = minY[i] - grow;
+            high = maxY[i] + grow;
+            if (dy == 0) {
+                if (y0 < low || y0 > high) {
+                    continue;
+                }
+            } else {
+                double t1 = (low - y0) * invDy;
+                double t2 = (high - y0) * invDy;
+                enter = Math.max(enter, Math.min(t1, t2));
+                exit = Math.min(exit, Math.max(t1, t2));
+            }
+            if (enter <= exit) {
+                out[written++] = i;
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,35 @@
+package game;
+
+/**
+ * The SlabFilter interface represents a batched test of one segment against
+ * many packed axis-aligned boxes, using the slab method.
+ * It is a conservative filter in front of the exact collision tests: it
+ * keeps every box the segment touches once the box is grown by the given
+ * amount on every side, and may keep a few boxes the exact test rejects,
+ * such as boxes the segment only passes near the corner of.
+ */
+public interface SlabFilter {
+
+    /**
+     * Writes the places of the boxes in the given range that the segment
+     * from (x0, y0) to (x1, y1) touches, once grown by the given amount,
+     * into the given array, in increasing order.
+     *
+     * @param minX the minimum x of every box
+     * @param minY the minimum y of every box
+     * @param maxX the maximum x of every box
+     * @param maxY the maximum y of every box
+     * @param from the first box of the range, inclusive
+     * @param to   the last box of the range, exclusive
+     * @param x0   the x coordinate of the start of the segment
+     * @param y0   the y coordinate of the start of the segment
+     * @param x1   the x coordinate of the end of the segment
+     * @param y1   the y coordinate of the end of the segment
+     * @param grow how much to grow every box on every side
+     * @param out  the array the places are written to, at least as long
+     *             as the range
+     * @return the number of places written
+     */
+    int filter(double[] minX, double[] minY, double[] maxX, double[] maxY, int from, int to,
+               double x0, double y0, double x1, double y1, double grow, int[] out);
+}
@@ -0,0 +1,66 @@
+package game;
+
+/**
+ * The SlabFilters class chooses the slab filter the game environment uses.
+ * The Vector API is still an incubator module, so the vector filter lives
+ * in its own source folder, `vector`, which is only compiled with the
+ * module added, and it only runs when the JVM was started with
+ * `--add-modules jdk.incubator.vector`. Otherwise the scalar filter is used.
+ */
+public final class SlabFilters {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_FILTER = "game.VectorSlabFilter";
+    private static final SlabFilter SCALAR = new ScalarSlabFilter();
+    private static final SlabFilter VECTOR = loadVector();
+
+    /**
+     * Not instantiable.
+     */
+    private SlabFilters() {
+    }
+
+    /**
+     * Loads the vector filter, if both the Vector API module and the
+     * compiled filter are available.
+     *
+     * @return the vector filter, or null if it is not available
+     */
+    private static SlabFilter loadVector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (SlabFilter) Class.forName(VECTOR_FILTER).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the scalar filter.
+     *
+     * @return the scalar filter
+     */
+    public static SlabFilter scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Gets the vector filter.
+     *
+     * @return the vector filter, or null if it is not available
+     */
+    public static SlabFilter vector() {
+        return VECTOR;
+    }
+
+    /**
+     * Gets the fastest filter available: the vector filter if it is
+     * available, and the scalar filter otherwise.
+     *
+     * @return the filter
+     */
+    public static SlabFilter best() {
+        return VECTOR != null ? VECTOR : SCALAR;
+    }
+}
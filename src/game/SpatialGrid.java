@@ -0,0 +1,349 @@
+package game;
+
+import geometry.Line;
+import geometry.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SpatialGrid class is a uniform grid over the game area, used by the
+ * game environment to find the collidables near a trajectory without
+ * checking all of them.
+ * Every collidable is stored in each cell its collision rectangle overlaps.
+ * A trajectory query walks only the cells the trajectory passes through.
+ * Coordinates outside the grid are clamped to the border cells, so objects
+ * outside the game area are still found, just less efficiently.
+ * The bounds of the collidables of every cell are packed into arrays, and a
+ * slab filter tests the trajectory against a whole cell in one batch before
+ * the exact tests run.
+ * Once the static collidables of a level are in place, pack() moves them
+ * into a packed grid, which keeps all the cells in one compact block of
+ * memory. Collidables inserted afterwards are kept in the cells as before.
+ */
+public class SpatialGrid {
+    // How far each rectangle is grown before binning, so touching edges count
+    private static final double EPSILON = 0.001;
+    private double cellSize;
+    private int cols;
+    private int rows;
+    private List<PackedBounds> cells;
+    private PackedGrid packed;
+    private SlabFilter filter;
+
+    /**
+     * Instantiates a new Spatial grid covering the area from (0, 0) to
+     * (width, height).
+     *
+     * @param width    the width of the covered area
+     * @param height   the height of the covered area
+     * @param cellSize the width and height of a single cell
+     */
+    public SpatialGrid(double width, double height, double cellSize) {
+        this(width, height, cellSize, SlabFilters.best());
+    }
+
+    /**
+     * Instantiates a new Spatial grid covering the area from (0, 0) to
+     * (width, height), that filters the cells with the given slab filter.
+     *
+     * @param width    the width of the covered area
+     * @param height   the height of the covered area
+     * @param cellSize the width and height of a single cell
+     * @param filter   the slab filter to test the cells with
+     */
+    public SpatialGrid(double width, double height, double cellSize, SlabFilter filter) {
+        this.filter = filter;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new ArrayList<>(this.cols * this.rows);
+        for (int i = 0; i < this.cols * this.rows; i++) {
+            this.cells.add(new PackedBounds());
+        }
+    }
+
+    /**
+     * Counts the cells the given rectangle would be stored in.
+     *
+     * @param rect the rectangle
+     * @return the number of cells the rectangle overlaps
+     */
+    public int cellCount(Rectangle rect) {
+        int width = colOf(rect.getMaxX() + EPSILON)
+                - colOf(rect.getUpperLeft().getX() - EPSILON) + 1;
+        int height = rowOf(rect.getMaxY() + EPSILON)
+                - rowOf(rect.getUpperLeft().getY() - EPSILON) + 1;
+        return width * height;
+    }
+
+    /**
+     * Stores the given collidable in every cell its rectangle overlaps.
+     *
+     * @param entry the collidable to store
+     */
+    public void insert(IndexedCollidable entry) {
+        Rectangle rect = entry.getCollidable().getCollisionRectangle();
+        entry.setCells(colOf(rect.getUpperLeft().getX() - EPSILON),
+                colOf(rect.getMaxX() + EPSILON),
+                rowOf(rect.getUpperLeft().getY() - EPSILON),
+                rowOf(rect.getMaxY() + EPSILON));
+        for (int row = entry.getMinRow(); row <= entry.getMaxRow(); row++) {
+            for (int col = entry.getMinCol(); col <= entry.getMaxCol(); col++) {
+                this.cells.get(row * this.cols + col).add(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes the given collidable from all the cells it was stored in.
+     *
+     * @param entry the collidable to remove
+     */
+    public void remove(IndexedCollidable entry) {
+        if (this.packed != null && this.packed.remove(entry)) {
+            return;
+        }
+        for (int row = entry.getMinRow(); row <= entry.getMaxRow(); row++) {
+            for (int col = entry.getMinCol(); col <= entry.getMaxCol(); col++) {
+                this.cells.get(row * this.cols + col).remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Moves all the collidables stored in the cells into the packed grid,
+     * together with the ones that are already packed.
+     */
+    public void pack() {
+        this.packed = new PackedGrid(this.packed, this.cells, this.cols);
+        for (int i = 0; i < this.cells.size(); i++) {
+            this.cells.set(i, new PackedBounds());
+        }
+    }
+
+    /**
+     * Adds every collidable whose rectangle overlaps the given region to
+     * the given packed bounds, once, even if it is stored in many cells of
+     * the region.
+     *
+     * @param minX the minimum x of the region
+     * @param minY the minimum y of the region
+     * @param maxX the maximum x of the region
+     * @param maxY the maximum y of the region
+     * @param out  the packed bounds to add the collidables to
+     */
+    public void collect(double minX, double minY, double maxX, double maxY, PackedBounds out) {
+        int firstCol = colOf(minX);
+        int lastCol = colOf(maxX);
+        int firstRow = rowOf(minY);
+        int lastRow = rowOf(maxY);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int index = row * this.cols + col;
+                if (this.packed != null) {
+                    collectRange(this.packed.getMinX(), this.packed.getMinY(),
+                            this.packed.getMaxX(), this.packed.getMaxY(), this.packed.getItems(),
+                            this.packed.start(index), this.packed.end(index),
+                            firstCol, firstRow, col, row, minX, minY, maxX, maxY, out);
+                }
+                PackedBounds cell = this.cells.get(index);
+                collectRange(cell.getMinX(), cell.getMinY(), cell.getMaxX(), cell.getMaxY(),
+                        cell.getItems(), 0, cell.size(),
+                        firstCol, firstRow, col, row, minX, minY, maxX, maxY, out);
+            }
+        }
+    }
+
+    /**
+     * Adds the collidables of a range of packed boxes of a cell that overlap
+     * the given region to the given packed bounds, if the cell is the first
+     * cell of the region they are stored in.
+     *
+     * @param boxMinX  the minimum x of every box
+     * @param boxMinY  the minimum y of every box
+     * @param boxMaxX  the maximum x of every box
+     * @param boxMaxY  the maximum y of every box
+     * @param items    the collidable of every box, null if it was removed
+     * @param from     the first box of the range, inclusive
+     * @param to       the last box of the range, exclusive
+     * @param firstCol the first column of the region
+     * @param firstRow the first row of the region
+     * @param col      the column of the cell
+     * @param row      the row of the cell
+     * @param minX     the minimum x of the region
+     * @param minY     the minimum y of the region
+     * @param maxX     the maximum x of the region
+     * @param maxY     the maximum y of the region
+     * @param out      the packed bounds to add the collidables to
+     */
+    private static void collectRange(double[] boxMinX, double[] boxMinY, double[] boxMaxX,
+                                     double[] boxMaxY, IndexedCollidable[] items, int from,
+                                     int to, int firstCol, int firstRow, int col, int row,
+                                     double minX, double minY, double maxX, double maxY,
+                                     PackedBounds out) {
+        for (int i = from; i < to; i++) {
+            IndexedCollidable entry = items[i];
+            // Only the first cell of the region a collidable is in adds it
+            if (entry == null || col != Math.max(firstCol, entry.getMinCol())
+                    || row != Math.max(firstRow, entry.getMinRow())) {
+                continue;
+            }
+            // The border cells also hold collidables far outside the region
+            if (boxMaxX[i] + EPSILON < minX || boxMinX[i] - EPSILON > maxX
+                    || boxMaxY[i] + EPSILON < minY || boxMinY[i] - EPSILON > maxY) {
+                continue;
+            }
+            out.add(entry);
+        }
+    }
+
+    /**
+     * Gets the slab filter the cells are tested with.
+     *
+     * @return the slab filter
+     */
+    public SlabFilter getFilter() {
+        return this.filter;
+    }
+
+    /**
+     * Offers every collidable stored in the cells the trajectory passes
+     * through to the given closest collision.
+     * For a point, the cells are walked in order from the start of the
+     * trajectory to its end (Amanatides-Woo traversal). For a circle, every
+     * cell within the radius of the trajectory is visited, row by row.
+     *
+     * @param trajectory the trajectory
+     * @param closest    the closest collision to offer the candidates to
+     */
+    public void query(Line trajectory, ClosestCollision closest) {
+        double x0 = trajectory.start().getX();
+        double y0 = trajectory.start().getY();
+        double x1 = trajectory.end().getX();
+        double y1 = trajectory.end().getY();
+        if (closest.getRadius() > 0) {
+            queryRows(x0, y0, x1, y1, closest.getRadius(), closest);
+            return;
+        }
+        int col = colOf(x0);
+        int row = rowOf(y0);
+        int endCol = colOf(x1);
+        int endRow = rowOf(y1);
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        int stepCol = dx > 0 ? 1 : -1;
+        int stepRow = dy > 0 ? 1 : -1;
+
+        /* The parametric distance along the trajectory to the next vertical
+        and horizontal cell borders, and between two consecutive borders */
+        double nextBorderX = (dx > 0 ? col + 1 : col) * this.cellSize;
+        double nextBorderY = (dy > 0 ? row + 1 : row) * this.cellSize;
+        double tMaxX = dx != 0 ? (nextBorderX - x0) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy != 0 ? (nextBorderY - y0) / dy : Double.POSITIVE_INFINITY;
+        double tDeltaX = dx != 0 ? this.cellSize / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? this.cellSize / Math.abs(dy) : Double.POSITIVE_INFINITY;
+
+        // Every step moves one cell, so the walk takes a known number of steps
+        int steps = Math.abs(endCol - col) + Math.abs(endRow - row);
+        offerCell(col, row, closest);
+        for (int i = 0; i < steps; i++) {
+            /* Never step past the last column or row, even if rounding
+            errors point the other way */
+            if (row == endRow || (col != endCol && tMaxX < tMaxY)) {
+                col += stepCol;
+                tMaxX += tDeltaX;
+            } else {
+                row += stepRow;
+                tMaxY += tDeltaY;
+            }
+            offerCell(col, row, closest);
+        }
+    }
+
+    /**
+     * Offers every collidable stored in the cells within the given radius of
+     * the segment from (x0, y0) to (x1, y1). For every row, only the part of
+     * the segment that is within the radius of the row is considered, so a
+     * long diagonal segment does not visit its whole bounding box.
+     *
+     * @param x0      the x coordinate of the start of the segment
+     * @param y0      the y coordinate of the start of the segment
+     * @param x1      the x coordinate of the end of the segment
+     * @param y1      the y coordinate of the end of the segment
+     * @param radius  the radius around the segment
+     * @param closest the closest collision to offer the candidates to
+     */
+    private void queryRows(double x0, double y0, double x1, double y1, double radius,
+                           ClosestCollision closest) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        int firstRow = rowOf(Math.min(y0, y1) - radius);
+        int lastRow = rowOf(Math.max(y0, y1) + radius);
+        for (int row = firstRow; row <= lastRow; row++) {
+            // The border rows also hold everything beyond the grid
+            double low = row == 0 ? Double.NEGATIVE_INFINITY : row * this.cellSize - radius;
+            double high = row == this.rows - 1
+                    ? Double.POSITIVE_INFINITY : (row + 1) * this.cellSize + radius;
+            // The part of the segment within the radius of this row
+            double enter = 0;
+            double exit = 1;
+            if (dy != 0) {
+                double t1 = (low - y0) / dy;
+                double t2 = (high - y0) / dy;
+                enter = Math.max(0, Math.min(t1, t2));
+                exit = Math.min(1, Math.max(t1, t2));
+            } else if (y0 < low || y0 > high) {
+                continue;
+            }
+            if (enter > exit) {
+                continue;
+            }
+            double enterX = x0 + enter * dx;
+            double exitX = x0 + exit * dx;
+            int lastCol = colOf(Math.max(enterX, exitX) + radius);
+            for (int col = colOf(Math.min(enterX, exitX) - radius); col <= lastCol; col++) {
+                offerCell(col, row, closest);
+            }
+        }
+    }
+
+    /**
+     * Offers the collidables of the given cell that pass the slab filter to
+     * the closest collision.
+     *
+     * @param col     the cell column
+     * @param row     the cell row
+     * @param closest the closest collision to offer the candidates to
+     */
+    private void offerCell(int col, int row, ClosestCollision closest) {
+        int index = row * this.cols + col;
+        if (this.packed != null) {
+            closest.offerRange(this.packed.getMinX(), this.packed.getMinY(),
+                    this.packed.getMaxX(), this.packed.getMaxY(), this.packed.getItems(),
+                    this.packed.start(index), this.packed.end(index), this.filter);
+        }
+        closest.offerAll(this.cells.get(index), this.filter);
+    }
+
+    /**
+     * Returns the column of the given x coordinate, clamped to the grid.
+     *
+     * @param x the x coordinate
+     * @return the column index
+     */
+    private int colOf(double x) {
+        int col = (int) Math.floor(x / this.cellSize);
+        return Math.max(0, Math.min(this.cols - 1, col));
+    }
+
+    /**
+     * Returns the row of the given y coordinate, clamped to the grid.
+     *
+     * @param y the y coordinate
+     * @return the row index
+     */
+    private int rowOf(double y) {
+        int row = (int) Math.floor(y / this.cellSize);
+        return Math.max(0, Math.min(this.rows - 1, row));
+    }
+}
@@ -1,43 +1,191 @@
-
 package game;
 
+import animation.BatchingDrawSurface;
 import core.Sprite;
-import java.util.ArrayList;
-import java.util.List;
+import geometry.DirtyRegions;
+import geometry.Rectangle;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import biuoop.DrawSurface;
 
 /**
  * The SpriteCollection class represents a collection of sprites.
- * It allows adding and removing sprites, and calling timePassed()
+ * It allows adding and removing sprites, and calling timePassed(dt)
  * and drawOn(d) on all sprites in the collection.
+ * Every sprite is in one of the named layers of the collection, and the
+ * layers are drawn in their z-order, so the background is drawn first and
+ * the HUD last whatever order the sprites were added in. A layer can also be
+ * drawn on its own, and its version tells when its sprites changed, so it
+ * can be cached.
+ * The sprites are kept in a slot map: a dense array per layer that is
+ * iterated over, and a table of slots that maps a stable handle to a place
+ * in the array of its layer. A sprite is removed in constant time by moving
+ * the last sprite of its layer into its place, so the order of the sprites
+ * in a layer is not kept after a removal.
+ * Sprites added or removed while the collection is being iterated over are
+ * buffered, and the changes are applied when the iteration ends. A sprite
+ * removed during an iteration is not called again in that iteration.
+ * When batching is on, the sprites of the batched layers are drawn through
+ * a batching surface, that sets every color once per layer instead of once
+ * per shape.
+ * The collection also gathers the regions of the screen that changed from
+ * one frame to the next, from the regions its sprites report, so only those
+ * regions have to be drawn again.
  */
 public class SpriteCollection {
-    private List<Sprite> sprites;
+    private static final int INITIAL_CAPACITY = 64;
+    // The number of bits of a handle that hold the slot
+    private static final int SLOT_BITS = 32;
+    private static final long SLOT_MASK = 0xFFFFFFFFL;
+    // The layers, in the order they are iterated over
+    private SpriteLayer[] layers;
+    // The dense array of sprites of every layer, iterated over in order
+    private Sprite[][] sprites;
+    private int[][] denseToSlot;
+    private int[] sizes;
+    // The number of changes made to every layer
+    private long[] versions;
+    /* The slot table: the sprite, its layer, its place in the dense array of
+    its layer, and the generation of every slot */
+    private Sprite[] slotSprites;
+    private int[] slotLayers;
+    private int[] slotToDense;
+    private int[] generations;
+    private int slotCount;
+    private int[] freeSlots;
+    private int freeCount;
+    private Map<Sprite, Integer> slotOf;
+    // The changes made while iterating, applied when the iteration ends
+    private int iterating;
+    private int[] pendingAdds;
+    private int pendingAddCount;
+    private int[][] pendingRemoves;
+    private int[] pendingRemoveCounts;
+    // The regions reported in the last two frames, and the regions invalidated since
+    private DirtyRegions reported;
+    private DirtyRegions previouslyReported;
+    private DirtyRegions invalidated;
+    // The versions of the layers when their changes were last accounted for
+    private long[] reportedVersions;
+    private BatchingDrawSurface batch;
+    private boolean batching;
 
     /**
      * Instantiates a new Sprite collection.
      */
     public SpriteCollection() {
-        // Create a new ArrayList to store the sprites
-        sprites = new ArrayList<>();
+        this.layers = SpriteLayer.inZOrder();
+        int layerCount = this.layers.length;
+        this.sprites = new Sprite[layerCount][INITIAL_CAPACITY];
+        this.denseToSlot = new int[layerCount][INITIAL_CAPACITY];
+        this.sizes = new int[layerCount];
+        this.versions = new long[layerCount];
+        this.slotSprites = new Sprite[INITIAL_CAPACITY];
+        this.slotLayers = new int[INITIAL_CAPACITY];
+        this.slotToDense = new int[INITIAL_CAPACITY];
+        this.generations = new int[INITIAL_CAPACITY];
+        this.slotCount = 0;
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.slotOf = new IdentityHashMap<>();
+        this.iterating = 0;
+        this.pendingAdds = new int[INITIAL_CAPACITY];
+        this.pendingAddCount = 0;
+        this.pendingRemoves = new int[layerCount][INITIAL_CAPACITY];
+        this.pendingRemoveCounts = new int[layerCount];
+        this.reported = new DirtyRegions();
+        this.previouslyReported = new DirtyRegions();
+        this.invalidated = new DirtyRegions();
+        this.reportedVersions = new long[layerCount];
+        this.batch = new BatchingDrawSurface();
+        this.batching = false;
+    }
+
+    /**
+     * Sets whether the sprites of the batched layers are drawn with their
+     * calls sorted by color, or one after the other. Batching is off unless
+     * turned on: it sets fewer colors, but sorting the calls costs more
+     * than it saves when drawing on an image.
+     *
+     * @param batching true to batch the drawing calls
+     */
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+
+    /**
+     * Returns the number of sprites in the collection, not counting the
+     * changes that are waiting for the current iteration to end.
+     *
+     * @return the number of sprites
+     */
+    public int size() {
+        int total = 0;
+        for (int size : this.sizes) {
+            total += size;
+        }
+        return total;
     }
 
     /**
-     * Returns the list of sprites in the collection.
+     * Returns the number of sprites in the given layer, not counting the
+     * changes that are waiting for the current iteration to end.
      *
-     * @return the list of sprites
+     * @param layer the layer
+     * @return the number of sprites in the layer
      */
-    public List<Sprite> getSprites() {
-        return this.sprites;
+    public int size(SpriteLayer layer) {
+        return this.sizes[layer.ordinal()];
     }
 
     /**
-     * Adds the given sprite to the collection.
+     * Gets the version of the given layer, which changes whenever a sprite
+     * is added to the layer or removed from it. A cached drawing of the
+     * layer is up to date as long as the version stays the same, and its
+     * sprites do not change the way they look.
+     *
+     * @param layer the layer
+     * @return the version of the layer
+     */
+    public long getVersion(SpriteLayer layer) {
+        return this.versions[layer.ordinal()];
+    }
+
+    /**
+     * Adds the given sprite to the world layer of the collection.
+     * A sprite that is already in the collection is not added again.
      *
      * @param s the sprite to add
+     * @return the handle of the sprite, which stays valid until it is removed
+     */
+    public long addSprite(Sprite s) {
+        return this.addSprite(s, SpriteLayer.WORLD);
+    }
+
+    /**
+     * Adds the given sprite to the given layer of the collection.
+     * A sprite that is already in the collection is not added again, and
+     * stays in its layer.
+     *
+     * @param s     the sprite to add
+     * @param layer the layer to draw the sprite in
+     * @return the handle of the sprite, which stays valid until it is removed
      */
-    public void addSprite(Sprite s) {
-        sprites.add(s);
+    public long addSprite(Sprite s, SpriteLayer layer) {
+        Integer existing = this.slotOf.get(s);
+        if (existing != null) {
+            return handle(existing);
+        }
+        int slot = this.allocateSlot(s, layer.ordinal());
+        this.versions[layer.ordinal()]++;
+        if (this.iterating > 0) {
+            this.pendingAdds = ensureCapacity(this.pendingAdds, this.pendingAddCount + 1);
+            this.pendingAdds[this.pendingAddCount++] = slot;
+        } else {
+            this.append(slot);
+        }
+        return handle(slot);
     }
 
     /**
@@ -46,29 +194,366 @@ public class SpriteCollection {
      * @param s the sprite to remove
      */
     public void removeSprite(Sprite s) {
-        sprites.remove(s);
+        Integer slot = this.slotOf.get(s);
+        if (slot != null) {
+            this.removeSlot(slot);
+        }
+    }
+
+    /**
+     * Removes the sprite with the given handle from the game. Handles of
+     * sprites that were already removed are ignored.
+     *
+     * @param handle the handle of the sprite to remove
+     */
+    public void removeSprite(long handle) {
+        int slot = (int) (handle & SLOT_MASK);
+        if (this.isValid(handle)) {
+            this.removeSlot(slot);
+        }
+    }
+
+    /**
+     * Gets the sprite with the given handle.
+     *
+     * @param handle the handle of the sprite
+     * @return the sprite, or null if it was removed
+     */
+    public Sprite getSprite(long handle) {
+        if (!this.isValid(handle)) {
+            return null;
+        }
+        return this.slotSprites[(int) (handle & SLOT_MASK)];
     }
 
     /**
      * Notify all time passed.
-     * Calls timePassed() on all sprites in the collection.
+     * Calls timePassed(dt) on all sprites in the collection, layer by layer
+     * in z-order.
+     *
+     * @param dt the time that passed, in seconds
      */
-    public void notifyAllTimePassed() {
-        for (int i = 0; i < sprites.size(); i++) {
-            if (sprites.get(i) != null) {
-                sprites.get(i).timePassed();
+    public void notifyAllTimePassed(double dt) {
+        this.iterating++;
+        try {
+            for (SpriteLayer layer : this.layers) {
+                Sprite[] layerSprites = this.sprites[layer.ordinal()];
+                for (int i = 0; i < this.sizes[layer.ordinal()]; i++) {
+                    // Sprites removed during this iteration are left as holes until it ends
+                    Sprite sprite = layerSprites[i];
+                    if (sprite != null) {
+                        sprite.timePassed(dt);
+                    }
+                }
             }
+        } finally {
+            this.endIteration();
         }
     }
 
     /**
-     * Calls drawOn(d) on all sprites in the collection.
+     * Calls drawOn(d) on all sprites in the collection, layer by layer in
+     * z-order.
      *
      * @param d the DrawSurface on which to draw the sprites
      */
     public void drawAllOn(DrawSurface d) {
-        for (Sprite sprite : this.sprites) {
-            sprite.drawOn(d);
+        // The changes made while drawing wait until all the layers are drawn
+        this.iterating++;
+        try {
+            for (SpriteLayer layer : this.layers) {
+                this.drawLayerOn(layer, d);
+            }
+        } finally {
+            this.endIteration();
+        }
+    }
+
+    /**
+     * Draws all the sprites in the collection, layer by layer in z-order,
+     * and draws the layers held by the given cache from the cache instead,
+     * in a single call.
+     *
+     * @param d     the DrawSurface on which to draw the sprites
+     * @param cache the cache of the lowest layers of this collection, or
+     *              null to draw every sprite
+     */
+    public void drawAllOn(DrawSurface d, LayerCache cache) {
+        if (cache == null) {
+            this.drawAllOn(d);
+            return;
+        }
+        this.iterating++;
+        try {
+            cache.drawOn(d);
+            for (SpriteLayer layer : this.layers) {
+                if (!cache.holds(layer)) {
+                    this.drawLayerOn(layer, d);
+                }
+            }
+        } finally {
+            this.endIteration();
+        }
+    }
+
+    /**
+     * Calls drawOn(d) on the sprites of the given layer only. The calls of
+     * a batched layer are sorted by color before they reach the surface.
+     *
+     * @param layer the layer to draw
+     * @param d     the DrawSurface on which to draw the sprites
+     */
+    public void drawLayerOn(SpriteLayer layer, DrawSurface d) {
+        DrawSurface surface = d;
+        if (this.batching && layer.isBatched()) {
+            this.batch.begin(d);
+            surface = this.batch;
+        }
+        this.iterating++;
+        try {
+            Sprite[] layerSprites = this.sprites[layer.ordinal()];
+            for (int i = 0; i < this.sizes[layer.ordinal()]; i++) {
+                Sprite sprite = layerSprites[i];
+                if (sprite != null) {
+                    sprite.drawOn(surface);
+                }
+            }
+        } finally {
+            this.endIteration();
+        }
+        if (surface == this.batch) {
+            this.batch.flush();
+        }
+    }
+
+    /**
+     * Reports that the given region of the screen changed without a sprite
+     * reporting it, such as the region of a sprite that was removed. The
+     * sprites added and removed so far are taken to be inside the region.
+     *
+     * @param region the region that changed
+     */
+    public void invalidate(Rectangle region) {
+        this.invalidated.add(region);
+        System.arraycopy(this.versions, 0, this.reportedVersions, 0, this.versions.length);
+    }
+
+    /**
+     * Gathers the regions of the screen that may have changed since this
+     * method was last called: where every sprite that reports its regions
+     * is drawn now and was drawn then, and the regions that were
+     * invalidated. A sprite that was added or removed without an invalidated
+     * region, or a sprite that does not report its regions, may have changed
+     * anywhere.
+     *
+     * @param regions the regions to add to
+     * @return true if the regions cover everything that changed, false if
+     * the whole screen may have changed
+     */
+    public boolean collectDirtyRegions(DirtyRegions regions) {
+        boolean known = Arrays.equals(this.versions, this.reportedVersions);
+        this.reported.clear();
+        this.iterating++;
+        try {
+            for (SpriteLayer layer : this.layers) {
+                Sprite[] layerSprites = this.sprites[layer.ordinal()];
+                for (int i = 0; i < this.sizes[layer.ordinal()]; i++) {
+                    Sprite sprite = layerSprites[i];
+                    if (sprite != null && !sprite.reportDirtyBounds(this.reported)) {
+                        known = false;
+                    }
+                }
+            }
+        } finally {
+            this.endIteration();
+        }
+        regions.addAll(this.reported);
+        regions.addAll(this.previouslyReported);
+        regions.addAll(this.invalidated);
+        // What is drawn now has to be drawn again after the next change
+        DirtyRegions swap = this.previouslyReported;
+        this.previouslyReported = this.reported;
+        this.reported = swap;
+        this.invalidated.clear();
+        System.arraycopy(this.versions, 0, this.reportedVersions, 0, this.versions.length);
+        return known;
+    }
+
+    /**
+     * Ends an iteration, and applies the buffered changes if it was the
+     * outermost one.
+     */
+    private void endIteration() {
+        this.iterating--;
+        if (this.iterating > 0) {
+            return;
+        }
+        /* Remove the holes of every layer from the back to the front, so the
+        sprite moved into a hole is never a hole itself */
+        for (int layer = 0; layer < this.pendingRemoveCounts.length; layer++) {
+            int count = this.pendingRemoveCounts[layer];
+            if (count > 0) {
+                Arrays.sort(this.pendingRemoves[layer], 0, count);
+                for (int i = count - 1; i >= 0; i--) {
+                    this.swapRemove(layer, this.pendingRemoves[layer][i]);
+                }
+                this.pendingRemoveCounts[layer] = 0;
+            }
+        }
+        for (int i = 0; i < this.pendingAddCount; i++) {
+            int slot = this.pendingAdds[i];
+            // A sprite added and removed in the same iteration has a freed slot
+            if (this.slotToDense[slot] == -1 && this.slotSprites[slot] != null) {
+                this.append(slot);
+            }
+        }
+        this.pendingAddCount = 0;
+    }
+
+    /**
+     * Takes a free slot for the given sprite.
+     *
+     * @param s     the sprite
+     * @param layer the index of the layer of the sprite
+     * @return the slot
+     */
+    private int allocateSlot(Sprite s, int layer) {
+        int slot;
+        if (this.freeCount > 0) {
+            slot = this.freeSlots[--this.freeCount];
+        } else {
+            slot = this.slotCount++;
+            this.slotSprites = ensureCapacity(this.slotSprites, this.slotCount);
+            this.slotLayers = ensureCapacity(this.slotLayers, this.slotCount);
+            this.slotToDense = ensureCapacity(this.slotToDense, this.slotCount);
+            this.generations = ensureCapacity(this.generations, this.slotCount);
+        }
+        this.slotSprites[slot] = s;
+        this.slotLayers[slot] = layer;
+        this.slotToDense[slot] = -1;
+        this.slotOf.put(s, slot);
+        return slot;
+    }
+
+    /**
+     * Appends the sprite of the given slot to the dense array of its layer.
+     *
+     * @param slot the slot
+     */
+    private void append(int slot) {
+        int layer = this.slotLayers[slot];
+        int size = this.sizes[layer];
+        this.sprites[layer] = ensureCapacity(this.sprites[layer], size + 1);
+        this.denseToSlot[layer] = ensureCapacity(this.denseToSlot[layer], size + 1);
+        this.sprites[layer][size] = this.slotSprites[slot];
+        this.denseToSlot[layer][size] = slot;
+        this.slotToDense[slot] = size;
+        this.sizes[layer] = size + 1;
+    }
+
+    /**
+     * Removes the sprite of the given slot, and frees the slot. While
+     * iterating, its place in the dense array is left as a hole that is
+     * removed when the iteration ends.
+     *
+     * @param slot the slot
+     */
+    private void removeSlot(int slot) {
+        Sprite s = this.slotSprites[slot];
+        int layer = this.slotLayers[slot];
+        this.slotOf.remove(s);
+        this.slotSprites[slot] = null;
+        this.versions[layer]++;
+        // Handles of the removed sprite are no longer valid
+        this.generations[slot]++;
+        int dense = this.slotToDense[slot];
+        this.slotToDense[slot] = -1;
+        if (dense != -1) {
+            if (this.iterating > 0) {
+                this.sprites[layer][dense] = null;
+                int count = this.pendingRemoveCounts[layer];
+                this.pendingRemoves[layer] = ensureCapacity(this.pendingRemoves[layer],
+                        count + 1);
+                this.pendingRemoves[layer][count] = dense;
+                this.pendingRemoveCounts[layer] = count + 1;
+            } else {
+                this.swapRemove(layer, dense);
+            }
+        }
+        this.freeSlots = ensureCapacity(this.freeSlots, this.freeCount + 1);
+        this.freeSlots[this.freeCount++] = slot;
+    }
+
+    /**
+     * Removes the given place of the dense array of a layer by moving the
+     * last sprite of the layer into it.
+     *
+     * @param layer the index of the layer
+     * @param dense the place to remove
+     */
+    private void swapRemove(int layer, int dense) {
+        Sprite[] layerSprites = this.sprites[layer];
+        int[] layerSlots = this.denseToSlot[layer];
+        int last = this.sizes[layer] - 1;
+        if (dense != last) {
+            layerSprites[dense] = layerSprites[last];
+            layerSlots[dense] = layerSlots[last];
+            this.slotToDense[layerSlots[dense]] = dense;
+        }
+        layerSprites[last] = null;
+        this.sizes[layer] = last;
+    }
+
+    /**
+     * Checks whether the given handle belongs to a sprite in the collection.
+     *
+     * @param handle the handle
+     * @return true if the sprite was not removed, false otherwise
+     */
+    private boolean isValid(long handle) {
+        int slot = (int) (handle & SLOT_MASK);
+        int generation = (int) (handle >>> SLOT_BITS);
+        return slot >= 0 && slot < this.slotCount && this.slotSprites[slot] != null
+                && this.generations[slot] == generation;
+    }
+
+    /**
+     * Builds the handle of the given slot from the slot and its generation.
+     *
+     * @param slot the slot
+     * @return the handle
+     */
+    private long handle(int slot) {
+        return ((long) this.generations[slot] << SLOT_BITS) | slot;
+    }
+
+    /**
+     * Returns the given array, or a larger copy of it if it cannot hold the
+     * given number of elements.
+     *
+     * @param array    the array
+     * @param capacity the number of elements it should hold
+     * @return an array that holds at least that many elements
+     */
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        if (capacity <= array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    /**
+     * Returns the given array, or a larger copy of it if it cannot hold the
+     * given number of elements.
+     *
+     * @param array    the array
+     * @param capacity the number of elements it should hold
+     * @return an array that holds at least that many elements
+     */
+    private static Sprite[] ensureCapacity(Sprite[] array, int capacity) {
+        if (capacity <= array.length) {
+            return array;
         }
+        return Arrays.copyOf(array, Math.max(capacity, array.length * 2));
     }
 }
@@ -0,0 +1,99 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The SpriteLayer enum names the layers of a sprite collection. Every
+ * layer has an explicit z-order: the layers are drawn from the lowest
+ * z-order to the highest, so a sprite is drawn over the sprites of the
+ * layers below it.
+ * The background layer holds decoration, that is only drawn and never
+ * collides with anything. The borders layer holds the borders of the screen,
+ * and the static layer holds the other objects of the game that never move
+ * and only change when they are removed, such as the blocks; both can be
+ * drawn once and cached. The world layer holds the objects of the game that
+ * move, and the HUD layer holds the indicators drawn over them.
+ * The sprites of a batched layer may be drawn with their calls sorted by
+ * color, so they must not cover each other: only the blocks of the static
+ * layer. The other layers are drawn in the order their sprites are added,
+ * since their sprites may draw over each other's shapes, like balls that
+ * overlap.
+ */
+public enum SpriteLayer {
+    /**
+     * The decoration drawn behind everything else.
+     */
+    BACKGROUND(0, false),
+    /**
+     * The borders of the screen, which overlap each other at the corners.
+     */
+    BORDERS(25, false),
+    /**
+     * The objects of the game that never move.
+     */
+    STATIC(50, true),
+    /**
+     * The objects of the game that move.
+     */
+    WORLD(100, false),
+    /**
+     * The indicators drawn over the game.
+     */
+    HUD(200, false);
+
+    // The layers, from the lowest z-order to the highest
+    private static final SpriteLayer[] IN_Z_ORDER = sortByZOrder();
+    private final int zOrder;
+    private final boolean batched;
+
+    /**
+     * Instantiates a new Sprite layer.
+     *
+     * @param zOrder  the z-order of the layer
+     * @param batched whether the calls of the layer may be sorted by color
+     */
+    SpriteLayer(int zOrder, boolean batched) {
+        this.zOrder = zOrder;
+        this.batched = batched;
+    }
+
+    /**
+     * Checks whether the drawing calls of the layer may be batched, and
+     * sorted by color.
+     *
+     * @return true if the layer may be batched, false otherwise
+     */
+    public boolean isBatched() {
+        return this.batched;
+    }
+
+    /**
+     * Gets the z-order of the layer.
+     *
+     * @return the z-order, higher layers are drawn later
+     */
+    public int getZOrder() {
+        return this.zOrder;
+    }
+
+    /**
+     * Gets the layers in the order they are drawn in.
+     *
+     * @return a new array of the layers, from the lowest z-order to the highest
+     */
+    public static SpriteLayer[] inZOrder() {
+        return IN_Z_ORDER.clone();
+    }
+
+    /**
+     * Sorts the layers by their z-order.
+     *
+     * @return the sorted layers
+     */
+    private static SpriteLayer[] sortByZOrder() {
+        SpriteLayer[] layers = values();
+        Arrays.sort(layers, Comparator.comparingInt(SpriteLayer::getZOrder));
+        return layers;
+    }
+}
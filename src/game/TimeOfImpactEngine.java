@@ -0,0 +1,238 @@
+package game;
+
+import core.CollisionInfo;
+import core.Collidable;
+import core.Velocity;
+import gameObjects.Ball;
+import gameObjects.Block;
+import geometry.Line;
+import geometry.Point;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The TimeOfImpactEngine class plays the balls of a level by jumping from
+ * one collision to the next, instead of moving them a tick at a time. It is
+ * used to fast-forward a level, for replays and bot evaluation, where only
+ * the outcome matters and nothing is shown.
+ * For every ball, the engine looks ahead along its velocity for the next
+ * collision in the game environment, and keeps the time of impact in a
+ * priority queue. It then takes the earliest event, moves only that ball to
+ * it, lets the collidable bounce the ball, delivers the hit to its
+ * listeners, and looks ahead for that ball again. A ball moves in a
+ * straight line between its events, so its position is only brought up to
+ * date when one of its own events is handled.
+ * Removing a block never makes a collision come sooner, so only the balls
+ * that were about to hit a removed block have to look ahead again. The
+ * engine finds them when their event comes up and its collidable is no
+ * longer in the game.
+ * The engine assumes nothing but the balls moves while it runs: the paddle
+ * stays where it is, since no keys are read.
+ */
+public class TimeOfImpactEngine {
+    // How far ahead the engine looks for a collision, in steps
+    private static final double HORIZON = 600;
+    /* How long a ball that is still pressed against a collidable after a
+    hit waits before looking ahead again, in steps, as if a tick passed */
+    private static final double WAIT = 1;
+    private GameEnvironment environment;
+    private BallSystem balls;
+    private HitEventQueue hitEvents;
+    private PriorityQueue<ImpactEvent> events;
+    // The state of every ball, by its hit id
+    private double[] lastTimes;
+    private int[] versions;
+    private boolean[] waiting;
+    private double now;
+    private long handledEvents;
+
+    /**
+     * Instantiates a new Time of impact engine.
+     *
+     * @param environment the environment the balls collide with
+     * @param balls       the balls to move
+     * @param hitEvents   the queue the hits are recorded in and delivered from
+     */
+    public TimeOfImpactEngine(GameEnvironment environment, BallSystem balls,
+                              HitEventQueue hitEvents) {
+        this.environment = environment;
+        this.balls = balls;
+        this.hitEvents = hitEvents;
+        this.events = new PriorityQueue<>();
+        this.lastTimes = new double[0];
+        this.versions = new int[0];
+        this.waiting = new boolean[0];
+        this.now = 0;
+        this.handledEvents = 0;
+    }
+
+    /**
+     * Plays the balls until the given condition holds, no ball is left, or
+     * the given time passed. The balls are left where they are at the end.
+     *
+     * @param maxSeconds the most time to play, in seconds of game time
+     * @param finished   the condition to stop at, checked after every hit
+     * @return the game time that was played, in seconds
+     */
+    public double run(double maxSeconds, BooleanSupplier finished) {
+        double limit = this.now + maxSeconds * Velocity.STEPS_PER_SECOND;
+        double start = this.now;
+        for (int i = 0; i < this.balls.size(); i++) {
+            this.predict(this.balls.get(i));
+        }
+        while (!finished.getAsBoolean()) {
+            ImpactEvent event = this.events.poll();
+            if (event == null) {
+                break;
+            }
+            Ball ball = event.getBall();
+            if (ball.isRemoved() || event.getVersion() != this.versions[ball.getHitId()]) {
+                continue;
+            }
+            if (event.getTime() > limit) {
+                this.now = limit;
+                break;
+            }
+            this.now = event.getTime();
+            this.handle(event);
+        }
+        // Bring every ball up to date, and forget the events that are left
+        for (int i = 0; i < this.balls.size(); i++) {
+            this.advance(this.balls.get(i));
+        }
+        this.events.clear();
+        return (this.now - start) / Velocity.STEPS_PER_SECOND;
+    }
+
+    /**
+     * Handles an event that is not stale: moves its ball to the event, and
+     * if the ball hits a collidable there, bounces it and delivers the hit.
+     * The ball then looks ahead again.
+     *
+     * @param event the event
+     */
+    private void handle(ImpactEvent event) {
+        this.handledEvents++;
+        Ball ball = event.getBall();
+        this.advance(ball);
+        CollisionInfo collision = event.getCollision();
+        if (collision == null) {
+            this.predict(ball);
+            return;
+        }
+        // The ball was about to hit a collidable that was removed meanwhile
+        Collidable target = collision.collisionObject();
+        if (!this.isInGame(target)) {
+            this.predict(ball);
+            return;
+        }
+        Velocity velocity = target.hit(ball, collision.collisionPoint(), ball.getVelocity());
+        ball.setVelocity(velocity);
+        // The hit may remove blocks and balls, including this one
+        this.hitEvents.drain();
+        if (ball.isRemoved()) {
+            return;
+        }
+        /* A ball that is not moving away from what it hit would hit it again
+        at once, so it waits in place, as it would until the next tick */
+        if (velocity.getDx() * collision.normalX() + velocity.getDy() * collision.normalY() <= 0) {
+            int id = ball.getHitId();
+            this.waiting[id] = true;
+            this.events.add(new ImpactEvent(this.now + WAIT, ball, ++this.versions[id], null));
+            return;
+        }
+        this.predict(ball);
+    }
+
+    /**
+     * Checks whether a collidable can still be hit. A block knows whether
+     * it is in the game, even if its block grid stands for it in the
+     * environment.
+     *
+     * @param target the collidable
+     * @return true if the collidable is still in the game
+     */
+    private boolean isInGame(Collidable target) {
+        if (target instanceof Block) {
+            return ((Block) target).isInGame();
+        }
+        return this.environment.contains(target);
+    }
+
+    /**
+     * Moves the ball from the time it was last brought up to date to the
+     * current time, along its velocity. A waiting ball stays in place.
+     *
+     * @param ball the ball
+     */
+    private void advance(Ball ball) {
+        int id = ball.getHitId();
+        if (id < 0) {
+            return;
+        }
+        this.ensureCapacity(id);
+        double elapsed = this.now - this.lastTimes[id];
+        if (!this.waiting[id] && elapsed > 0) {
+            Point center = ball.getCenter();
+            Velocity velocity = ball.getVelocity();
+            ball.setCenter(new Point(center.getX() + velocity.getDx() * elapsed,
+                    center.getY() + velocity.getDy() * elapsed));
+        }
+        this.lastTimes[id] = this.now;
+        this.waiting[id] = false;
+    }
+
+    /**
+     * Looks ahead along the velocity of the ball for its next collision, and
+     * adds an event at its time of impact, or at the end of the way looked
+     * ahead if there is none. Any earlier event of the ball becomes stale.
+     *
+     * @param ball the ball, which must be up to date
+     */
+    private void predict(Ball ball) {
+        int id = ball.getHitId();
+        if (id < 0) {
+            return;
+        }
+        this.ensureCapacity(id);
+        this.lastTimes[id] = this.now;
+        int version = ++this.versions[id];
+        Velocity velocity = ball.getVelocity();
+        if (velocity.getDx() == 0 && velocity.getDy() == 0) {
+            return;
+        }
+        Point center = ball.getCenter();
+        double x = center.getX();
+        double y = center.getY();
+        CollisionInfo collision = this.environment.getClosestCollision(new Line(x, y,
+                x + velocity.getDx() * HORIZON, y + velocity.getDy() * HORIZON), ball.getSize());
+        double time = collision == null
+                ? HORIZON : Math.max(0, collision.collisionTime()) * HORIZON;
+        this.events.add(new ImpactEvent(this.now + time, ball, version, collision));
+    }
+
+    /**
+     * Grows the state arrays to hold the ball with the given hit id.
+     *
+     * @param id the hit id
+     */
+    private void ensureCapacity(int id) {
+        if (id < this.versions.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, this.versions.length * 2);
+        this.lastTimes = Arrays.copyOf(this.lastTimes, capacity);
+        this.versions = Arrays.copyOf(this.versions, capacity);
+        this.waiting = Arrays.copyOf(this.waiting, capacity);
+    }
+
+    /**
+     * Gets the number of events the engine handled, not counting stale ones.
+     *
+     * @return the number of handled events
+     */
+    public long getHandledEvents() {
+        return this.handledEvents;
+    }
+}
@@ -4,8 +4,11 @@ package gameObjects;
 import core.CollisionInfo;
 import core.Sprite;
 import core.Velocity;
+import game.BallSystem;
+import game.CandidateCache;
 import game.GameLevel;
 import game.GameEnvironment;
+import geometry.DirtyRegions;
 import geometry.Line;
 import geometry.Point;
 import biuoop.DrawSurface;
@@ -18,13 +21,27 @@ import java.awt.Color;
  * It has methods to get and set these properties, and to move the ball
  * according to its velocity. The class also includes a method to draw
  * the ball on a surface.
+ * A ball that was added to a ball system is a view of its place in the
+ * arrays of the system: its position and velocity are read from and
+ * written to the system, which also moves and draws it.
  */
 public class Ball implements Sprite {
+    // How many times the ball may bounce within a single move
+    private static final int MAX_BOUNCES_PER_STEP = 4;
+    /**
+     * The most collidables a ball may hit within a single move.
+     */
+    public static final int MAX_HITS_PER_MOVE = MAX_BOUNCES_PER_STEP + 1;
     private Point center;
     private int radius;
     private Color color;
     private Velocity velocity;
     private GameEnvironment gameEnvironment;
+    private boolean removed;
+    private int hitId;
+    private BallSystem system;
+    private int index;
+    private CandidateCache candidates;
 
 
     /**
@@ -42,6 +59,8 @@ public class Ball implements Sprite {
         this.color = color;
         this.velocity = new Velocity(0, 0);
         this.gameEnvironment = gameEnvironment;
+        this.hitId = -1;
+        this.candidates = new CandidateCache();
     }
 
     /**
@@ -66,6 +85,10 @@ public class Ball implements Sprite {
      * @param p the point to change the ball center to
      */
     public void setCenter(Point p) {
+        if (this.system != null) {
+            this.system.setPosition(this.index, p.getX(), p.getY());
+            return;
+        }
         this.center = p;
     }
 
@@ -77,23 +100,40 @@ public class Ball implements Sprite {
      */
     @Override
     public void drawOn(DrawSurface d) {
+        Point c = this.getCenter();
         // set the color of the ball according to its color
         d.setColor(this.color);
         // draw this ball
-        d.fillCircle((int) this.center.getX(),
-                (int) this.center.getY(), this.radius);
+        d.fillCircle((int) c.getX(),
+                (int) c.getY(), this.radius);
         d.setColor(Color.BLACK);
-        d.drawCircle((int) center.getX(),
-                (int) center.getY(), radius);
+        d.drawCircle((int) c.getX(),
+                (int) c.getY(), radius);
+    }
+
+    /**
+     * Reports where the ball is drawn, since it may have moved.
+     *
+     * @param regions the regions to add to
+     * @return true, since the ball knows its region
+     */
+    @Override
+    public boolean reportDirtyBounds(DirtyRegions regions) {
+        Point c = this.getCenter();
+        regions.addCircle((int) c.getX(), (int) c.getY(), this.radius);
+        return true;
     }
 
     /**
      * Time passed.
-     * For the ball, it should move one step
+     * For the ball, it should move by the part of a step that matches the
+     * time that passed.
+     *
+     * @param dt the time that passed, in seconds
      */
     @Override
-    public void timePassed() {
-        this.moveOneStep();
+    public void timePassed(double dt) {
+        this.moveOneStep(dt * Velocity.STEPS_PER_SECOND);
     }
 
     /**
@@ -102,6 +142,9 @@ public class Ball implements Sprite {
      * @return the center
      */
     public Point getCenter() {
+        if (this.system != null) {
+            return new Point(this.system.getX(this.index), this.system.getY(this.index));
+        }
         return this.center;
     }
 
@@ -111,7 +154,7 @@ public class Ball implements Sprite {
      * @return the x-value of the center point of the ball
      */
     public int getX() {
-        return (int) this.center.getX();
+        return (int) this.getCenter().getX();
     }
 
     /**
@@ -120,7 +163,7 @@ public class Ball implements Sprite {
      * @return the y-value of the center point of the ball
      */
     public int getY() {
-        return (int) this.center.getY();
+        return (int) this.getCenter().getY();
     }
 
     /**
@@ -147,6 +190,10 @@ public class Ball implements Sprite {
      * @param v the new velocity.
      */
     public void setVelocity(Velocity v) {
+        if (this.system != null) {
+            this.system.setVelocity(this.index, v.getDx(), v.getDy());
+            return;
+        }
         this.velocity = v;
     }
 
@@ -157,7 +204,7 @@ public class Ball implements Sprite {
      * @param dy the change in position on the y-axis.
      */
     public void setVelocity(double dx, double dy) {
-        this.velocity = new Velocity(dx, dy);
+        this.setVelocity(new Velocity(dx, dy));
     }
 
     /**
@@ -166,62 +213,173 @@ public class Ball implements Sprite {
      * @return the velocity of the ball.
      */
     public Velocity getVelocity() {
+        if (this.system != null) {
+            return new Velocity(this.system.getDx(this.index), this.system.getDy(this.index));
+        }
         return this.velocity;
     }
 
     /**
      * Move one step.
-     * Moves the ball by one step according to its velocity,
-     * and ensures it stays within the boundaries of the given
-     * width and height.
+     * Moves the ball by one step according to its velocity.
      */
     public void moveOneStep() {
-        double currentDx = this.getVelocity().getDx();
-        double currentDy = this.getVelocity().getDy();
-        // If velocity is zero do not move
-        if (currentDx == 0 && currentDy == 0) {
+        this.moveOneStep(1);
+    }
+
+    /**
+     * Move one step.
+     * Moves the ball by the given number of steps according to its velocity.
+     * The ball is treated as a circle: it moves until it touches the closest
+     * collidable on its way, bounces, and travels the rest of the way with
+     * its new velocity, up to a few bounces per call.
+     *
+     * @param steps the number of steps to move, may be a fraction of a step
+     */
+    public void moveOneStep(double steps) {
+        // A ball in a system is moved by the system
+        if (this.system != null) {
+            this.system.move(this.index, this.index + 1, steps);
             return;
         }
+        // The part of the way that is still left to travel
+        double remaining = steps;
+        for (int bounce = 0; bounce <= MAX_BOUNCES_PER_STEP; bounce++) {
+            double currentDx = this.velocity.getDx();
+            double currentDy = this.velocity.getDy();
+            // If velocity is zero do not move
+            if (currentDx == 0 && currentDy == 0) {
+                return;
+            }
 
-        // Calculate the next center of the ball
-        double nextXValue = this.center.getX() + this.getVelocity().getDx();
-        double nextYValue = this.center.getY() + this.getVelocity().getDy();
+            // Calculate the next center of the ball
+            Point endTrajectory = new Point(this.center.getX() + currentDx * remaining,
+                    this.center.getY() + currentDy * remaining);
+            Line trajectory = new Line(this.center, endTrajectory);
+            CollisionInfo objectInfo = this.gameEnvironment.getClosestCollision(
+                    trajectory, this.radius, this.candidates);
 
-        // Calculate the trajectory line for check for collision point
-        Point startTrajectory = this.center;
-        Point endTrajectory = new Point(nextXValue, nextYValue);
-        Line trajectory = new Line(startTrajectory, endTrajectory);
-        CollisionInfo objectInfo = this.gameEnvironment.getClosestCollision(trajectory);
+            // If there is no collision point continue as usual
+            if (objectInfo == null) {
+                this.center = endTrajectory;
+                return;
+            }
 
-        // If there is no collision point continue as usual
-        if (objectInfo == null) {
-            this.center = new Point(nextXValue, nextYValue);
-            return;
-        }
+            // Move to the time of impact, and bounce off the collision point
+            double time = Math.max(0, objectInfo.collisionTime());
+            this.center = trajectory.pointAt(time);
+            remaining *= 1 - time;
+            this.setVelocity(objectInfo.collisionObject().hit(this,
+                    objectInfo.collisionPoint(), this.velocity));
 
-        // If there is collision point set the velocity according to it
-        if (objectInfo != null) {
-            Point closest = objectInfo.collisionPoint();
-            this.setVelocity(objectInfo.collisionObject().hit(this, closest,
-                    this.velocity));
+            /* Stop for now if the hit removed the ball, or if the ball
+            is not moving away from the collidable it touches */
+            if (this.removed || this.velocity.getDx() * objectInfo.normalX()
+                    + this.velocity.getDy() * objectInfo.normalY() <= 0) {
+                return;
+            }
         }
     }
 
     /**
-     * Adds this object to the game as a sprite.
+     * Adds this object to the balls of the game, which are moved and drawn
+     * together.
      *
      * @param game The game to add this object to
      */
     public void addToGame(GameLevel game) {
-        game.addSprite(this);
+        this.removed = false;
+        this.hitId = game.getHitEvents().registerBall(this);
+        game.addBall(this);
     }
 
     /**
-     * Removes this object from the game as a sprite.
+     * Removes this object from the balls of the game.
      *
      * @param game The game to remove this object from
      */
     public void removeFromGame(GameLevel game) {
-        game.removeSprite(this);
+        this.removed = true;
+        game.removeBall(this);
+    }
+
+    /**
+     * Checks whether the ball was removed from the game.
+     *
+     * @return true if the ball was removed, false otherwise
+     */
+    public boolean isRemoved() {
+        return this.removed;
+    }
+
+    /**
+     * Gets the id the hits of the ball are recorded with.
+     *
+     * @return the id, or -1 if the ball was not added to a game
+     */
+    public int getHitId() {
+        return this.hitId;
+    }
+
+    /**
+     * Gets the cache of the collidables near the ball, which its collision
+     * queries use.
+     *
+     * @return the candidate cache
+     */
+    public CandidateCache getCandidateCache() {
+        return this.candidates;
+    }
+
+    /**
+     * Gets the game environment the ball collides with.
+     *
+     * @return the game environment
+     */
+    public GameEnvironment getGameEnvironment() {
+        return this.gameEnvironment;
+    }
+
+    /**
+     * Makes this ball a view of the given place of a ball system. Called by
+     * the system when the ball is added to it, or moved within it.
+     *
+     * @param ballSystem the system
+     * @param place      the place of the ball in the arrays of the system
+     */
+    public void attach(BallSystem ballSystem, int place) {
+        this.system = ballSystem;
+        this.index = place;
+    }
+
+    /**
+     * Stops this ball from being a view of a ball system, and gives it back
+     * its own state. Called by the system when the ball is removed from it.
+     *
+     * @param c the center of the ball
+     * @param v the velocity of the ball
+     */
+    public void detach(Point c, Velocity v) {
+        this.system = null;
+        this.center = c;
+        this.velocity = v;
+    }
+
+    /**
+     * Gets the ball system this ball is a view of.
+     *
+     * @return the system, or null if the ball is on its own
+     */
+    public BallSystem getSystem() {
+        return this.system;
+    }
+
+    /**
+     * Gets the place of this ball in the arrays of its ball system.
+     *
+     * @return the place of the ball
+     */
+    public int getIndex() {
+        return this.index;
     }
-}
\ No newline at end of file
+}
@@ -4,25 +4,43 @@ import core.Collidable;
 import core.Sprite;
 import core.Velocity;
 import game.GameLevel;
+import game.SpriteLayer;
+import game.HitEventQueue;
+import geometry.DirtyRegions;
 import geometry.Point;
 import geometry.Rectangle;
 import biuoop.DrawSurface;
 import listeners.HitListener;
+import listeners.HitListenerChain;
 import listeners.HitNotifier;
+import metrics.EngineMetrics;
+import metrics.HitDispatchEvent;
 
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * The Block class represents a rectangular block that can be collided with
  * and drawn on a surface.
  * It implements the Collidable and Sprite interfaces.
+ * Its hit listeners are kept in an immutable chain that is replaced when a
+ * listener is added or removed, so a hit does not copy the listeners.
+ * When the block is part of a game level, its hits are recorded in the hit
+ * event queue of the level, and its listeners are notified when the level
+ * drains the queue at the end of the tick.
+ * A block may belong to a block grid, which then collides with the balls
+ * and draws the block in its place; removing such a block from the game
+ * only empties its cell in the grid.
  */
 public class Block implements Collidable, Sprite, HitNotifier {
     private Rectangle rect;
     private Color color;
-    private List<HitListener> hitListeners;
+    private HitListenerChain hitListeners;
+    private HitEventQueue hitEvents;
+    private int hitId;
+    private boolean inGame;
+    private BlockGrid grid;
+    private int gridCell;
 
     private static final double EPSILON = 0.00001;
 
@@ -35,7 +53,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
     public Block(Rectangle rect, Color color) {
         this.rect = rect;
         this.color = color;
-        this.hitListeners = new java.util.ArrayList<>();
+        this.hitListeners = HitListenerChain.EMPTY;
     }
 
     /**
@@ -45,7 +63,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public Block(Rectangle rect) {
         this.rect = rect;
-        this.hitListeners = new java.util.ArrayList<>();
+        this.hitListeners = HitListenerChain.EMPTY;
     }
 
     /**
@@ -59,7 +77,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
                  List<HitListener> hitListeners) {
         this.rect = rect;
         this.color = color;
-        this.hitListeners = hitListeners;
+        this.hitListeners = HitListenerChain.of(hitListeners);
     }
 
     /**
@@ -70,19 +88,16 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public Block(Rectangle rect, List<HitListener> hitListeners) {
         this.rect = rect;
-        this.hitListeners = hitListeners;
+        this.hitListeners = HitListenerChain.of(hitListeners);
     }
 
     /**
      * Get method.
      *
-     * @return the hit listeners
+     * @return a copy of the hit listeners
      */
     public List<HitListener> getHitListeners() {
-        if (hitListeners == null) {
-            return new java.util.ArrayList<>();
-        }
-        return hitListeners;
+        return this.hitListeners.toList();
     }
 
     /**
@@ -128,10 +143,24 @@ public class Block implements Collidable, Sprite, HitNotifier {
             dx = -dx;
         }
 
-        this.notifyHit(hitter);
+        if (this.hitEvents != null && hitter.getHitId() >= 0) {
+            this.hitEvents.add(this.hitId, hitter.getHitId());
+        } else {
+            this.notifyHit(hitter);
+        }
         return new Velocity(dx, dy);
     }
 
+    /**
+     * A block never moves once it is placed in the game.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isMoving() {
+        return false;
+    }
+
     /**
      * Draws the block on the given DrawSurface.
      *
@@ -149,10 +178,24 @@ public class Block implements Collidable, Sprite, HitNotifier {
     }
 
     /**
-     * This method is called once every frame.
+     * A block looks the same from frame to frame. When a block is removed,
+     * the game reports the region it covered.
+     *
+     * @param regions the regions to add to
+     * @return true, since the block reports nothing
+     */
+    @Override
+    public boolean reportDirtyBounds(DirtyRegions regions) {
+        return true;
+    }
+
+    /**
+     * This method is called once every tick.
+     *
+     * @param dt the time that passed, in seconds
      */
     @Override
-    public void timePassed() {
+    public void timePassed(double dt) {
         return;
     }
 
@@ -182,8 +225,27 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param game the game to add the block to
      */
     public void addToGame(GameLevel game) {
+        this.addToGame(game, SpriteLayer.STATIC);
+    }
+
+    /**
+     * Adds the block to the given game by adding it as a sprite in the
+     * given layer and a collidable object.
+     *
+     * @param game  the game to add the block to
+     * @param layer the layer to draw the block in
+     */
+    public void addToGame(GameLevel game, SpriteLayer layer) {
+        // Record the hits on the block in the queue of the game
+        this.hitEvents = game.getHitEvents();
+        this.hitId = this.hitEvents.registerBlock(this);
+        this.inGame = true;
+        // The grid of the block collides with the balls and draws it
+        if (this.grid != null) {
+            return;
+        }
         // adds the block as a sprite to the game
-        game.addSprite(this);
+        game.addSprite(this, layer);
         // adds the block as a collidable object to the game
         game.addCollidable(this);
     }
@@ -195,6 +257,11 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param game The game to remove this object from
      */
     public void removeFromGame(GameLevel game) {
+        this.inGame = false;
+        if (this.grid != null) {
+            this.grid.remove(this);
+            return;
+        }
         game.removeCollidable(this);
         game.removeSprite(this);
     }
@@ -206,10 +273,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void addHitListener(HitListener hl) {
-        if (this.hitListeners == null) {
-            this.hitListeners = new java.util.ArrayList<>();
-        }
-        this.hitListeners.add(hl);
+        this.hitListeners = this.hitListeners.with(hl);
     }
 
     /**
@@ -219,11 +283,17 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void removeHitListener(HitListener hl) {
-        if (this.hitListeners == null) {
-            this.hitListeners = new java.util.ArrayList<>();
-        } else {
-            this.hitListeners.remove(hl);
-        }
+        this.hitListeners = this.hitListeners.without(hl);
+    }
+
+    /**
+     * Checks whether the block was added to a game and was not removed from
+     * it since.
+     *
+     * @return true if the block is in a game, false otherwise
+     */
+    public boolean isInGame() {
+        return this.inGame;
     }
 
     /**
@@ -231,15 +301,17 @@ public class Block implements Collidable, Sprite, HitNotifier {
      *
      * @param hitter The ball that hit this object.
      */
-    private void notifyHit(Ball hitter) {
-        if (this.hitListeners != null) {
-            // Make a copy of the hitListeners before iterating over them
-            List<HitListener> listeners = new ArrayList<>(this.hitListeners);
-            // Notify all listeners about a hit event
-            for (HitListener hl : listeners) {
-                hl.hitEvent(this, hitter);
-            }
-        }
+    public void notifyHit(Ball hitter) {
+        EngineMetrics.getInstance().hitEvent();
+        HitDispatchEvent dispatchEvent = new HitDispatchEvent();
+        dispatchEvent.begin();
+        /* The chain does not change while it is notified: a listener that
+        removes itself only replaces the chain of this block */
+        HitListenerChain listeners = this.hitListeners;
+        // Notify all listeners about a hit event
+        listeners.notifyHit(this, hitter);
+        dispatchEvent.setListeners(listeners.size());
+        dispatchEvent.commit();
     }
 
 
@@ -249,7 +321,45 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param hitListeners The hit listeners to be set.
      */
     public void setHitListeners(List<HitListener> hitListeners) {
+        this.hitListeners = HitListenerChain.of(hitListeners);
+    }
+
+    /**
+     * Sets the hit listeners for this object to the given chain, which may
+     * be shared with other blocks.
+     *
+     * @param hitListeners The hit listener chain to be set.
+     */
+    public void setHitListeners(HitListenerChain hitListeners) {
         this.hitListeners = hitListeners;
     }
-}
 
+    /**
+     * Makes the block a part of the given block grid.
+     *
+     * @param blockGrid the grid the block is in
+     * @param cell      the cell of the block in the grid
+     */
+    public void setGrid(BlockGrid blockGrid, int cell) {
+        this.grid = blockGrid;
+        this.gridCell = cell;
+    }
+
+    /**
+     * Gets the block grid the block is in.
+     *
+     * @return the grid, or null if the block is not in a grid
+     */
+    public BlockGrid getGrid() {
+        return this.grid;
+    }
+
+    /**
+     * Gets the cell of the block in its block grid.
+     *
+     * @return the cell
+     */
+    public int getGridCell() {
+        return this.gridCell;
+    }
+}
@@ -0,0 +1,413 @@
+package gameObjects;
+
+import biuoop.DrawSurface;
+import core.Collidable;
+import core.CollidableGroup;
+import core.Sprite;
+import core.Velocity;
+import game.GameLevel;
+import game.SpriteLayer;
+import geometry.DirtyRegions;
+import geometry.Point;
+import geometry.Rectangle;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The BlockGrid class is a wall of same-sized blocks placed on a regular
+ * grid, kept as a single collidable and sprite instead of a block each.
+ * The wall is a packed array of cells: every cell holds the id of its
+ * block, or -1 if it is empty, and the index of its color in a small
+ * palette. A trajectory is answered by walking only the cells the segment
+ * crosses, in order (Amanatides-Woo traversal), and testing the blocks
+ * around them, so its cost does not depend on the size of the wall.
+ * The blocks are still Block objects, with their own hit listeners: a
+ * collision found by the wall is with the block, and removing the block
+ * from the game only empties its cell.
+ */
+public class BlockGrid implements CollidableGroup, Sprite {
+    private static final int EMPTY = -1;
+    // How far from the grid a block may be and still count as on it
+    private static final double TOLERANCE = 0.000001;
+    private double originX;
+    private double originY;
+    private double cellWidth;
+    private double cellHeight;
+    private int cols;
+    private int rows;
+    private int[] ids;
+    private int[] colors;
+    private Block[] blocks;
+    private Color[] palette;
+    private Rectangle bounds;
+    private int count;
+
+    /**
+     * Instantiates a new Block grid of the given blocks.
+     *
+     * @param blocks     the blocks, all on the grid and in different cells
+     * @param originX    the x coordinate of the upper left corner of the grid
+     * @param originY    the y coordinate of the upper left corner of the grid
+     * @param cellWidth  the width of a cell, and of every block
+     * @param cellHeight the height of a cell, and of every block
+     * @param cols       the number of columns
+     * @param rows       the number of rows
+     */
+    private BlockGrid(List<Block> blocks, double originX, double originY,
+                      double cellWidth, double cellHeight, int cols, int rows) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.cols = cols;
+        this.rows = rows;
+        this.ids = new int[cols * rows];
+        Arrays.fill(this.ids, EMPTY);
+        this.colors = new int[cols * rows];
+        this.blocks = blocks.toArray(new Block[0]);
+        this.bounds = new Rectangle(new Point(originX, originY),
+                cols * cellWidth, rows * cellHeight);
+        List<Color> colorList = new ArrayList<>();
+        for (int id = 0; id < this.blocks.length; id++) {
+            Rectangle rect = this.blocks[id].getCollisionRectangle();
+            int cell = this.rowOf(rect.getUpperLeft().getY()) * cols
+                    + this.colOf(rect.getUpperLeft().getX());
+            // A block without a color is drawn green, as Rectangle does
+            Color color = rect.getColor() == null ? Color.green : rect.getColor();
+            if (!colorList.contains(color)) {
+                colorList.add(color);
+            }
+            this.ids[cell] = id;
+            this.colors[cell] = colorList.indexOf(color);
+            this.blocks[id].setGrid(this, cell);
+        }
+        this.palette = colorList.toArray(new Color[0]);
+        this.count = this.blocks.length;
+    }
+
+    /**
+     * Returns a block grid of the given blocks, if they are all of the same
+     * size and are placed on a regular grid, without overlapping.
+     *
+     * @param blocks the blocks
+     * @return the block grid, or null if the blocks are not on a regular grid
+     */
+    public static BlockGrid of(List<Block> blocks) {
+        if (blocks.isEmpty()) {
+            return null;
+        }
+        Rectangle first = blocks.get(0).getCollisionRectangle();
+        double width = first.getWidth();
+        double height = first.getHeight();
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Block block : blocks) {
+            Rectangle rect = block.getCollisionRectangle();
+            if (block.getGrid() != null || rect.getWidth() != width
+                    || rect.getHeight() != height) {
+                return null;
+            }
+            minX = Math.min(minX, rect.getUpperLeft().getX());
+            minY = Math.min(minY, rect.getUpperLeft().getY());
+            maxX = Math.max(maxX, rect.getMaxX());
+            maxY = Math.max(maxY, rect.getMaxY());
+        }
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        int cols = (int) Math.round((maxX - minX) / width);
+        int rows = (int) Math.round((maxY - minY) / height);
+        boolean[] taken = new boolean[cols * rows];
+        for (Block block : blocks) {
+            Point upperLeft = block.getCollisionRectangle().getUpperLeft();
+            double col = (upperLeft.getX() - minX) / width;
+            double row = (upperLeft.getY() - minY) / height;
+            int cell = (int) Math.round(row) * cols + (int) Math.round(col);
+            if (Math.abs(col - Math.round(col)) * width > TOLERANCE
+                    || Math.abs(row - Math.round(row)) * height > TOLERANCE || taken[cell]) {
+                return null;
+            }
+            taken[cell] = true;
+        }
+        return new BlockGrid(blocks, minX, minY, width, height, cols, rows);
+    }
+
+    /**
+     * Returns the column of the given x coordinate, which may be outside
+     * the grid.
+     *
+     * @param x the x coordinate
+     * @return the column
+     */
+    private int colOf(double x) {
+        return (int) Math.floor((x - this.originX) / this.cellWidth + TOLERANCE);
+    }
+
+    /**
+     * Returns the row of the given y coordinate, which may be outside the
+     * grid.
+     *
+     * @param y the y coordinate
+     * @return the row
+     */
+    private int rowOf(double y) {
+        return (int) Math.floor((y - this.originY) / this.cellHeight + TOLERANCE);
+    }
+
+    /**
+     * Empties the cell of the given block.
+     *
+     * @param block the block, which must be in this grid
+     */
+    public void remove(Block block) {
+        int cell = block.getGridCell();
+        if (this.ids[cell] != EMPTY) {
+            this.ids[cell] = EMPTY;
+            this.count--;
+        }
+    }
+
+    /**
+     * Gets the number of blocks left in the grid.
+     *
+     * @return the number of blocks
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Finds the block that a circle of the given radius, whose center moves
+     * from (x0, y0) to (x1, y1), touches first.
+     * The segment is first clipped to the grid grown by the radius. Its
+     * cells are then walked in order, and the blocks within the radius of
+     * every cell are tested. A block the circle touches at some time is
+     * within the radius of the cell of its center at that time, so the walk
+     * stops at the first cell the center enters after the closest touch
+     * found so far.
+     *
+     * @param radius the radius of the circle, or 0 for a point
+     * @param x0     the x coordinate of the start of the center's path
+     * @param y0     the y coordinate of the start of the center's path
+     * @param x1     the x coordinate of the end of the center's path
+     * @param y1     the y coordinate of the end of the center's path
+     * @param hit    an array of length 3 that receives the time of the first
+     *               touch and the contact normal
+     * @param normal an array of length 2 for the normal of every block tested
+     * @return the block touched first, or null if the circle touches no block
+     */
+    @Override
+    public Collidable firstHit(double radius, double x0, double y0, double x1, double y1,
+                               double[] hit, double[] normal) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        // The part of the segment within the grid grown by the radius
+        double enter = 0;
+        double exit = 1;
+        double low = this.originX - radius;
+        double high = this.originX + this.cols * this.cellWidth + radius;
+        if (dx != 0) {
+            double t1 = (low - x0) / dx;
+            double t2 = (high - x0) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if (x0 < low || x0 > high) {
+            return null;
+        }
+        low = this.originY - radius;
+        high = this.originY + this.rows * this.cellHeight + radius;
+        if (dy != 0) {
+            double t1 = (low - y0) / dy;
+            double t2 = (high - y0) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        } else if (y0 < low || y0 > high) {
+            return null;
+        }
+        if (enter > exit) {
+            return null;
+        }
+
+        int col = this.colOf(x0 + enter * dx);
+        int row = this.rowOf(y0 + enter * dy);
+        int endCol = this.colOf(x0 + exit * dx);
+        int endRow = this.rowOf(y0 + exit * dy);
+        int stepCol = dx > 0 ? 1 : -1;
+        int stepRow = dy > 0 ? 1 : -1;
+        double nextBorderX = this.originX + (dx > 0 ? col + 1 : col) * this.cellWidth;
+        double nextBorderY = this.originY + (dy > 0 ? row + 1 : row) * this.cellHeight;
+        double tMaxX = dx != 0 ? (nextBorderX - x0) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy != 0 ? (nextBorderY - y0) / dy : Double.POSITIVE_INFINITY;
+        double tDeltaX = dx != 0 ? this.cellWidth / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? this.cellHeight / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        // The cells around a cell that a circle centered in it may touch
+        int reachCols = (int) Math.ceil(radius / this.cellWidth);
+        int reachRows = (int) Math.ceil(radius / this.cellHeight);
+
+        int best = EMPTY;
+        double bestTime = Double.POSITIVE_INFINITY;
+        int steps = Math.abs(endCol - col) + Math.abs(endRow - row);
+        double cellEnter = enter;
+        for (int i = 0; i <= steps && cellEnter <= Math.abs(bestTime); i++) {
+            int lastRow = Math.min(this.rows - 1, row + reachRows);
+            int lastCol = Math.min(this.cols - 1, col + reachCols);
+            for (int r = Math.max(0, row - reachRows); r <= lastRow; r++) {
+                for (int c = Math.max(0, col - reachCols); c <= lastCol; c++) {
+                    int id = this.ids[r * this.cols + c];
+                    if (id == EMPTY) {
+                        continue;
+                    }
+                    double t = this.touchT(c, r, radius, x0, y0, x1, y1, normal);
+                    double time = Math.abs(t);
+                    // Ties go to the block that came first, as in the environment
+                    if (time < Math.abs(bestTime) || (time == Math.abs(bestTime) && id < best)) {
+                        best = id;
+                        bestTime = t;
+                        hit[1] = normal[0];
+                        hit[2] = normal[1];
+                    }
+                }
+            }
+            // Never step past the last column or row
+            if (row == endRow || (col != endCol && tMaxX < tMaxY)) {
+                cellEnter = tMaxX;
+                col += stepCol;
+                tMaxX += tDeltaX;
+            } else {
+                cellEnter = tMaxY;
+                row += stepRow;
+                tMaxY += tDeltaY;
+            }
+        }
+        if (best == EMPTY) {
+            return null;
+        }
+        hit[0] = bestTime;
+        return this.blocks[best];
+    }
+
+    /**
+     * Returns the time a circle touches the block of the given cell.
+     *
+     * @param col    the column of the cell
+     * @param row    the row of the cell
+     * @param radius the radius of the circle, or 0 for a point
+     * @param x0     the x coordinate of the start of the center's path
+     * @param y0     the y coordinate of the start of the center's path
+     * @param x1     the x coordinate of the end of the center's path
+     * @param y1     the y coordinate of the end of the center's path
+     * @param normal an array of length 2 that receives the contact normal
+     * @return the time of the first touch, or Double.POSITIVE_INFINITY
+     */
+    private double touchT(int col, int row, double radius, double x0, double y0,
+                          double x1, double y1, double[] normal) {
+        double minX = this.originX + col * this.cellWidth;
+        double minY = this.originY + row * this.cellHeight;
+        double maxX = minX + this.cellWidth;
+        double maxY = minY + this.cellHeight;
+        if (radius > 0) {
+            return Rectangle.sweptCircleT(minX, minY, maxX, maxY, radius, x0, y0, x1, y1,
+                    normal);
+        }
+        normal[0] = 0;
+        normal[1] = 0;
+        return Rectangle.rayEntryT(minX, minY, maxX, maxY, x0, y0, x1, y1);
+    }
+
+    /**
+     * Returns the rectangle that holds the whole grid.
+     *
+     * @return the bounds of the grid
+     */
+    @Override
+    public Rectangle getCollisionRectangle() {
+        return this.bounds;
+    }
+
+    /**
+     * The grid itself is never hit, only its blocks are, so the velocity
+     * is left as it is.
+     *
+     * @param hitter          the ball
+     * @param collisionPoint  the collision point
+     * @param currentVelocity the velocity of the ball
+     * @return the same velocity
+     */
+    @Override
+    public Velocity hit(Ball hitter, Point collisionPoint, Velocity currentVelocity) {
+        return currentVelocity;
+    }
+
+    /**
+     * The blocks of the grid never move.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isMoving() {
+        return false;
+    }
+
+    /**
+     * Draws the blocks left in the grid, as every block draws itself.
+     *
+     * @param d the surface to draw on
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        int width = (int) this.cellWidth;
+        int height = (int) this.cellHeight;
+        for (int row = 0; row < this.rows; row++) {
+            for (int col = 0; col < this.cols; col++) {
+                int cell = row * this.cols + col;
+                if (this.ids[cell] == EMPTY) {
+                    continue;
+                }
+                int x = (int) (this.originX + col * this.cellWidth);
+                int y = (int) (this.originY + row * this.cellHeight);
+                d.setColor(this.palette[this.colors[cell]]);
+                d.fillRectangle(x, y, width, height);
+                //Paint the block frame black
+                d.setColor(Color.BLACK);
+                d.drawRectangle(x, y, width, height);
+            }
+        }
+    }
+
+    /**
+     * The grid looks the same from frame to frame. When a block of the grid
+     * is removed, the game reports the region it covered.
+     *
+     * @param regions the regions to add to
+     * @return true, since the grid reports nothing
+     */
+    @Override
+    public boolean reportDirtyBounds(DirtyRegions regions) {
+        return true;
+    }
+
+    /**
+     * The grid does nothing when time passes.
+     *
+     * @param dt the time that passed, in seconds
+     */
+    @Override
+    public void timePassed(double dt) {
+        return;
+    }
+
+    /**
+     * Adds the grid to the game, as a sprite and a collidable. The blocks of
+     * the grid are added to the game on their own, to record their hits.
+     *
+     * @param game the game
+     */
+    public void addToGame(GameLevel game) {
+        game.addSprite(this, SpriteLayer.STATIC);
+        game.addCollidable(this);
+    }
+}
@@ -4,6 +4,7 @@ import core.Collidable;
 import core.Sprite;
 import core.Velocity;
 import game.GameLevel;
+import geometry.DirtyRegions;
 import geometry.Point;
 import geometry.Rectangle;
 import biuoop.DrawSurface;
@@ -62,23 +63,40 @@ public class Paddle implements Sprite, Collidable {
                 (int) paddleShape.getWidth(), (int) paddleShape.getHeight());
     }
 
+    /**
+     * Reports where the paddle is drawn, since it may have moved.
+     *
+     * @param regions the regions to add to
+     * @return true, since the paddle knows its region
+     */
+    @Override
+    public boolean reportDirtyBounds(DirtyRegions regions) {
+        regions.add(this.paddleShape);
+        return true;
+    }
+
     /**
      * Responds to the passage of time by checking for left or right arrow key
      * presses on the keyboard.
      * If the left arrow key is pressed, moves the object to the left.
      * If the right arrow key is pressed, moves the object to the right.
+     * The paddle moves by the part of a step that matches the time that
+     * passed.
+     *
+     * @param dt the time that passed, in seconds
      */
     @Override
-    public void timePassed() {
+    public void timePassed(double dt) {
+        double distance = PADDLE_SPEED * dt * Velocity.STEPS_PER_SECOND;
         // Check if the left arrow key is currently being pressed
         if (keyboard.isPressed(KeyboardSensor.LEFT_KEY)) {
             // Move the object to the left
-            moveLeft();
+            moveLeft(distance);
 
         // Otherwise, check if the right arrow key is currently being pressed
         } else if (keyboard.isPressed(KeyboardSensor.RIGHT_KEY)) {
             // Move the object to the right
-            moveRight();
+            moveRight(distance);
         }
     }
 
@@ -92,6 +110,16 @@ public class Paddle implements Sprite, Collidable {
         return this.paddleShape;
     }
 
+    /**
+     * The paddle moves according to the keyboard on every frame.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isMoving() {
+        return true;
+    }
+
     /**
      * Changes the ball's velocity according to the location it hit on the
      * paddle.
@@ -181,15 +209,27 @@ public class Paddle implements Sprite, Collidable {
 
     /**
      * Move left.
-     * Moves the paddle to the left while keeping it inside the screen.
+     * Moves the paddle to the left by one step while keeping it inside the
+     * screen.
      */
     public void moveLeft() {
+        this.moveLeft(PADDLE_SPEED);
+    }
+
+    /**
+     * Move left.
+     * Moves the paddle to the left by the given distance while keeping it
+     * inside the screen.
+     *
+     * @param distance the distance to move
+     */
+    public void moveLeft(double distance) {
         // Get the current X coordinate of the paddle's upper-left corner
         double currentX = this.paddleShape.getUpperLeft().getX();
         // Set the minimum X coordinate to keep the paddle inside the screen
         double minX = 30;
         // Calculate the maximum amount by which the paddle can be moved to the left
-        double dx = Math.max(-PADDLE_SPEED, -currentX + minX);
+        double dx = Math.max(-distance, -currentX + minX);
         // Calculate the new X and Y coordinates for the paddle's upper-left corner
         double newX = currentX + dx;
         double newY = this.paddleShape.getUpperLeft().getY();
@@ -202,15 +242,27 @@ public class Paddle implements Sprite, Collidable {
 
     /**
      * Move right.
-     * Moves the paddle to the right while keeping it inside the screen.
+     * Moves the paddle to the right by one step while keeping it inside the
+     * screen.
      */
     public void moveRight() {
+        this.moveRight(PADDLE_SPEED);
+    }
+
+    /**
+     * Move right.
+     * Moves the paddle to the right by the given distance while keeping it
+     * inside the screen.
+     *
+     * @param distance the distance to move
+     */
+    public void moveRight(double distance) {
         // Get the current X coordinate of the paddle's upper-left corner
         double currentX = this.paddleShape.getUpperLeft().getX();
         // Set the maximum X coordinate to keep the paddle inside the screen
         double maxX = 800 - this.paddleShape.getWidth() - 30;
         // Calculate the minimum amount by which the paddle can be moved to the right
-        double dx = Math.min(PADDLE_SPEED, maxX - currentX);
+        double dx = Math.min(distance, maxX - currentX);
         // Calculate the new X and Y coordinates for the paddle's upper-left corner
         double newX = currentX + dx;
         double newY = this.paddleShape.getUpperLeft().getY();
@@ -0,0 +1,272 @@
+package geometry;
+
+import java.util.Arrays;
+
+/**
+ * The DirtyRegions class gathers the regions of the screen that changed in
+ * a frame, and have to be drawn again.
+ * The regions are kept as whole pixels, in parallel arrays of their edges,
+ * so gathering them every frame does not allocate once the arrays are large
+ * enough. Regions may overlap; merging them keeps their number small, at the
+ * cost of drawing some pixels that did not change.
+ */
+public class DirtyRegions {
+    private static final int INITIAL_CAPACITY = 16;
+    // The edges of every region: the first pixel in, and the first pixel out
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+    private int size;
+
+    /**
+     * Instantiates a new, empty Dirty regions.
+     */
+    public DirtyRegions() {
+        this.minX = new int[INITIAL_CAPACITY];
+        this.minY = new int[INITIAL_CAPACITY];
+        this.maxX = new int[INITIAL_CAPACITY];
+        this.maxY = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds a region. An empty region is ignored.
+     *
+     * @param x      the x coordinate of the upper left pixel of the region
+     * @param y      the y coordinate of the upper left pixel of the region
+     * @param width  the width of the region, in pixels
+     * @param height the height of the region, in pixels
+     */
+    public void add(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (this.size == this.minX.length) {
+            int capacity = 2 * this.size;
+            this.minX = Arrays.copyOf(this.minX, capacity);
+            this.minY = Arrays.copyOf(this.minY, capacity);
+            this.maxX = Arrays.copyOf(this.maxX, capacity);
+            this.maxY = Arrays.copyOf(this.maxY, capacity);
+        }
+        this.minX[this.size] = x;
+        this.minY[this.size] = y;
+        this.maxX[this.size] = x + width;
+        this.maxY[this.size] = y + height;
+        this.size++;
+    }
+
+    /**
+     * Adds the pixels a rectangle covers when it is filled and outlined,
+     * which reach one pixel past its width and height.
+     *
+     * @param rect the rectangle
+     */
+    public void add(Rectangle rect) {
+        int x = (int) Math.floor(rect.getUpperLeft().getX());
+        int y = (int) Math.floor(rect.getUpperLeft().getY());
+        this.add(x, y, (int) Math.ceil(rect.getWidth()) + 2,
+                (int) Math.ceil(rect.getHeight()) + 2);
+    }
+
+    /**
+     * Adds the pixels a circle covers when it is filled and outlined.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    public void addCircle(int x, int y, int radius) {
+        this.add(x - radius, y - radius, 2 * radius + 1, 2 * radius + 1);
+    }
+
+    /**
+     * Adds all the regions of other dirty regions.
+     *
+     * @param other the regions to add
+     */
+    public void addAll(DirtyRegions other) {
+        for (int i = 0; i < other.size; i++) {
+            this.add(other.minX[i], other.minY[i], other.maxX[i] - other.minX[i],
+                    other.maxY[i] - other.minY[i]);
+        }
+    }
+
+    /**
+     * Removes all the regions.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Gets the number of regions.
+     *
+     * @return the number of regions
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Limits the regions to a screen of the given size, and drops the
+     * regions that are off the screen.
+     *
+     * @param width  the width of the screen
+     * @param height the height of the screen
+     */
+    public void clipTo(int width, int height) {
+        int kept = 0;
+        for (int i = 0; i < this.size; i++) {
+            int x0 = Math.max(this.minX[i], 0);
+            int y0 = Math.max(this.minY[i], 0);
+            int x1 = Math.min(this.maxX[i], width);
+            int y1 = Math.min(this.maxY[i], height);
+            if (x0 < x1 && y0 < y1) {
+                this.set(kept++, x0, y0, x1, y1);
+            }
+        }
+        this.size = kept;
+    }
+
+    /**
+     * Merges regions until at most the given number are left. Every step
+     * merges the two regions whose bounding box adds the least area that
+     * neither of them covered. Too many regions to compare in pairs are
+     * merged into their bounding box at once.
+     *
+     * @param maxRegions the most regions to keep
+     */
+    public void mergeTo(int maxRegions) {
+        if (this.size > maxRegions * maxRegions) {
+            this.mergeAll();
+        }
+        while (this.size > maxRegions) {
+            int bestA = 0;
+            int bestB = 1;
+            long bestCost = Long.MAX_VALUE;
+            for (int a = 0; a < this.size; a++) {
+                for (int b = a + 1; b < this.size; b++) {
+                    long cost = this.unionArea(a, b) - this.area(a) - this.area(b);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestA = a;
+                        bestB = b;
+                    }
+                }
+            }
+            this.set(bestA, Math.min(this.minX[bestA], this.minX[bestB]),
+                    Math.min(this.minY[bestA], this.minY[bestB]),
+                    Math.max(this.maxX[bestA], this.maxX[bestB]),
+                    Math.max(this.maxY[bestA], this.maxY[bestB]));
+            // The last region takes the place of the merged one
+            this.size--;
+            this.set(bestB, this.minX[this.size], this.minY[this.size],
+                    this.maxX[this.size], this.maxY[this.size]);
+        }
+    }
+
+    /**
+     * Merges all the regions into their bounding box.
+     */
+    private void mergeAll() {
+        for (int i = 1; i < this.size; i++) {
+            this.set(0, Math.min(this.minX[0], this.minX[i]), Math.min(this.minY[0], this.minY[i]),
+                    Math.max(this.maxX[0], this.maxX[i]), Math.max(this.maxY[0], this.maxY[i]));
+        }
+        this.size = Math.min(this.size, 1);
+    }
+
+    /**
+     * Gets the total area of the regions, counting the pixels of regions
+     * that overlap more than once.
+     *
+     * @return the area, in pixels
+     */
+    public long totalArea() {
+        long total = 0;
+        for (int i = 0; i < this.size; i++) {
+            total += this.area(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the area of a region.
+     *
+     * @param i the index of the region
+     * @return the area, in pixels
+     */
+    private long area(int i) {
+        return (long) (this.maxX[i] - this.minX[i]) * (this.maxY[i] - this.minY[i]);
+    }
+
+    /**
+     * Gets the area of the bounding box of two regions.
+     *
+     * @param a the index of the first region
+     * @param b the index of the second region
+     * @return the area, in pixels
+     */
+    private long unionArea(int a, int b) {
+        long width = Math.max(this.maxX[a], this.maxX[b]) - Math.min(this.minX[a], this.minX[b]);
+        long height = Math.max(this.maxY[a], this.maxY[b]) - Math.min(this.minY[a], this.minY[b]);
+        return width * height;
+    }
+
+    /**
+     * Writes the edges of a region.
+     *
+     * @param i  the index of the region
+     * @param x0 the first x in the region
+     * @param y0 the first y in the region
+     * @param x1 the first x past the region
+     * @param y1 the first y past the region
+     */
+    private void set(int i, int x0, int y0, int x1, int y1) {
+        this.minX[i] = x0;
+        this.minY[i] = y0;
+        this.maxX[i] = x1;
+        this.maxY[i] = y1;
+    }
+
+    /**
+     * Gets the x coordinate of the upper left pixel of a region.
+     *
+     * @param i the index of the region
+     * @return the x coordinate
+     */
+    public int getX(int i) {
+        return this.minX[i];
+    }
+
+    /**
+     * Gets the y coordinate of the upper left pixel of a region.
+     *
+     * @param i the index of the region
+     * @return the y coordinate
+     */
+    public int getY(int i) {
+        return this.minY[i];
+    }
+
+    /**
+     * Gets the width of a region.
+     *
+     * @param i the index of the region
+     * @return the width, in pixels
+     */
+    public int getWidth(int i) {
+        return this.maxX[i] - this.minX[i];
+    }
+
+    /**
+     * Gets the height of a region.
+     *
+     * @param i the index of the region
+     * @return the height, in pixels
+     */
+    public int getHeight(int i) {
+        return this.maxY[i] - this.minY[i];
+    }
+}
@@ -1,6 +1,5 @@
 
 package geometry;
-import java.util.List;
 
 /**
  * The Line class represents a line in two-dimensional Euclidean space.
@@ -591,39 +590,35 @@ public class Line {
      * intersection point between the rectangle and a line, starting from
      * the line's start point.
      * If no intersection points are found, it returns null.
+     * The work is done by Rectangle.rayEntryT, this method only wraps the
+     * result in a Point.
      *
      * @param rect the rectangle to check for intersection points with.
      * @return the closest intersection point to the start of the line, or null if no intersection points are found.
      */
     public Point closestIntersectionToStartOfLine(Rectangle rect) {
-        /* get a list of all the intersection points between the
-        line and the rectangle */
-        List<Point> intersectionPoints = rect.intersectionPoints(this);
+        double t = rect.rayEntryT(this.start.getX(), this.start.getY(),
+                this.end.getX(), this.end.getY());
 
         // if there are no intersection points, return null
-        if (intersectionPoints.isEmpty()) {
+        if (t == Double.POSITIVE_INFINITY) {
             return null;
         }
 
-        // find the closest intersection point to the start of the line
-        Point closestPoint = intersectionPoints.get(0);
-        double closestDistance = this.start().distance(closestPoint);
-
-        for (int i = 1; i < intersectionPoints.size(); i++) {
-            Point currentPoint = intersectionPoints.get(i);
-            double currentDistance = this.start().distance(currentPoint);
-
-            /* If the current distance is shorter, change the value of the
-            closest distance to it and change the closestPoint to
-            current point */
-            if (currentDistance < closestDistance) {
-                closestPoint = currentPoint;
-                closestDistance = currentDistance;
-            }
-        }
+        // Return the point of the closest intersection along the line
+        return this.pointAt(t);
+    }
 
-        // Return the closest intersection point found
-        return closestPoint;
+    /**
+     * Returns the point at the given parametric time along this line, where
+     * 0 is the start point and 1 is the end point.
+     *
+     * @param t the parametric time
+     * @return the point at time t
+     */
+    public Point pointAt(double t) {
+        return new Point(this.start.getX() + t * (this.end.getX() - this.start.getX()),
+                this.start.getY() + t * (this.end.getY() - this.start.getY()));
     }
 
 }
@@ -19,6 +19,7 @@ public class Rectangle {
     private double width;
     private double height;
     private Color color;
+    private static final double EPSILON = 0.00001;
 
     /**
      * Instantiates a new Rectangle.
@@ -112,6 +113,423 @@ public class Rectangle {
         return allIntersections;
     }
 
+    /**
+     * Returns the parametric time at which the segment from (x0, y0) to
+     * (x1, y1) first touches the edges of this rectangle.
+     * This is the allocation-free form of
+     * Line.closestIntersectionToStartOfLine(Rectangle).
+     *
+     * @param x0 the x coordinate of the start of the segment
+     * @param y0 the y coordinate of the start of the segment
+     * @param x1 the x coordinate of the end of the segment
+     * @param y1 the y coordinate of the end of the segment
+     * @return the time t of the first touch, where the touching point is
+     * start + t * (end - start), or Double.POSITIVE_INFINITY if the segment
+     * does not touch the edges
+     */
+    public double rayEntryT(double x0, double y0, double x1, double y1) {
+        return rayEntryT(this.upperLeft.getX(), this.upperLeft.getY(),
+                this.upperLeft.getX() + this.width,
+                this.upperLeft.getY() + this.height, x0, y0, x1, y1);
+    }
+
+    /**
+     * Returns the parametric time at which the segment from (x0, y0) to
+     * (x1, y1) first touches the edges of the rectangle with the given
+     * bounds.
+     * The segment is tested against the two vertical planes x = minX,
+     * x = maxX and the two horizontal planes y = minY, y = maxY (the slabs
+     * of the rectangle). A crossing counts if it lies on the edge and on the
+     * segment, within the same small threshold Line.intersectionWith uses.
+     * If the segment starts inside the rectangle, the first touch is where
+     * it leaves it, as with the object-based methods.
+     *
+     * @param minX the minimum x value of the rectangle
+     * @param minY the minimum y value of the rectangle
+     * @param maxX the maximum x value of the rectangle
+     * @param maxY the maximum y value of the rectangle
+     * @param x0   the x coordinate of the start of the segment
+     * @param y0   the y coordinate of the start of the segment
+     * @param x1   the x coordinate of the end of the segment
+     * @param y1   the y coordinate of the end of the segment
+     * @return the time t of the first touch, where the touching point is
+     * start + t * (end - start), or Double.POSITIVE_INFINITY if the segment
+     * does not touch the edges
+     */
+    public static double rayEntryT(double minX, double minY, double maxX, double maxY,
+                                   double x0, double y0, double x1, double y1) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        // The range of the segment, within the threshold
+        double segMinX = Math.min(x0, x1) - EPSILON;
+        double segMaxX = Math.max(x0, x1) + EPSILON;
+        double segMinY = Math.min(y0, y1) - EPSILON;
+        double segMaxY = Math.max(y0, y1) + EPSILON;
+        double best = Double.POSITIVE_INFINITY;
+
+        /* Crossings of the vertical planes, checked against the y range. As in
+        Line.intersectionWith, a segment whose x values are within the
+        threshold counts as vertical, and so parallel to these planes */
+        if (Math.abs(dx) >= EPSILON) {
+            if (minX >= segMinX && minX <= segMaxX) {
+                double t = (minX - x0) / dx;
+                double y = y0 + t * dy;
+                if (y >= minY - EPSILON && y <= maxY + EPSILON
+                        && y >= segMinY && y <= segMaxY) {
+                    best = closer(best, t);
+                }
+            }
+            if (maxX >= segMinX && maxX <= segMaxX) {
+                double t = (maxX - x0) / dx;
+                double y = y0 + t * dy;
+                if (y >= minY - EPSILON && y <= maxY + EPSILON
+                        && y >= segMinY && y <= segMaxY) {
+                    best = closer(best, t);
+                }
+            }
+        }
+
+        /* Crossings of the horizontal planes, checked against the x range. A
+        segment whose incline is within the threshold counts as horizontal */
+        if (dy != 0 && (Math.abs(dx) < EPSILON || Math.abs(dy / dx) >= EPSILON)) {
+            if (minY >= segMinY && minY <= segMaxY) {
+                double t = (minY - y0) / dy;
+                double x = x0 + t * dx;
+                if (x >= minX - EPSILON && x <= maxX + EPSILON
+                        && x >= segMinX && x <= segMaxX) {
+                    best = closer(best, t);
+                }
+            }
+            if (maxY >= segMinY && maxY <= segMaxY) {
+                double t = (maxY - y0) / dy;
+                double x = x0 + t * dx;
+                if (x >= minX - EPSILON && x <= maxX + EPSILON
+                        && x >= segMinX && x <= segMaxX) {
+                    best = closer(best, t);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the parametric time at which a circle of the given radius,
+     * whose center moves from (x0, y0) to (x1, y1), first touches this
+     * rectangle.
+     *
+     * @param radius the radius of the circle
+     * @param x0     the x coordinate of the start of the center's path
+     * @param y0     the y coordinate of the start of the center's path
+     * @param x1     the x coordinate of the end of the center's path
+     * @param y1     the y coordinate of the end of the center's path
+     * @param normal an array of length 2 that receives the contact normal
+     * @return the time t of the first touch, or Double.POSITIVE_INFINITY if
+     * the circle does not touch the rectangle
+     */
+    public double sweptCircleT(double radius, double x0, double y0, double x1, double y1,
+                               double[] normal) {
+        return sweptCircleT(this.upperLeft.getX(), this.upperLeft.getY(),
+                this.upperLeft.getX() + this.width,
+                this.upperLeft.getY() + this.height, radius, x0, y0, x1, y1, normal);
+    }
+
+    /**
+     * Returns the parametric time at which a circle of the given radius,
+     * whose center moves from (x0, y0) to (x1, y1), first touches the
+     * rectangle with the given bounds (continuous collision detection).
+     * The circle touches the rectangle exactly when its center enters the
+     * rectangle grown by the radius with rounded corners: the union of the
+     * rectangle grown sideways, the rectangle grown up and down, and four
+     * circles around the corners. The first entry into any of these is the
+     * time of impact.
+     * The contact normal is the unit vector pointing from the rectangle
+     * towards the center of the circle at the time of impact. A circle that
+     * already overlaps the rectangle at the start touches it at time 0 if
+     * it moves further in, and not at all if it moves out.
+     * Like a point, a circle whose center is inside the rectangle (such as a
+     * ball inside a background block) only touches its edges, from the
+     * inside, and the normal then points into the rectangle.
+     *
+     * @param minX   the minimum x value of the rectangle
+     * @param minY   the minimum y value of the rectangle
+     * @param maxX   the maximum x value of the rectangle
+     * @param maxY   the maximum y value of the rectangle
+     * @param radius the radius of the circle
+     * @param x0     the x coordinate of the start of the center's path
+     * @param y0     the y coordinate of the start of the center's path
+     * @param x1     the x coordinate of the end of the center's path
+     * @param y1     the y coordinate of the end of the center's path
+     * @param normal an array of length 2 that receives the contact normal
+     * @return the time t of the first touch, where the center is then at
+     * start + t * (end - start), or Double.POSITIVE_INFINITY if the circle
+     * does not touch the rectangle
+     */
+    public static double sweptCircleT(double minX, double minY, double maxX, double maxY,
+                                      double radius, double x0, double y0,
+                                      double x1, double y1, double[] normal) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        // A circle that does not move touches nothing, even when it is in contact
+        if (dx == 0 && dy == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // A center inside the rectangle can only touch the edges from inside
+        if (x0 > minX && x0 < maxX && y0 > minY && y0 < maxY) {
+            return insideEdgeT(minX, minY, maxX, maxY, radius, x0, y0, dx, dy, normal);
+        }
+
+        // Check if the circle already overlaps the rectangle
+        double offsetX = x0 - Math.max(minX, Math.min(maxX, x0));
+        double offsetY = y0 - Math.max(minY, Math.min(maxY, y0));
+        // Against the full radius: a ball left at the time of impact with one
+        // collidable may start a hair inside the grown box of the next
+        double distanceSquared = offsetX * offsetX + offsetY * offsetY;
+        if (distanceSquared < radius * radius) {
+            if (distanceSquared == 0) {
+                // The center is on an edge or a corner, where the offset has no direction
+                faceNormal(minX, minY, maxX, maxY, x0, y0, dx, dy, normal);
+            } else {
+                double distance = Math.sqrt(distanceSquared);
+                normal[0] = offsetX / distance;
+                normal[1] = offsetY / distance;
+            }
+            return dx * normal[0] + dy * normal[1] < 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        double bestNormalX = 0;
+        double bestNormalY = 0;
+
+        // The rectangle grown sideways, and grown up and down
+        double t = boxEntryT(minX - radius, minY, maxX + radius, maxY,
+                x0, y0, dx, dy, normal);
+        if (t < best) {
+            best = t;
+            bestNormalX = normal[0];
+            bestNormalY = normal[1];
+        }
+        t = boxEntryT(minX, minY - radius, maxX, maxY + radius, x0, y0, dx, dy, normal);
+        if (t < best) {
+            best = t;
+            bestNormalX = normal[0];
+            bestNormalY = normal[1];
+        }
+
+        // The four rounded corners
+        for (int corner = 0; corner < 4; corner++) {
+            double cornerX = corner % 2 == 0 ? minX : maxX;
+            double cornerY = corner < 2 ? minY : maxY;
+            t = circleEntryT(cornerX, cornerY, radius, x0, y0, dx, dy);
+            if (t < best) {
+                best = t;
+                bestNormalX = (x0 + t * dx - cornerX) / radius;
+                bestNormalY = (y0 + t * dy - cornerY) / radius;
+            }
+        }
+        normal[0] = bestNormalX;
+        normal[1] = bestNormalY;
+        return best;
+    }
+
+    /**
+     * Sets the normal to the outward normal of the face of the rectangle
+     * nearest to a point on its boundary. At a corner, where two faces are
+     * as near, the face the point moves into most directly is taken.
+     *
+     * @param minX   the minimum x value of the rectangle
+     * @param minY   the minimum y value of the rectangle
+     * @param maxX   the maximum x value of the rectangle
+     * @param maxY   the maximum y value of the rectangle
+     * @param x      the x coordinate of the point
+     * @param y      the y coordinate of the point
+     * @param dx     the change in x
+     * @param dy     the change in y
+     * @param normal an array of length 2 that receives the normal
+     */
+    private static void faceNormal(double minX, double minY, double maxX, double maxY,
+                                   double x, double y, double dx, double dy,
+                                   double[] normal) {
+        // Start with the left face, then try the right, top and bottom faces
+        double bestDistance = x - minX;
+        double bestSpeed = dx;
+        normal[0] = -1;
+        normal[1] = 0;
+        for (int face = 1; face < 4; face++) {
+            double distance = face == 1 ? maxX - x : face == 2 ? y - minY : maxY - y;
+            // How fast the point moves into the face
+            double speed = face == 1 ? -dx : face == 2 ? dy : -dy;
+            if (distance < bestDistance || (distance == bestDistance && speed > bestSpeed)) {
+                bestDistance = distance;
+                bestSpeed = speed;
+                normal[0] = face == 1 ? 1 : 0;
+                normal[1] = face == 2 ? -1 : face == 3 ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the time at which a circle whose center moves from (x0, y0) by
+     * (dx, dy) inside the given rectangle first touches one of its edges
+     * from the inside, and sets the normal, pointing into the rectangle.
+     * A circle that already overlaps an edge it moves towards touches it at
+     * time 0.
+     *
+     * @param minX   the minimum x value of the rectangle
+     * @param minY   the minimum y value of the rectangle
+     * @param maxX   the maximum x value of the rectangle
+     * @param maxY   the maximum y value of the rectangle
+     * @param radius the radius of the circle
+     * @param x0     the x coordinate of the start of the center's path
+     * @param y0     the y coordinate of the start of the center's path
+     * @param dx     the change in x
+     * @param dy     the change in y
+     * @param normal an array of length 2 that receives the normal
+     * @return the time in [0, 1], or Double.POSITIVE_INFINITY if the circle
+     * does not touch an edge
+     */
+    private static double insideEdgeT(double minX, double minY, double maxX, double maxY,
+                                      double radius, double x0, double y0,
+                                      double dx, double dy, double[] normal) {
+        double tX = Double.POSITIVE_INFINITY;
+        if (dx != 0) {
+            // The center touches the edge it moves towards at a radius from it
+            double limit = dx > 0 ? maxX - radius : minX + radius;
+            tX = Math.max(0, (limit - x0) / dx);
+        }
+        double tY = Double.POSITIVE_INFINITY;
+        if (dy != 0) {
+            double limit = dy > 0 ? maxY - radius : minY + radius;
+            tY = Math.max(0, (limit - y0) / dy);
+        }
+        double t = Math.min(tX, tY);
+        if (t > 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (tX <= tY) {
+            normal[0] = dx > 0 ? -1 : 1;
+            normal[1] = 0;
+        } else {
+            normal[0] = 0;
+            normal[1] = dy > 0 ? -1 : 1;
+        }
+        return t;
+    }
+
+    /**
+     * Returns the time at which a point moving from (x0, y0) by (dx, dy)
+     * enters the given box, using the slab method, and sets the normal of
+     * the side it enters through.
+     *
+     * @param minX   the minimum x value of the box
+     * @param minY   the minimum y value of the box
+     * @param maxX   the maximum x value of the box
+     * @param maxY   the maximum y value of the box
+     * @param x0     the x coordinate of the start point
+     * @param y0     the y coordinate of the start point
+     * @param dx     the change in x
+     * @param dy     the change in y
+     * @param normal an array of length 2 that receives the normal
+     * @return the entry time in [0, 1], or Double.POSITIVE_INFINITY if the
+     * point does not enter the box
+     */
+    private static double boxEntryT(double minX, double minY, double maxX, double maxY,
+                                    double x0, double y0, double dx, double dy,
+                                    double[] normal) {
+        double enterX = Double.NEGATIVE_INFINITY;
+        double exitX = Double.POSITIVE_INFINITY;
+        if (dx != 0) {
+            double t1 = (minX - x0) / dx;
+            double t2 = (maxX - x0) / dx;
+            enterX = Math.min(t1, t2);
+            exitX = Math.max(t1, t2);
+        } else if (x0 < minX || x0 > maxX) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double enterY = Double.NEGATIVE_INFINITY;
+        double exitY = Double.POSITIVE_INFINITY;
+        if (dy != 0) {
+            double t1 = (minY - y0) / dy;
+            double t2 = (maxY - y0) / dy;
+            enterY = Math.min(t1, t2);
+            exitY = Math.max(t1, t2);
+        } else if (y0 < minY || y0 > maxY) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double enter = Math.max(enterX, enterY);
+        double exit = Math.min(exitX, exitY);
+        if (enter > 1 || enter > exit) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (enter < 0) {
+            // A start inside the box by no more than rounding error still
+            // enters it now; deeper starts are the overlap test's to report
+            double depth = -enter * (enterX >= enterY ? Math.abs(dx) : Math.abs(dy));
+            // Also rejects a depth that is not a number, along an axis the point does not move on
+            if (!(depth <= EPSILON)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            enter = 0;
+        }
+        if (enterX >= enterY) {
+            normal[0] = dx > 0 ? -1 : 1;
+            normal[1] = 0;
+        } else {
+            normal[0] = 0;
+            normal[1] = dy > 0 ? -1 : 1;
+        }
+        return enter;
+    }
+
+    /**
+     * Returns the time at which a point moving from (x0, y0) by (dx, dy)
+     * enters the circle with the given center and radius.
+     *
+     * @param centerX the x coordinate of the center of the circle
+     * @param centerY the y coordinate of the center of the circle
+     * @param radius  the radius of the circle
+     * @param x0      the x coordinate of the start point
+     * @param y0      the y coordinate of the start point
+     * @param dx      the change in x
+     * @param dy      the change in y
+     * @return the entry time in [0, 1], or Double.POSITIVE_INFINITY if the
+     * point does not enter the circle
+     */
+    private static double circleEntryT(double centerX, double centerY, double radius,
+                                       double x0, double y0, double dx, double dy) {
+        double mx = x0 - centerX;
+        double my = y0 - centerY;
+        double a = dx * dx + dy * dy;
+        double b = mx * dx + my * dy;
+        double c = mx * mx + my * my - radius * radius;
+        // Starting outside and moving away, or not moving at all
+        if (a == 0 || (c > 0 && b > 0)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        if (t < 0) {
+            // Starting on the circle and moving in
+            return c <= 0 && b < 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return t <= 1 ? t : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the one of the two parametric times closer to the start of
+     * the segment. Times within the threshold may be slightly negative.
+     *
+     * @param t1 the first time, or Double.POSITIVE_INFINITY
+     * @param t2 the second time
+     * @return the time closer to the start
+     */
+    private static double closer(double t1, double t2) {
+        return Math.abs(t2) < Math.abs(t1) ? t2 : t1;
+    }
+
     /**
      * Gets width.
      *
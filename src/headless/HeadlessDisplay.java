@@ -0,0 +1,100 @@
+package headless;
+
+import animation.Display;
+import biuoop.DrawSurface;
+import biuoop.KeyboardSensor;
+
+/**
+ * The HeadlessDisplay class is a display without a window, for running the
+ * game on machines without a screen, such as in load tests and batch runs.
+ * Every frame is drawn on the same headless draw surface, which is cleared
+ * before each frame, and the keys are read from a scripted keyboard sensor,
+ * which advances by one frame whenever a frame is shown.
+ */
+public class HeadlessDisplay implements Display {
+    private HeadlessDrawSurface surface;
+    private ScriptedKeyboardSensor keyboard;
+    private long frames;
+
+    /**
+     * Instantiates a new Headless display.
+     *
+     * @param surface  the surface to draw the frames on
+     * @param keyboard the keyboard sensor to read the keys from
+     */
+    public HeadlessDisplay(HeadlessDrawSurface surface, ScriptedKeyboardSensor keyboard) {
+        this.surface = surface;
+        this.keyboard = keyboard;
+        this.frames = 0;
+    }
+
+    /**
+     * Instantiates a new Headless display of the given size, which does not
+     * record the drawing calls.
+     *
+     * @param width    the width of the display
+     * @param height   the height of the display
+     * @param keyboard the keyboard sensor to read the keys from
+     */
+    public HeadlessDisplay(int width, int height, ScriptedKeyboardSensor keyboard) {
+        this(new HeadlessDrawSurface(width, height), keyboard);
+    }
+
+    /**
+     * Returns the headless surface, cleared for the next frame.
+     *
+     * @return the draw surface
+     */
+    @Override
+    public DrawSurface getDrawSurface() {
+        this.surface.clear();
+        return this.surface;
+    }
+
+    /**
+     * Counts the shown frame, and moves the keyboard script to the next frame.
+     *
+     * @param d the draw surface to show
+     */
+    @Override
+    public void show(DrawSurface d) {
+        this.frames++;
+        this.keyboard.nextFrame();
+    }
+
+    /**
+     * Returns the scripted keyboard sensor of the display.
+     *
+     * @return the keyboard sensor
+     */
+    @Override
+    public KeyboardSensor getKeyboardSensor() {
+        return this.keyboard;
+    }
+
+    /**
+     * Closes the display. There is nothing to close.
+     */
+    @Override
+    public void close() {
+        return;
+    }
+
+    /**
+     * Gets the headless surface the frames are drawn on.
+     *
+     * @return the headless draw surface
+     */
+    public HeadlessDrawSurface getSurface() {
+        return this.surface;
+    }
+
+    /**
+     * Gets the number of frames shown so far.
+     *
+     * @return the number of frames
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+}
@@ -0,0 +1,303 @@
+package headless;
+
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The HeadlessDrawSurface class is a draw surface that is not shown
+ * anywhere.
+ * It counts the drawing calls made on it, and, if asked to, records every
+ * call as a line of text, so tests and tools can check what a frame draws.
+ * Recording allocates on every call, so it is off unless requested.
+ */
+public class HeadlessDrawSurface implements DrawSurface {
+    private int width;
+    private int height;
+    private boolean recording;
+    private List<String> calls;
+    private long drawCalls;
+
+    /**
+     * Instantiates a new Headless draw surface that does not record calls.
+     *
+     * @param width  the width of the surface
+     * @param height the height of the surface
+     */
+    public HeadlessDrawSurface(int width, int height) {
+        this(width, height, false);
+    }
+
+    /**
+     * Instantiates a new Headless draw surface.
+     *
+     * @param width     the width of the surface
+     * @param height    the height of the surface
+     * @param recording whether to record every call as a line of text
+     */
+    public HeadlessDrawSurface(int width, int height, boolean recording) {
+        this.width = width;
+        this.height = height;
+        this.recording = recording;
+        this.calls = new ArrayList<>();
+        this.drawCalls = 0;
+    }
+
+    /**
+     * Forgets the calls made so far, before drawing a new frame.
+     */
+    public void clear() {
+        this.calls.clear();
+        this.drawCalls = 0;
+    }
+
+    /**
+     * Returns the calls recorded since the surface was last cleared.
+     *
+     * @return the recorded calls, empty if the surface does not record
+     */
+    public List<String> getCalls() {
+        return this.calls;
+    }
+
+    /**
+     * Returns the number of calls made since the surface was last cleared,
+     * including color changes.
+     *
+     * @return the number of calls
+     */
+    public long getDrawCalls() {
+        return this.drawCalls;
+    }
+
+    /**
+     * Counts and records a call. The callers only record when the surface
+     * records calls, so the arguments are not boxed otherwise.
+     *
+     * @param name the name of the call
+     * @param args the arguments of the call
+     */
+    private void record(String name, Object... args) {
+        this.drawCalls++;
+        StringBuilder line = new StringBuilder(name);
+        for (Object arg : args) {
+            line.append(' ').append(arg);
+        }
+        this.calls.add(line.toString());
+    }
+
+    /**
+     * Gets the width of the surface.
+     *
+     * @return the width
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Gets the height of the surface.
+     *
+     * @return the height
+     */
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Sets the color of the next drawing calls.
+     *
+     * @param color the color
+     */
+    @Override
+    public void setColor(Color color) {
+        if (this.recording) {
+            record("setColor", color.getRed(), color.getGreen(), color.getBlue());
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Draws a line.
+     *
+     * @param x1 the x coordinate of the start of the line
+     * @param y1 the y coordinate of the start of the line
+     * @param x2 the x coordinate of the end of the line
+     * @param y2 the y coordinate of the end of the line
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        if (this.recording) {
+            record("drawLine", x1, y1, x2, y2);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Draws the outline of an oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        if (this.recording) {
+            record("drawOval", x, y, width, height);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Fills an oval.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the oval
+     * @param height the height of the oval
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        if (this.recording) {
+            record("fillOval", x, y, width, height);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Draws the outline of a rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        if (this.recording) {
+            record("drawRectangle", x, y, width, height);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Fills a rectangle.
+     *
+     * @param x      the x coordinate of the upper left corner
+     * @param y      the y coordinate of the upper left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        if (this.recording) {
+            record("fillRectangle", x, y, width, height);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Draws an image.
+     *
+     * @param x     the x coordinate of the upper left corner
+     * @param y     the y coordinate of the upper left corner
+     * @param image the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        if (this.recording) {
+            record("drawImage", x, y);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Draws the outline of a circle.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        if (this.recording) {
+            record("drawCircle", x, y, radius);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Fills a circle.
+     *
+     * @param x      the x coordinate of the center
+     * @param y      the y coordinate of the center
+     * @param radius the radius of the circle
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        if (this.recording) {
+            record("fillCircle", x, y, radius);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Draws a text.
+     *
+     * @param x        the x coordinate of the start of the text
+     * @param y        the y coordinate of the baseline of the text
+     * @param text     the text
+     * @param fontSize the font size
+     */
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        if (this.recording) {
+            record("drawText", x, y, text, fontSize);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Draws the outline of a polygon.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        if (this.recording) {
+            record("drawPolygon", polygon.npoints);
+        } else {
+            this.drawCalls++;
+        }
+    }
+
+    /**
+     * Fills a polygon.
+     *
+     * @param polygon the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        if (this.recording) {
+            record("fillPolygon", polygon.npoints);
+        } else {
+            this.drawCalls++;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package headless;
+
+import biuoop.KeyboardSensor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ScriptedKeyboardSensor class is a keyboard sensor that replays a
+ * script of key presses instead of reading a real keyboard.
+ * The script is measured in frames: the display advances the sensor by one
+ * frame every time it shows a frame, and a key is pressed in every frame
+ * the script says it is.
+ */
+public class ScriptedKeyboardSensor implements KeyboardSensor {
+    private List<String> keys;
+    private List<long[]> ranges;
+    private List<Long> periods;
+    private long frame;
+
+    /**
+     * Instantiates a new Scripted keyboard sensor with an empty script.
+     */
+    public ScriptedKeyboardSensor() {
+        this.keys = new ArrayList<>();
+        this.ranges = new ArrayList<>();
+        this.periods = new ArrayList<>();
+        this.frame = 0;
+    }
+
+    /**
+     * Adds a key press to the script: the key is held from the first frame
+     * to the last frame, inclusive.
+     *
+     * @param key        the key
+     * @param firstFrame the first frame the key is held in
+     * @param lastFrame  the last frame the key is held in
+     * @return this sensor, so more presses can be added
+     */
+    public ScriptedKeyboardSensor press(String key, long firstFrame, long lastFrame) {
+        return this.add(key, firstFrame, lastFrame, 0);
+    }
+
+    /**
+     * Adds a repeated key tap to the script: starting at the given frame,
+     * the key is pressed for one frame in every period, and released for
+     * the rest of it. This is enough to get past screens that wait for a
+     * key, such as the end screen.
+     *
+     * @param key        the key
+     * @param firstFrame the first frame the key is pressed in
+     * @param period     the number of frames between two taps, at least 2
+     * @return this sensor, so more presses can be added
+     */
+    public ScriptedKeyboardSensor tap(String key, long firstFrame, long period) {
+        return this.add(key, firstFrame, Long.MAX_VALUE, period);
+    }
+
+    /**
+     * Adds an entry to the script.
+     *
+     * @param key        the key
+     * @param firstFrame the first frame of the entry
+     * @param lastFrame  the last frame of the entry
+     * @param period     the period of a repeated tap, or 0 if the key is held
+     * @return this sensor
+     */
+    private ScriptedKeyboardSensor add(String key, long firstFrame, long lastFrame,
+                                       long period) {
+        this.keys.add(key);
+        this.ranges.add(new long[] {firstFrame, lastFrame});
+        this.periods.add(period);
+        return this;
+    }
+
+    /**
+     * Moves the script to the next frame.
+     */
+    public void nextFrame() {
+        this.frame++;
+    }
+
+    /**
+     * Gets the current frame of the script.
+     *
+     * @return the number of frames shown so far
+     */
+    public long getFrame() {
+        return this.frame;
+    }
+
+    /**
+     * Checks whether the script presses the given key in the current frame.
+     *
+     * @param key the key
+     * @return true if the key is pressed, false otherwise
+     */
+    @Override
+    public boolean isPressed(String key) {
+        for (int i = 0; i < this.keys.size(); i++) {
+            long[] range = this.ranges.get(i);
+            if (!this.keys.get(i).equals(key)
+                    || this.frame < range[0] || this.frame > range[1]) {
+                continue;
+            }
+            long period = this.periods.get(i);
+            if (period == 0 || (this.frame - range[0]) % period == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,6 +4,8 @@ package levels;
 import biuoop.DrawSurface;
 import core.Sprite;
 import game.GameLevel;
+import game.SpriteLayer;
+import geometry.DirtyRegions;
 
 import java.awt.Color;
 
@@ -38,22 +40,35 @@ public class LevelIndicator implements Sprite {
 
     }
 
+    /**
+     * The level indicator looks the same from frame to frame.
+     *
+     * @param regions the regions to add to
+     * @return true, since the level indicator reports nothing
+     */
+    @Override
+    public boolean reportDirtyBounds(DirtyRegions regions) {
+        return true;
+    }
+
     /**
      * Updates the level indicator.
      * Since the level indicator does not change over time,
      * this method does nothing.
+     *
+     * @param dt the time that passed, in seconds
      */
     @Override
-    public void timePassed() {
+    public void timePassed(double dt) {
         return;
     }
 
     /**
-     * Adds the level indicator to the given game.
+     * Adds the level indicator to the HUD layer of the given game.
      *
      * @param g The game to add the level indicator to
      */
     public void addToGame(GameLevel g) {
-        g.addSprite(this);
+        g.addSprite(this, SpriteLayer.HUD);
     }
 }
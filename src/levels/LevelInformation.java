@@ -55,6 +55,9 @@ public interface LevelInformation {
 
     /**
      * Returns the background sprite of the level.
+     * The background is pure decoration: it is drawn behind everything else,
+     * in the background layer, and is never added to the game environment,
+     * so it can be any sprite and never collides with the balls.
      *
      * @return the background sprite
      */
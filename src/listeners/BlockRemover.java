@@ -36,6 +36,8 @@ public class BlockRemover implements HitListener {
     @Override
     public void hitEvent(Block beingHit, Ball hitter) {
         beingHit.removeFromGame(game);
+        // Only the region of the block is drawn again in the cached static layers
+        game.invalidateStaticRegion(beingHit.getCollisionRectangle());
         // Remove this listener from the block
         beingHit.removeHitListener(this);
         // Decrease the count of remaining blocks by 1
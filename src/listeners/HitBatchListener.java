@@ -0,0 +1,16 @@
+package listeners;
+
+/**
+ * The HitBatchListener interface represents a hit listener that handles
+ * the hits of a tick as one batch.
+ * Its hitEvent method is called for every hit of the batch, and then
+ * hitBatchEnded is called once, after the last hit of the tick was
+ * delivered, so the listener can apply what it gathered in one go.
+ */
+public interface HitBatchListener extends HitListener {
+
+    /**
+     * This method is called after all the hits of a tick were delivered.
+     */
+    void hitBatchEnded();
+}
@@ -0,0 +1,132 @@
+package listeners;
+
+import gameObjects.Ball;
+import gameObjects.Block;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The HitListenerChain class is an immutable array of hit listeners, used
+ * by hit notifiers as a copy-on-write listener list.
+ * Adding or removing a listener returns a new chain and leaves this one as
+ * it is, so a notifier can notify the listeners of its current chain
+ * without copying it first, even if a listener removes itself while being
+ * notified. Since a chain never changes, many notifiers with the same
+ * listeners, such as all the blocks of a level, can share one chain.
+ */
+public final class HitListenerChain {
+    /**
+     * The chain without listeners.
+     */
+    public static final HitListenerChain EMPTY = new HitListenerChain(new HitListener[0]);
+    private final HitListener[] listeners;
+
+    /**
+     * Instantiates a new Hit listener chain that owns the given array.
+     *
+     * @param listeners the listeners, which must not be changed afterwards
+     */
+    private HitListenerChain(HitListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Returns a chain of the given listeners, in the same order.
+     *
+     * @param listeners the listeners
+     * @return the chain
+     */
+    public static HitListenerChain of(HitListener... listeners) {
+        if (listeners.length == 0) {
+            return EMPTY;
+        }
+        return new HitListenerChain(listeners.clone());
+    }
+
+    /**
+     * Returns a chain of the listeners in the given list, in the same order.
+     *
+     * @param listeners the listeners, or null for no listeners
+     * @return the chain
+     */
+    public static HitListenerChain of(List<HitListener> listeners) {
+        if (listeners == null || listeners.isEmpty()) {
+            return EMPTY;
+        }
+        return new HitListenerChain(listeners.toArray(new HitListener[0]));
+    }
+
+    /**
+     * Returns a chain with the given listener added at its end.
+     *
+     * @param hl the listener to add
+     * @return the new chain
+     */
+    public HitListenerChain with(HitListener hl) {
+        HitListener[] added = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        added[this.listeners.length] = hl;
+        return new HitListenerChain(added);
+    }
+
+    /**
+     * Returns a chain without the first occurrence of the given listener.
+     *
+     * @param hl the listener to remove
+     * @return the new chain, or this chain if it does not hold the listener
+     */
+    public HitListenerChain without(HitListener hl) {
+        for (int i = 0; i < this.listeners.length; i++) {
+            if (this.listeners[i].equals(hl)) {
+                if (this.listeners.length == 1) {
+                    return EMPTY;
+                }
+                HitListener[] removed = new HitListener[this.listeners.length - 1];
+                System.arraycopy(this.listeners, 0, removed, 0, i);
+                System.arraycopy(this.listeners, i + 1, removed, i, removed.length - i);
+                return new HitListenerChain(removed);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Notifies all the listeners of the chain about a hit event, in order.
+     *
+     * @param beingHit the block that was hit
+     * @param hitter   the ball that hit the block
+     */
+    public void notifyHit(Block beingHit, Ball hitter) {
+        for (HitListener hl : this.listeners) {
+            hl.hitEvent(beingHit, hitter);
+        }
+    }
+
+    /**
+     * Gets the number of listeners in the chain.
+     *
+     * @return the number of listeners
+     */
+    public int size() {
+        return this.listeners.length;
+    }
+
+    /**
+     * Gets the listener at the given position of the chain.
+     *
+     * @param index the position
+     * @return the listener
+     */
+    public HitListener get(int index) {
+        return this.listeners[index];
+    }
+
+    /**
+     * Returns the listeners of the chain as a new list.
+     *
+     * @return a list of the listeners, in order
+     */
+    public List<HitListener> toList() {
+        return new ArrayList<>(Arrays.asList(this.listeners));
+    }
+}
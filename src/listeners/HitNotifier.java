@@ -4,6 +4,9 @@ package listeners;
 /**
  * The HitNotifier interface represents an object that can notify listeners
  * about hit events.
+ * Implementations keep their listeners in a HitListenerChain, so notifying
+ * the listeners does not copy them, and listeners may add or remove
+ * listeners while being notified.
  */
 public interface HitNotifier {
 
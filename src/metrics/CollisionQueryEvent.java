@@ -0,0 +1,51 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The CollisionQueryEvent class is a Flight Recorder event for a closest
+ * collision query of the game environment that takes longer than a
+ * threshold (50 microseconds, unless the recording sets another).
+ * It is off unless a recording enables it.
+ */
+@Name("arkanoid.CollisionQuery")
+@Label("Collision Query")
+@Description("A slow closest collision query of the game environment")
+@Category("Arkanoid")
+@Enabled(false)
+@Threshold("50 us")
+@StackTrace(false)
+public class CollisionQueryEvent extends Event {
+    @Label("Radius")
+    @Description("The radius of the moving circle, or 0 for a point")
+    private double radius;
+
+    @Label("Hit")
+    @Description("Whether the query found a collision")
+    private boolean hit;
+
+    /**
+     * Sets the radius of the moving circle.
+     *
+     * @param radius the radius, or 0 for a point
+     */
+    public void setRadius(double radius) {
+        this.radius = radius;
+    }
+
+    /**
+     * Sets whether the query found a collision.
+     *
+     * @param hit true if the query found a collision
+     */
+    public void setHit(boolean hit) {
+        this.hit = hit;
+    }
+}
@@ -0,0 +1,277 @@
+package metrics;
+
+import core.Counter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The EngineMetrics class holds the live engine metrics of the game, and
+ * publishes them as an MBean, so a JMX client can watch a running game.
+ * The game only increments counters, which neither allocates nor takes a
+ * lock. Everything else, such as the sizes of the current level and the
+ * rates per second, is computed when a JMX client reads it.
+ * There is a single instance, shared by the whole game.
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+    /**
+     * The name the metrics are published under.
+     */
+    public static final String OBJECT_NAME = "arkanoid:type=EngineMetrics";
+    private static final EngineMetrics INSTANCE = new EngineMetrics();
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private LongAdder frames;
+    private LongAdder collisionQueries;
+    private LongAdder hitEvents;
+    private LongAdder candidateCacheHits;
+    private LongAdder candidateCacheMisses;
+    private volatile IntSupplier collidableCount;
+    private volatile IntSupplier spriteCount;
+    private volatile Counter remainingBlocks;
+    private volatile Counter remainingBalls;
+    // The counts and time at the previous read of each rate
+    private long lastFrames;
+    private long lastFramesTime;
+    private long lastQueries;
+    private long lastQueriesTime;
+
+    /**
+     * Instantiates the Engine metrics.
+     */
+    private EngineMetrics() {
+        this.frames = new LongAdder();
+        this.collisionQueries = new LongAdder();
+        this.hitEvents = new LongAdder();
+        this.candidateCacheHits = new LongAdder();
+        this.candidateCacheMisses = new LongAdder();
+        this.lastFramesTime = System.nanoTime();
+        this.lastQueriesTime = this.lastFramesTime;
+    }
+
+    /**
+     * Gets the engine metrics of the game.
+     *
+     * @return the engine metrics
+     */
+    public static EngineMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Publishes the metrics in the platform MBean server, unless they are
+     * already published.
+     *
+     * @return true if the metrics are published, false if publishing failed
+     */
+    public boolean register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+            return true;
+        } catch (JMException e) {
+            System.err.println("Could not publish the engine metrics: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Starts watching a new level.
+     *
+     * @param collidables     reads the number of collidables of the level
+     * @param sprites         reads the number of sprites of the level
+     * @param blocksRemaining the counter of the blocks left in the level
+     * @param ballsRemaining  the counter of the balls left in the level
+     */
+    public void watchLevel(IntSupplier collidables, IntSupplier sprites,
+                           Counter blocksRemaining, Counter ballsRemaining) {
+        this.collidableCount = collidables;
+        this.spriteCount = sprites;
+        this.remainingBlocks = blocksRemaining;
+        this.remainingBalls = ballsRemaining;
+    }
+
+    /**
+     * Counts a rendered frame.
+     */
+    public void frameRendered() {
+        this.frames.increment();
+    }
+
+    /**
+     * Counts a closest collision query.
+     */
+    public void collisionQuery() {
+        this.collisionQueries.increment();
+    }
+
+    /**
+     * Counts a hit event dispatched by a block.
+     */
+    public void hitEvent() {
+        this.hitEvents.increment();
+    }
+
+    /**
+     * Counts a collision query that used the candidates cached by its ball.
+     */
+    public void candidateCacheHit() {
+        this.candidateCacheHits.increment();
+    }
+
+    /**
+     * Counts a collision query that had to fill the candidate cache of its
+     * ball again.
+     */
+    public void candidateCacheMiss() {
+        this.candidateCacheMisses.increment();
+    }
+
+    /**
+     * Gets the number of frames rendered since the game started.
+     *
+     * @return the number of frames
+     */
+    @Override
+    public long getFramesRendered() {
+        return this.frames.sum();
+    }
+
+    /**
+     * Gets the number of frames rendered per second since the previous read.
+     *
+     * @return the current frame rate
+     */
+    @Override
+    public synchronized double getFramesPerSecond() {
+        long now = System.nanoTime();
+        long count = this.frames.sum();
+        double rate = (count - this.lastFrames) * NANOS_PER_SECOND / (now - this.lastFramesTime);
+        this.lastFrames = count;
+        this.lastFramesTime = now;
+        return rate;
+    }
+
+    /**
+     * Gets the number of collidables in the game environment of the current
+     * level.
+     *
+     * @return the number of collidables, or 0 if no level is running
+     */
+    @Override
+    public int getCollidableCount() {
+        IntSupplier count = this.collidableCount;
+        return count == null ? 0 : count.getAsInt();
+    }
+
+    /**
+     * Gets the number of sprites in the sprite collection of the current
+     * level.
+     *
+     * @return the number of sprites, or 0 if no level is running
+     */
+    @Override
+    public int getSpriteCount() {
+        IntSupplier count = this.spriteCount;
+        return count == null ? 0 : count.getAsInt();
+    }
+
+    /**
+     * Gets the number of closest collision queries since the game started.
+     *
+     * @return the number of queries
+     */
+    @Override
+    public long getCollisionQueries() {
+        return this.collisionQueries.sum();
+    }
+
+    /**
+     * Gets the number of closest collision queries per second since the
+     * previous read.
+     *
+     * @return the current query rate
+     */
+    @Override
+    public synchronized double getCollisionQueriesPerSecond() {
+        long now = System.nanoTime();
+        long count = this.collisionQueries.sum();
+        double rate = (count - this.lastQueries) * NANOS_PER_SECOND / (now - this.lastQueriesTime);
+        this.lastQueries = count;
+        this.lastQueriesTime = now;
+        return rate;
+    }
+
+    /**
+     * Gets the number of hit events blocks have dispatched since the game
+     * started.
+     *
+     * @return the number of hit events
+     */
+    @Override
+    public long getHitEvents() {
+        return this.hitEvents.sum();
+    }
+
+    /**
+     * Gets the number of blocks left to remove in the current level.
+     *
+     * @return the remaining blocks, or 0 if no level is running
+     */
+    @Override
+    public int getRemainingBlocks() {
+        Counter counter = this.remainingBlocks;
+        return counter == null ? 0 : counter.getValue();
+    }
+
+    /**
+     * Gets the number of balls left in the current level.
+     *
+     * @return the remaining balls, or 0 if no level is running
+     */
+    @Override
+    public int getRemainingBalls() {
+        Counter counter = this.remainingBalls;
+        return counter == null ? 0 : counter.getValue();
+    }
+
+    /**
+     * Gets the number of collision queries that used a candidate cache as
+     * it was, since the game started.
+     *
+     * @return the number of cache hits
+     */
+    @Override
+    public long getCandidateCacheHits() {
+        return this.candidateCacheHits.sum();
+    }
+
+    /**
+     * Gets the number of collision queries that filled a candidate cache
+     * again, since the game started.
+     *
+     * @return the number of cache misses
+     */
+    @Override
+    public long getCandidateCacheMisses() {
+        return this.candidateCacheMisses.sum();
+    }
+
+    /**
+     * Gets the part of the cached collision queries that used the cache as
+     * it was, since the game started.
+     *
+     * @return the hit rate, from 0 to 1, or 0 if no cache was used yet
+     */
+    @Override
+    public double getCandidateCacheHitRate() {
+        long hits = this.candidateCacheHits.sum();
+        long total = hits + this.candidateCacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,99 @@
+package metrics;
+
+/**
+ * The EngineMetricsMBean interface is the management interface of the live
+ * engine metrics, as seen by JConsole and other JMX clients.
+ */
+public interface EngineMetricsMBean {
+
+    /**
+     * Gets the number of frames rendered since the game started.
+     *
+     * @return the number of frames
+     */
+    long getFramesRendered();
+
+    /**
+     * Gets the number of frames rendered per second since the previous read.
+     *
+     * @return the current frame rate
+     */
+    double getFramesPerSecond();
+
+    /**
+     * Gets the number of collidables in the game environment of the current
+     * level.
+     *
+     * @return the number of collidables, or 0 if no level is running
+     */
+    int getCollidableCount();
+
+    /**
+     * Gets the number of sprites in the sprite collection of the current
+     * level.
+     *
+     * @return the number of sprites, or 0 if no level is running
+     */
+    int getSpriteCount();
+
+    /**
+     * Gets the number of closest collision queries since the game started.
+     *
+     * @return the number of queries
+     */
+    long getCollisionQueries();
+
+    /**
+     * Gets the number of closest collision queries per second since the
+     * previous read.
+     *
+     * @return the current query rate
+     */
+    double getCollisionQueriesPerSecond();
+
+    /**
+     * Gets the number of hit events blocks have dispatched since the game
+     * started.
+     *
+     * @return the number of hit events
+     */
+    long getHitEvents();
+
+    /**
+     * Gets the number of blocks left to remove in the current level.
+     *
+     * @return the remaining blocks, or 0 if no level is running
+     */
+    int getRemainingBlocks();
+
+    /**
+     * Gets the number of balls left in the current level.
+     *
+     * @return the remaining balls, or 0 if no level is running
+     */
+    int getRemainingBalls();
+
+    /**
+     * Gets the number of collision queries that used a candidate cache as
+     * it was, since the game started.
+     *
+     * @return the number of cache hits
+     */
+    long getCandidateCacheHits();
+
+    /**
+     * Gets the number of collision queries that filled a candidate cache
+     * again, since the game started.
+     *
+     * @return the number of cache misses
+     */
+    long getCandidateCacheMisses();
+
+    /**
+     * Gets the part of the cached collision queries that used the cache as
+     * it was, since the game started.
+     *
+     * @return the hit rate, from 0 to 1, or 0 if no cache was used yet
+     */
+    double getCandidateCacheHitRate();
+}
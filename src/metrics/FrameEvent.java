@@ -0,0 +1,35 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The FrameEvent class is a Flight Recorder event for one frame of the
+ * animation runner, from the start of its ticks until it is shown.
+ * It is off unless a recording enables it.
+ */
+@Name("arkanoid.Frame")
+@Label("Frame")
+@Description("One frame of the animation runner: its ticks, drawing and showing")
+@Category("Arkanoid")
+@Enabled(false)
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Ticks")
+    @Description("The number of ticks the frame updated")
+    private int ticks;
+
+    /**
+     * Sets the number of ticks the frame updated.
+     *
+     * @param ticks the number of ticks
+     */
+    public void setTicks(int ticks) {
+        this.ticks = ticks;
+    }
+}
@@ -0,0 +1,234 @@
+package metrics;
+
+import biuoop.DrawSurface;
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * The FrameStats class records how long the frames of the animation runner
+ * take, to find the cause of stutter.
+ * It keeps a histogram of the time between the starts of two frames, and
+ * of the time spent in each phase of a frame: updating, drawing, and
+ * showing the frame. It also counts the frames whose work did not fit in
+ * the time of a frame (missed deadlines).
+ * Recording a frame does not allocate. The statistics can be drawn on the
+ * screen as a debug overlay, or printed as text.
+ */
+public class FrameStats {
+    private static final double NANOS_PER_MILLISECOND = 1_000_000.0;
+    private static final int OVERLAY_X = 40;
+    private static final int OVERLAY_Y = 80;
+    private static final int OVERLAY_LINE_HEIGHT = 16;
+    private static final int OVERLAY_FONT_SIZE = 14;
+    private LogHistogram frameTimes;
+    private LogHistogram updateTimes;
+    private LogHistogram drawTimes;
+    private LogHistogram showTimes;
+    private long ticks;
+    private long missedDeadlines;
+    // The fractions of the screen drawn again, summed over the frames drawn in dirty rectangle mode
+    private double repaintedFractions;
+    private long repaintedFrames;
+
+    /**
+     * Instantiates a new, empty Frame stats.
+     */
+    public FrameStats() {
+        this.frameTimes = new LogHistogram();
+        this.updateTimes = new LogHistogram();
+        this.drawTimes = new LogHistogram();
+        this.showTimes = new LogHistogram();
+        this.ticks = 0;
+        this.missedDeadlines = 0;
+        this.repaintedFractions = 0;
+        this.repaintedFrames = 0;
+    }
+
+    /**
+     * Records the phases of one frame.
+     *
+     * @param updateNanos the time spent updating, in nanoseconds
+     * @param tickCount   the number of ticks the frame updated
+     * @param drawNanos   the time spent drawing, in nanoseconds
+     * @param showNanos   the time spent showing the frame, in nanoseconds
+     * @param missed      whether the frame's work took longer than a frame
+     */
+    public void recordPhases(long updateNanos, int tickCount, long drawNanos, long showNanos,
+                             boolean missed) {
+        this.updateTimes.record(updateNanos);
+        this.drawTimes.record(drawNanos);
+        this.showTimes.record(showNanos);
+        this.ticks += tickCount;
+        if (missed) {
+            this.missedDeadlines++;
+        }
+    }
+
+    /**
+     * Records the time between the start of a frame and the start of the
+     * frame before it.
+     *
+     * @param frameNanos the frame time, in nanoseconds
+     */
+    public void recordFrameTime(long frameNanos) {
+        this.frameTimes.record(frameNanos);
+    }
+
+    /**
+     * Records the fraction of the screen a frame drawn in dirty rectangle
+     * mode drew again.
+     *
+     * @param fraction the fraction, from 0 to 1
+     */
+    public void recordRepaintedFraction(double fraction) {
+        this.repaintedFractions += fraction;
+        this.repaintedFrames++;
+    }
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    public void reset() {
+        this.frameTimes.reset();
+        this.updateTimes.reset();
+        this.drawTimes.reset();
+        this.showTimes.reset();
+        this.ticks = 0;
+        this.missedDeadlines = 0;
+        this.repaintedFractions = 0;
+        this.repaintedFrames = 0;
+    }
+
+    /**
+     * Gets the histogram of the time between the starts of two frames.
+     *
+     * @return the frame time histogram, in nanoseconds
+     */
+    public LogHistogram getFrameTimes() {
+        return this.frameTimes;
+    }
+
+    /**
+     * Gets the histogram of the time spent updating in a frame.
+     *
+     * @return the update time histogram, in nanoseconds
+     */
+    public LogHistogram getUpdateTimes() {
+        return this.updateTimes;
+    }
+
+    /**
+     * Gets the histogram of the time spent drawing a frame.
+     *
+     * @return the draw time histogram, in nanoseconds
+     */
+    public LogHistogram getDrawTimes() {
+        return this.drawTimes;
+    }
+
+    /**
+     * Gets the histogram of the time spent showing a frame.
+     *
+     * @return the show time histogram, in nanoseconds
+     */
+    public LogHistogram getShowTimes() {
+        return this.showTimes;
+    }
+
+    /**
+     * Gets the number of ticks run so far.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Gets the number of frames whose work took longer than a frame.
+     *
+     * @return the number of missed deadlines
+     */
+    public long getMissedDeadlines() {
+        return this.missedDeadlines;
+    }
+
+    /**
+     * Gets the average fraction of the screen drawn again per frame, over
+     * the frames drawn in dirty rectangle mode.
+     *
+     * @return the average fraction, or 1 if no frame was drawn in that mode
+     */
+    public double getAverageRepaintedFraction() {
+        if (this.repaintedFrames == 0) {
+            return 1;
+        }
+        return this.repaintedFractions / this.repaintedFrames;
+    }
+
+    /**
+     * Returns the statistics as lines of text.
+     *
+     * @return the lines
+     */
+    public String[] lines() {
+        String[] lines = {
+                String.format("frames %d, ticks %d, missed deadlines %d",
+                        this.drawTimes.getCount(), this.ticks, this.missedDeadlines),
+                describe("frame", this.frameTimes),
+                describe("update", this.updateTimes),
+                describe("draw", this.drawTimes),
+                describe("show", this.showTimes)
+        };
+        if (this.repaintedFrames == 0) {
+            return lines;
+        }
+        // The frames were drawn in dirty rectangle mode
+        String[] withRepaints = Arrays.copyOf(lines, lines.length + 1);
+        withRepaints[lines.length] = String.format("repaint %.1f%% of the screen per frame",
+                100 * this.getAverageRepaintedFraction());
+        return withRepaints;
+    }
+
+    /**
+     * Describes the percentiles of the given histogram in milliseconds.
+     *
+     * @param name      the name of the histogram
+     * @param histogram the histogram
+     * @return a line of text
+     */
+    private static String describe(String name, LogHistogram histogram) {
+        return String.format("%-6s p50 %.2f p99 %.2f p99.9 %.2f max %.2f ms", name,
+                histogram.percentile(0.5) / NANOS_PER_MILLISECOND,
+                histogram.percentile(0.99) / NANOS_PER_MILLISECOND,
+                histogram.percentile(0.999) / NANOS_PER_MILLISECOND,
+                histogram.getMax() / NANOS_PER_MILLISECOND);
+    }
+
+    /**
+     * Draws the statistics on the given surface, as a debug overlay.
+     *
+     * @param d the surface to draw on
+     */
+    public void drawOn(DrawSurface d) {
+        String[] lines = this.lines();
+        d.setColor(Color.WHITE);
+        d.fillRectangle(OVERLAY_X - 5, OVERLAY_Y - OVERLAY_LINE_HEIGHT,
+                420, OVERLAY_LINE_HEIGHT * lines.length + 8);
+        d.setColor(Color.BLACK);
+        for (int i = 0; i < lines.length; i++) {
+            d.drawText(OVERLAY_X, OVERLAY_Y + i * OVERLAY_LINE_HEIGHT, lines[i],
+                    OVERLAY_FONT_SIZE);
+        }
+    }
+
+    /**
+     * Returns the statistics as text.
+     *
+     * @return the statistics, one per line
+     */
+    @Override
+    public String toString() {
+        return String.join(System.lineSeparator(), this.lines());
+    }
+}
@@ -0,0 +1,44 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The GamePhaseEvent class is a Flight Recorder event for one phase of a
+ * game level frame: drawing the sprites, or notifying them that time
+ * passed.
+ * It is off unless a recording enables it.
+ */
+@Name("arkanoid.GamePhase")
+@Label("Game Phase")
+@Description("One phase of a game level frame")
+@Category("Arkanoid")
+@Enabled(false)
+@StackTrace(false)
+public class GamePhaseEvent extends Event {
+    /**
+     * The phase that draws all the sprites.
+     */
+    public static final String DRAW = "draw";
+    /**
+     * The phase that notifies all the sprites that time passed.
+     */
+    public static final String TIME_PASSED = "notifyAllTimePassed";
+
+    @Label("Phase")
+    private String phase;
+
+    /**
+     * Instantiates a new Game phase event.
+     *
+     * @param phase the phase, DRAW or TIME_PASSED
+     */
+    public GamePhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
@@ -0,0 +1,35 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The HitDispatchEvent class is a Flight Recorder event for a block
+ * notifying its hit listeners of a hit.
+ * It is off unless a recording enables it.
+ */
+@Name("arkanoid.HitDispatch")
+@Label("Hit Dispatch")
+@Description("A block notifying its hit listeners of a hit")
+@Category("Arkanoid")
+@Enabled(false)
+@StackTrace(false)
+public class HitDispatchEvent extends Event {
+    @Label("Listeners")
+    @Description("The number of listeners notified")
+    private int listeners;
+
+    /**
+     * Sets the number of listeners notified.
+     *
+     * @param listeners the number of listeners
+     */
+    public void setListeners(int listeners) {
+        this.listeners = listeners;
+    }
+}
@@ -0,0 +1,140 @@
+package metrics;
+
+import java.util.Arrays;
+
+/**
+ * The LogHistogram class counts values, such as durations in nanoseconds,
+ * in a fixed set of buckets whose width grows with the value, so that
+ * percentiles can be read at any time without keeping the values.
+ * Every power of two is split into 16 buckets, so a percentile is off by at
+ * most 1/16 of its value. Recording a value only increments a counter, and
+ * never allocates.
+ */
+public class LogHistogram {
+    // Every power of two is split into 2^SUB_BITS buckets
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // The largest power of two that has its own buckets, about 18 minutes in nanoseconds
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+    private long[] counts;
+    private long count;
+    private long max;
+    private long sum;
+
+    /**
+     * Instantiates a new, empty Log histogram.
+     */
+    public LogHistogram() {
+        this.counts = new long[BUCKETS];
+        this.reset();
+    }
+
+    /**
+     * Forgets all the recorded values.
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.max = 0;
+        this.sum = 0;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, negative values count as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        this.counts[bucketOf(v)]++;
+        this.count++;
+        this.sum += v;
+        if (v > this.max) {
+            this.max = v;
+        }
+    }
+
+    /**
+     * Returns the bucket of the given value.
+     *
+     * @param value the value, not negative
+     * @return the bucket index
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value that falls into the given bucket.
+     *
+     * @param bucket the bucket index
+     * @return the largest value of the bucket
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+
+    /**
+     * Returns the value below or at which the given fraction of the recorded
+     * values fall, such as 0.99 for the 99th percentile.
+     *
+     * @param fraction the fraction, between 0 and 1
+     * @return the percentile, or 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.counts[bucket];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Gets the average of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+}
@@ -4,6 +4,8 @@ import biuoop.DrawSurface;
 import core.Counter;
 import core.Sprite;
 import game.GameLevel;
+import game.SpriteLayer;
+import geometry.DirtyRegions;
 
 import java.awt.Color;
 
@@ -13,7 +15,11 @@ import java.awt.Color;
  * It implements the Sprite interface.
  */
 public class ScoreIndicator implements Sprite {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 20;
     private Counter score;
+    // The score when the band was last reported as changed
+    private int reportedScore;
 
     /**
      * Constructs a new ScoreIndicator.
@@ -22,6 +28,7 @@ public class ScoreIndicator implements Sprite {
      */
     public ScoreIndicator(Counter score) {
         this.score = score;
+        this.reportedScore = score.getValue();
     }
     /**
      * Draws the score indicator on the given DrawSurface.
@@ -32,9 +39,11 @@ public class ScoreIndicator implements Sprite {
     public void drawOn(DrawSurface d) {
         int upperLeftX = 0;
         int upperLeftY = 0;
-        int width = 800;
-        int height = 20;
+        int width = WIDTH;
+        int height = HEIGHT;
 
+        // The frame is black, whatever color the sprite drawn before it used
+        d.setColor(Color.BLACK);
         d.drawRectangle(upperLeftX, upperLeftY, width, height);
         d.setColor(Color.WHITE);
         d.fillRectangle(upperLeftX, upperLeftY, width, height);
@@ -43,22 +52,40 @@ public class ScoreIndicator implements Sprite {
 
     }
 
+    /**
+     * Reports the band of the score indicator when the score changed since
+     * it was last reported.
+     *
+     * @param regions the regions to add to
+     * @return true, since the score indicator knows its region
+     */
+    @Override
+    public boolean reportDirtyBounds(DirtyRegions regions) {
+        if (this.score.getValue() != this.reportedScore) {
+            this.reportedScore = this.score.getValue();
+            regions.add(0, 0, WIDTH + 1, HEIGHT + 1);
+        }
+        return true;
+    }
+
     /**
      * Updates the score indicator.
      * Since the score indicator does not change over time,
      * this method does nothing.
+     *
+     * @param dt the time that passed, in seconds
      */
     @Override
-    public void timePassed() {
+    public void timePassed(double dt) {
         return;
     }
 
     /**
-     * Adds the score indicator to the given game.
+     * Adds the score indicator to the HUD layer of the given game.
      *
      * @param g The game to add the score indicator to.
      */
     public void addToGame(GameLevel g) {
-        g.addSprite(this);
+        g.addSprite(this, SpriteLayer.HUD);
     }
 }
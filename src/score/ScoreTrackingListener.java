@@ -3,15 +3,21 @@ package score;
 import core.Counter;
 import gameObjects.Ball;
 import gameObjects.Block;
-import listeners.HitListener;
+import listeners.HitBatchListener;
 
 /**
  * The ScoreTrackingListener class is responsible for tracking the score
  * in the game.
- * It implements the HitListener interface.
+ * It implements the HitBatchListener interface: the points of the hits of a
+ * tick are gathered, and added to the score once, when the batch ends.
+ * If it is not told about batches, the points of every hit are added at
+ * once.
  */
-public class ScoreTrackingListener implements HitListener {
+public class ScoreTrackingListener implements HitBatchListener {
+    private static final int POINTS_PER_HIT = 5;
     private Counter currentScore;
+    private int pendingPoints;
+    private boolean batched;
 
     /**
      * Constructs a new ScoreTrackingListener.
@@ -20,6 +26,18 @@ public class ScoreTrackingListener implements HitListener {
      */
     public ScoreTrackingListener(Counter scoreCounter) {
         this.currentScore = scoreCounter;
+        this.pendingPoints = 0;
+        this.batched = false;
+    }
+
+    /**
+     * Sets whether the hits are delivered in batches. If they are, the
+     * points are only added to the score when a batch ends.
+     *
+     * @param batchedHits true if hitBatchEnded is called after every batch
+     */
+    public void setBatched(boolean batchedHits) {
+        this.batched = batchedHits;
     }
 
     /**
@@ -33,8 +51,22 @@ public class ScoreTrackingListener implements HitListener {
     @Override
     public void hitEvent(Block beingHit, Ball hitter) {
         // Increase the current score by 5
-        this.currentScore.increase(5);
+        this.pendingPoints += POINTS_PER_HIT;
+        if (!this.batched) {
+            this.hitBatchEnded();
+        }
         // Remove this listener from the block
         //beingHit.removeHitListener(beingHit.getHitListeners().get(0));
     }
+
+    /**
+     * Adds the points of the hits of the batch to the score.
+     */
+    @Override
+    public void hitBatchEnded() {
+        if (this.pendingPoints != 0) {
+            this.currentScore.increase(this.pendingPoints);
+            this.pendingPoints = 0;
+        }
+    }
 }
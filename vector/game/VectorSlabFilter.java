@@ -0,0 +1,83 @@
+package game;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorSlabFilter class tests the segment against as many boxes at a
+ * time as the widest double vector of the CPU holds, using the incubating
+ * Vector API. The boxes that are left over at the end are tested one by one.
+ * It gives the same result as the scalar filter.
+ */
+public class VectorSlabFilter implements SlabFilter {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private final ScalarSlabFilter tail = new ScalarSlabFilter();
+
+    /**
+     * Writes the places of the boxes in the given range the segment
+     * touches into the given array, testing a vector of boxes at a time.
+     *
+     * @param minX the minimum x of every box
+     * @param minY the minimum y of every box
+     * @param maxX the maximum x of every box
+     * @param maxY the maximum y of every box
+     * @param from the first box of the range, inclusive
+     * @param to   the last box of the range, exclusive
+     * @param x0   the x coordinate of the start of the segment
+     * @param y0   the y coordinate of the start of the segment
+     * @param x1   the x coordinate of the end of the segment
+     * @param y1   the y coordinate of the end of the segment
+     * @param grow how much to grow every box on every side
+     * @param out  the array the places are written to, at least as long
+     *             as the range
+     * @return the number of places written
+     */
+    @Override
+    public int filter(double[] minX, double[] minY, double[] maxX, double[] maxY, int from,
+                      int to, double x0, double y0, double x1, double y1, double grow,
+                      int[] out) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double invDx = dx != 0 ? 1 / dx : 0;
+        double invDy = dy != 0 ? 1 / dy : 0;
+        int lanes = SPECIES.length();
+        int bound = from + SPECIES.loopBound(to - from);
+        int found = 0;
+        for (int i = from; i < bound; i += lanes) {
+            DoubleVector low = DoubleVector.fromArray(SPECIES, minX, i).sub(grow);
+            DoubleVector high = DoubleVector.fromArray(SPECIES, maxX, i).add(grow);
+            DoubleVector enter = DoubleVector.zero(SPECIES);
+            DoubleVector exit = DoubleVector.broadcast(SPECIES, 1);
+            VectorMask<Double> hit = SPECIES.maskAll(true);
+            if (dx == 0) {
+                hit = low.compare(VectorOperators.LE, x0).and(high.compare(VectorOperators.GE, x0));
+            } else {
+                DoubleVector t1 = low.sub(x0).mul(invDx);
+                DoubleVector t2 = high.sub(x0).mul(invDx);
+                enter = enter.max(t1.min(t2));
+                exit = exit.min(t1.max(t2));
+            }
+            low = DoubleVector.fromArray(SPECIES, minY, i).sub(grow);
+            high = DoubleVector.fromArray(SPECIES, maxY, i).add(grow);
+            if (dy == 0) {
+                hit = hit.and(low.compare(VectorOperators.LE, y0))
+                        .and(high.compare(VectorOperators.GE, y0));
+            } else {
+                DoubleVector t1 = low.sub(y0).mul(invDy);
+                DoubleVector t2 = high.sub(y0).mul(invDy);
+                enter = enter.max(t1.min(t2));
+                exit = exit.min(t1.max(t2));
+            }
+            long bits = hit.and(enter.compare(VectorOperators.LE, exit)).toLong();
+            // Write the places of the set lanes, lowest first
+            while (bits != 0) {
+                out[found++] = i + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return this.tail.filterRange(minX, minY, maxX, maxY, bound, to, x0, y0, x1, y1,
+                grow, out, found);
+    }
+}